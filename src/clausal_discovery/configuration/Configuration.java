@@ -1,7 +1,10 @@
 package clausal_discovery.configuration;
 
 import basic.FileUtil;
+import clausal_discovery.core.EntailmentStrategy;
 import clausal_discovery.core.LogicBase;
+import clausal_discovery.core.SearchBudget;
+import clausal_discovery.core.SearchMode;
 import clausal_discovery.validity.ValidatedClause;
 import idp.FileManager;
 import log.Log;
@@ -11,6 +14,7 @@ import pair.TypePair;
 import parse.LogicParser;
 import parse.ParseException;
 import vector.Vector;
+import version3.algorithm.Plugin;
 import version3.algorithm.SearchAlgorithm;
 import version3.plugin.CountingPlugin;
 import version3.plugin.FileLoggingPlugin;
@@ -19,6 +23,7 @@ import java.io.File;
 import java.net.URL;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -70,6 +75,30 @@ public class Configuration {
 		return clauseLength;
 	}
 
+	// IVAR entailmentStrategy - The strategy used for entailment tests that require the logic executor
+
+	private final EntailmentStrategy entailmentStrategy;
+
+	public EntailmentStrategy getEntailmentStrategy() {
+		return entailmentStrategy;
+	}
+
+	// IVAR searchMode - The way the refinement tree is traversed
+
+	private final SearchMode searchMode;
+
+	public SearchMode getSearchMode() {
+		return searchMode;
+	}
+
+	// IVAR searchBudget - The resources the search can use
+
+	private final SearchBudget searchBudget;
+
+	public SearchBudget getSearchBudget() {
+		return searchBudget;
+	}
+
 	/**
 	 * Creates a configuration.
 	 * @param logicBase		The logic base
@@ -78,10 +107,56 @@ public class Configuration {
 	 * @param clauseLength	The number of literals to use
 	 */
 	public Configuration(LogicBase logicBase, Vector<Theory> background, int variableCount, int clauseLength) {
+		this(logicBase, background, variableCount, clauseLength, EntailmentStrategy.BATCHED);
+	}
+
+	/**
+	 * Creates a configuration.
+	 * @param logicBase				The logic base
+	 * @param background			The background theories
+	 * @param variableCount			The number of variables to use
+	 * @param clauseLength			The number of literals to use
+	 * @param entailmentStrategy	The strategy used for entailment tests
+	 */
+	public Configuration(LogicBase logicBase, Vector<Theory> background, int variableCount, int clauseLength,
+						 EntailmentStrategy entailmentStrategy) {
+		this(logicBase, background, variableCount, clauseLength, entailmentStrategy, SearchMode.BREADTH_FIRST);
+	}
+
+	/**
+	 * Creates a configuration.
+	 * @param logicBase				The logic base
+	 * @param background			The background theories
+	 * @param variableCount			The number of variables to use
+	 * @param clauseLength			The number of literals to use
+	 * @param entailmentStrategy	The strategy used for entailment tests
+	 * @param searchMode			The way the refinement tree is traversed
+	 */
+	public Configuration(LogicBase logicBase, Vector<Theory> background, int variableCount, int clauseLength,
+						 EntailmentStrategy entailmentStrategy, SearchMode searchMode) {
+		this(logicBase, background, variableCount, clauseLength, entailmentStrategy, searchMode,
+				SearchBudget.UNLIMITED);
+	}
+
+	/**
+	 * Creates a configuration.
+	 * @param logicBase				The logic base
+	 * @param background			The background theories
+	 * @param variableCount			The number of variables to use
+	 * @param clauseLength			The number of literals to use
+	 * @param entailmentStrategy	The strategy used for entailment tests
+	 * @param searchMode			The way the refinement tree is traversed
+	 * @param searchBudget			The resources the search can use
+	 */
+	public Configuration(LogicBase logicBase, Vector<Theory> background, int variableCount, int clauseLength,
+						 EntailmentStrategy entailmentStrategy, SearchMode searchMode, SearchBudget searchBudget) {
 		this.logicBase = logicBase;
 		this.backgroundTheories = background;
 		this.variableCount = variableCount;
 		this.clauseLength = clauseLength;
+		this.entailmentStrategy = entailmentStrategy;
+		this.searchMode = searchMode;
+		this.searchBudget = searchBudget;
 	}
 
 	/**
@@ -89,9 +164,17 @@ public class Configuration {
 	 * @param algorithm	The search algorithm
 	 */
 	public void addPlugins(SearchAlgorithm<ValidatedClause> algorithm) {
+		addPlugins(algorithm::addPlugin);
+	}
+
+	/**
+	 * Add plugins to monitor the algorithms execution
+	 * @param algorithm	The consumer that adds a plugin to the search algorithm
+	 */
+	public void addPlugins(Consumer<Plugin<ValidatedClause>> algorithm) {
 		this.countingPlugin = new CountingPlugin<>();
-		algorithm.addPlugin(getCountingPlugin());
-		algorithm.addPlugin(new FileLoggingPlugin<>(FILE_MANAGER.createRandomFile("txt")));
+		algorithm.accept(getCountingPlugin());
+		algorithm.accept(new FileLoggingPlugin<>(FILE_MANAGER.createRandomFile("txt")));
 	}
 
 	/**
@@ -119,7 +202,38 @@ public class Configuration {
 	 */
 	public Configuration addBackgroundTheory(Theory theory) {
 		Vector<Theory> backgroundTheories = getBackgroundTheories().grow(theory);
-		return new Configuration(getLogicBase(), backgroundTheories, getVariableCount(), getClauseLength());
+		return new Configuration(getLogicBase(), backgroundTheories, getVariableCount(), getClauseLength(),
+				getEntailmentStrategy(), getSearchMode(), getSearchBudget());
+	}
+
+	/**
+	 * Returns a copy of this configuration using the given entailment strategy
+	 * @param strategy	The entailment strategy
+	 * @return	The new configuration
+	 */
+	public Configuration setEntailmentStrategy(EntailmentStrategy strategy) {
+		return new Configuration(getLogicBase(), getBackgroundTheories(), getVariableCount(), getClauseLength(), strategy,
+				getSearchMode(), getSearchBudget());
+	}
+
+	/**
+	 * Returns a copy of this configuration using the given search mode
+	 * @param mode	The search mode
+	 * @return	The new configuration
+	 */
+	public Configuration setSearchMode(SearchMode mode) {
+		return new Configuration(getLogicBase(), getBackgroundTheories(), getVariableCount(), getClauseLength(),
+				getEntailmentStrategy(), mode, getSearchBudget());
+	}
+
+	/**
+	 * Returns a copy of this configuration using the given search budget
+	 * @param budget	The search budget
+	 * @return	The new configuration
+	 */
+	public Configuration setSearchBudget(SearchBudget budget) {
+		return new Configuration(getLogicBase(), getBackgroundTheories(), getVariableCount(), getClauseLength(),
+				getEntailmentStrategy(), getSearchMode(), budget);
 	}
 
 	/**
@@ -175,6 +289,7 @@ public class Configuration {
 	 * @return	A configuration that is an exact copy of this configuration except for the logic base
 	 */
 	public Configuration copy(LogicBase logicBase) {
-		return new Configuration(logicBase, getBackgroundTheories(), getVariableCount(), getClauseLength());
+		return new Configuration(logicBase, getBackgroundTheories(), getVariableCount(), getClauseLength(),
+				getEntailmentStrategy(), getSearchMode(), getSearchBudget());
 	}
 }
@@ -1,36 +1,25 @@
 package clausal_discovery.core;
 
-import cern.colt.bitvector.BitVector;
-import cern.colt.function.IntProcedure;
 import clausal_discovery.instance.Instance;
 import clausal_discovery.instance.InstanceList;
 import clausal_discovery.instance.PositionedInstance;
 import vector.Vector;
 import vector.WriteOnceVector;
 
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.function.IntPredicate;
 
 /**
  * Efficiently represents an ordered set of atoms from an atom list
+ * Atom sets are immutable, the atoms are stored as bits in long words. For instance lists of up to 128 instances the
+ * words are stored inline, larger lists use an array of words. The size and last index are computed when adding.
  *
  * @author Samuel Kolb
  */
 class AtomSet implements Comparable<AtomSet> {
 
-	private class LastFunction implements IntProcedure {
-
-		public int found = -1;
-
-		@Override
-		public boolean apply(int argument) {
-			if(argument > found) {
-				found = argument;
-			} else {
-				throw new IllegalStateException("Unexpected");
-			}
-			return true;
-		}
-	}
+	private static final int INLINE_WORDS = 2;
 
 	private final InstanceList instanceList;
 
@@ -38,45 +27,70 @@ class AtomSet implements Comparable<AtomSet> {
 		return instanceList;
 	}
 
-	private final BitVector vector;
+	// IVAR first, second - The inline words (used iff words is null)
 
-	private int size;
+	private final long first;
 
-	public AtomSet(InstanceList instanceList) {
-		this(instanceList, new BitVector(instanceList.size()));
+	private final long second;
+
+	// IVAR words - The words for instance lists that do not fit inline
+
+	private final long[] words;
+
+	// IVAR size - The number of atoms
+
+	private final int size;
+
+	public int size() {
+		return size;
 	}
 
-	public AtomSet(InstanceList instanceList, BitVector vector) {
-		this.instanceList = instanceList;
-		this.vector = vector;
-		this.size = vector.cardinality();
+	// IVAR lastIndex - The largest atom index (-1 if the set is empty)
+
+	private final int lastIndex;
+
+	public int lastIndex() {
+		return lastIndex;
 	}
 
-	public AtomSet(AtomSet atomSet) {
-		this.instanceList = atomSet.instanceList;
-		this.vector = atomSet.vector.copy();
-		this.size = atomSet.size;
+	public AtomSet(InstanceList instanceList) {
+		this(instanceList, 0, 0, getWordCount(instanceList) > INLINE_WORDS
+				? new long[getWordCount(instanceList)] : null, 0, -1);
+	}
+
+	private AtomSet(InstanceList instanceList, long first, long second, long[] words, int size, int lastIndex) {
+		this.instanceList = instanceList;
+		this.first = first;
+		this.second = second;
+		this.words = words;
+		this.size = size;
+		this.lastIndex = lastIndex;
 	}
 
-	public boolean add(int atomIndex) {
+	/**
+	 * Returns an atom set that contains the atoms of this set and the given atom
+	 * @param atomIndex	The index of the atom to add
+	 * @return	A new atom set (or this set if it contains the atom already)
+	 */
+	public AtomSet add(int atomIndex) {
 		if(atomIndex < 0 || atomIndex >= instanceList.size()) {
 			throw new IllegalArgumentException("Illegal atom index: " + atomIndex);
 		}
 
-		boolean wasInSet = vector.get(atomIndex);
-		size += wasInSet ? 0 : 1;
-		vector.set(atomIndex);
-		return !wasInSet;
+		if(contains(atomIndex))
+			return this;
+		long bit = 1L << atomIndex;
+		int word = atomIndex >>> 6;
+		long[] newWords = words == null ? null : words.clone();
+		if(newWords != null)
+			newWords[word] |= bit;
+		long newFirst = words == null && word == 0 ? first | bit : first;
+		long newSecond = words == null && word == 1 ? second | bit : second;
+		return new AtomSet(instanceList, newFirst, newSecond, newWords, size + 1, Math.max(lastIndex, atomIndex));
 	}
 
-	public int size() {
-		return size;
-	}
-
-	public int lastIndex() {
-		LastFunction last = new LastFunction();
-		vector.forEachIndexFromToInState(0, vector.size() - 1, true, last);
-		return last.found;
+	public boolean contains(int atomIndex) {
+		return (getWord(atomIndex >>> 6) & 1L << atomIndex) != 0;
 	}
 
 	public boolean isEmpty() {
@@ -95,23 +109,73 @@ class AtomSet implements Comparable<AtomSet> {
 		return instances;
 	}
 
+	/**
+	 * Applies the given predicate to the atom indices in ascending order, until it returns false
+	 * @param predicate	The predicate
+	 * @return	True iff the predicate returned true for all atom indices
+	 */
 	public boolean forEach(IntPredicate predicate) {
-		return vector.forEachIndexFromToInState(0, vector.size() - 1, true, predicate::test);
+		for(int i = 0; i < getWordCount(); i++)
+			for(long word = getWord(i); word != 0; word &= word - 1)
+				if(!predicate.test(i * Long.SIZE + Long.numberOfTrailingZeros(word)))
+					return false;
+		return true;
+	}
+
+	/**
+	 * Returns the atoms of this set as a bit set
+	 * @return	A new bit set
+	 */
+	public BitSet toBitSet() {
+		return BitSet.valueOf(words == null ? new long[]{first, second} : words);
 	}
 
 	public boolean isSubsetOf(AtomSet atomSet) {
-		return !forEach(atomSet.vector::get);
+		if(size > atomSet.size)
+			return false;
+		for(int i = 0; i < getWordCount(); i++)
+			if((getWord(i) & ~atomSet.getWord(i)) != 0)
+				return false;
+		return true;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if(this == o) return true;
+		if(o == null || getClass() != o.getClass()) return false;
+
+		AtomSet atomSet = (AtomSet) o;
+		return instanceList == atomSet.instanceList && size == atomSet.size && first == atomSet.first
+				&& second == atomSet.second && Arrays.equals(words, atomSet.words);
+	}
+
+	@Override
+	public int hashCode() {
+		int result = Long.hashCode(first);
+		result = 31 * result + Long.hashCode(second);
+		result = 31 * result + Arrays.hashCode(words);
+		return result;
 	}
 
 	@Override
 	public int compareTo(AtomSet o) {
-		BitVector comparisonVector = vector.copy();
-		comparisonVector.xor(o.vector);
-		if(comparisonVector.cardinality() == 0) {
-			return 0;
-		} else {
-			int firstDifference = comparisonVector.indexOfFromTo(0, comparisonVector.size() - 1, true);
-			return vector.get(firstDifference) ? -1 : 1;
+		for(int i = 0; i < getWordCount(); i++) {
+			long difference = getWord(i) ^ o.getWord(i);
+			if(difference != 0)
+				return (getWord(i) & Long.lowestOneBit(difference)) != 0 ? -1 : 1;
 		}
+		return 0;
+	}
+
+	private int getWordCount() {
+		return words == null ? INLINE_WORDS : words.length;
+	}
+
+	private long getWord(int index) {
+		return words == null ? (index == 0 ? first : second) : words[index];
+	}
+
+	private static int getWordCount(InstanceList instanceList) {
+		return (instanceList.size() + Long.SIZE - 1) / Long.SIZE;
 	}
 }
@@ -0,0 +1,129 @@
+package clausal_discovery.core;
+
+import version3.algorithm.ExpansionOperator;
+import version3.algorithm.Node;
+import version3.algorithm.ResultPolicy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.ToDoubleBiFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The beam search is a parallel breadth first search that only keeps the best nodes of every level.
+ * Children are scored by a heuristic (given their parent) and the nodes with the highest scores are kept, ties are
+ * broken by the order of the breadth first search. Optionally, if a level exceeds the width, the number of kept
+ * children per parent is limited, so the beam is not filled by the children of a single node.
+ *
+ * @param <T>	The type of the node values
+ * @author Samuel Kolb
+ */
+public class BeamSearch<T> extends ParallelBreadthFirstSearch<T> {
+
+	private static class ScoredNode<T> {
+
+		private final Node<T> node;
+
+		private final int parent;
+
+		private final double score;
+
+		private ScoredNode(Node<T> node, int parent, double score) {
+			this.node = node;
+			this.parent = parent;
+			this.score = score;
+		}
+	}
+
+	//region Variables
+
+	// IVAR heuristic - Scores a node value given the value of its parent
+
+	private final ToDoubleBiFunction<T, T> heuristic;
+
+	// IVAR width - The maximal number of nodes per level
+
+	private final int width;
+
+	public int getWidth() {
+		return width;
+	}
+
+	// IVAR diversity - The maximal number of children per parent that are kept
+
+	private final int diversity;
+
+	public int getDiversity() {
+		return diversity;
+	}
+
+	// IVAR discardListener - Notified with the depth of the nodes of a level that are not kept in the beam
+
+	private IntConsumer discardListener = depth -> {};
+
+	/**
+	 * Sets the listener that is notified (on the searching thread) when nodes are not kept in the beam
+	 * @param discardListener	The listener, receives the depth of the discarded nodes
+	 */
+	public void setDiscardListener(IntConsumer discardListener) {
+		this.discardListener = discardListener;
+	}
+
+	//endregion
+
+	//region Construction
+
+	/**
+	 * Creates a new beam search
+	 * @param expansionOperator	The expansion operator, it has to be thread-safe
+	 * @param resultPolicy		The result policy
+	 * @param maximalDepth		The maximal depth of nodes
+	 * @param key				The key used for duplicate elimination
+	 * @param heuristic			The heuristic that scores a value given the value of its parent (higher is better)
+	 * @param width				The maximal number of nodes per level
+	 * @param diversity			The maximal number of nodes per level that share a parent
+	 */
+	public BeamSearch(ExpansionOperator<T> expansionOperator, ResultPolicy<T> resultPolicy, int maximalDepth,
+					  Function<T, ?> key, ToDoubleBiFunction<T, T> heuristic, int width, int diversity) {
+		super(expansionOperator, resultPolicy, maximalDepth, key);
+		if(width < 1 || diversity < 1)
+			throw new IllegalArgumentException(String.format("Illegal width %d or diversity %d", width, diversity));
+		this.heuristic = heuristic;
+		this.width = width;
+		this.diversity = diversity;
+	}
+
+	//endregion
+
+	//region Protected methods
+
+	@Override
+	protected List<Node<T>> selectLevel(List<Node<T>> parents, List<List<Node<T>>> children, ForkJoinPool pool) {
+		List<Node<T>> level = super.selectLevel(parents, children, pool);
+		if(level.size() <= getWidth())
+			return level;
+		int[] parentIndices = new int[level.size()];
+		for(int i = 0, j = 0; i < children.size(); i++)
+			for(int k = 0; k < children.get(i).size(); k++)
+				parentIndices[j++] = i;
+		List<ScoredNode<T>> scored = pool.submit(() -> IntStream.range(0, level.size()).parallel()
+				.mapToObj(i -> new ScoredNode<>(level.get(i), parentIndices[i], heuristic.applyAsDouble(
+						parents.get(parentIndices[i]).getValue(), level.get(i).getValue())))
+				.collect(Collectors.toList())).join();
+		scored.sort(Comparator.comparingDouble((ScoredNode<T> node) -> node.score).reversed());
+		List<Node<T>> beam = new ArrayList<>(getWidth());
+		int[] counts = new int[parents.size()];
+		for(int i = 0; i < scored.size() && beam.size() < getWidth(); i++)
+			if(counts[scored.get(i).parent]++ < getDiversity())
+				beam.add(scored.get(i).node);
+		discardListener.accept(level.get(0).getDepth());
+		return beam;
+	}
+
+	//endregion
+}
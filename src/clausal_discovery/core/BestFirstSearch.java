@@ -0,0 +1,214 @@
+package clausal_discovery.core;
+
+import version3.algorithm.ExpansionOperator;
+import version3.algorithm.Node;
+import version3.algorithm.Plugin;
+import version3.algorithm.Result;
+import version3.algorithm.ResultPolicy;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+/**
+ * The best first search always continues with the nodes that have the highest priority.
+ * Nodes are taken from the queue in batches (one node per thread), the nodes of a batch are selected and processed
+ * sequentially and expanded in parallel, the priorities of the children are computed in parallel as well. Nodes with
+ * equal priorities are searched in the order they were generated, so the search is deterministic.
+ *
+ * @param <T>	The type of the node values
+ * @author Samuel Kolb
+ */
+public class BestFirstSearch<T> implements TreeSearch<T> {
+
+	private static class QueuedNode<T> implements Comparable<QueuedNode<T>> {
+
+		private final Node<T> node;
+
+		private final double priority;
+
+		private final long sequence;
+
+		private QueuedNode(Node<T> node, double priority, long sequence) {
+			this.node = node;
+			this.priority = priority;
+			this.sequence = sequence;
+		}
+
+		@Override
+		public int compareTo(QueuedNode<T> o) {
+			int comparison = Double.compare(o.priority, priority);
+			return comparison != 0 ? comparison : Long.compare(sequence, o.sequence);
+		}
+	}
+
+	//region Variables
+
+	// IVAR expansionOperator - The operator used to generate the children of a node (concurrently)
+
+	private final ExpansionOperator<T> expansionOperator;
+
+	// IVAR resultPolicy - The policy that decides which nodes are solutions
+
+	private final ResultPolicy<T> resultPolicy;
+
+	// IVAR maximalDepth - The depth of the deepest nodes to be expanded (initial nodes have depth 0)
+
+	private final int maximalDepth;
+
+	public int getMaximalDepth() {
+		return maximalDepth;
+	}
+
+	// IVAR key - Maps node values onto keys, nodes with the same key as a previously generated node are removed
+
+	private final Function<T, ?> key;
+
+	// IVAR priority - The priority of a node value (higher priorities are searched first), computed concurrently
+
+	private final ToDoubleFunction<T> priority;
+
+	// IVAR parallelism - The number of threads used to expand nodes
+
+	private final int parallelism;
+
+	// IVAR plugins - The plugins that monitor the search
+
+	private final List<Plugin<T>> plugins = new ArrayList<>();
+
+	//endregion
+
+	//region Construction
+
+	/**
+	 * Creates a new best first search that uses all available processors
+	 * @param expansionOperator	The expansion operator, it has to be thread-safe
+	 * @param resultPolicy		The result policy
+	 * @param maximalDepth		The maximal depth of nodes
+	 * @param key				The key used for duplicate elimination
+	 * @param priority			The priority of node values
+	 */
+	public BestFirstSearch(ExpansionOperator<T> expansionOperator, ResultPolicy<T> resultPolicy, int maximalDepth,
+						   Function<T, ?> key, ToDoubleFunction<T> priority) {
+		this(expansionOperator, resultPolicy, maximalDepth, key, priority, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a new best first search
+	 * @param expansionOperator	The expansion operator, it has to be thread-safe
+	 * @param resultPolicy		The result policy
+	 * @param maximalDepth		The maximal depth of nodes
+	 * @param key				The key used for duplicate elimination
+	 * @param priority			The priority of node values
+	 * @param parallelism		The number of threads used to expand nodes (and the size of batches)
+	 */
+	public BestFirstSearch(ExpansionOperator<T> expansionOperator, ResultPolicy<T> resultPolicy, int maximalDepth,
+						   Function<T, ?> key, ToDoubleFunction<T> priority, int parallelism) {
+		if(parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be positive, was " + parallelism);
+		this.expansionOperator = expansionOperator;
+		this.resultPolicy = resultPolicy;
+		this.maximalDepth = maximalDepth;
+		this.key = key;
+		this.priority = priority;
+		this.parallelism = parallelism;
+	}
+
+	//endregion
+
+	//region Public methods
+
+	@Override
+	public void addPlugin(Plugin<T> plugin) {
+		plugins.add(plugin);
+	}
+
+	@Override
+	public Result<T> search(List<T> initialValues) {
+		Result<T> result = new SearchResult<>();
+		List<Node<T>> initialNodes = new ArrayList<>();
+		for(T value : initialValues)
+			initialNodes.add(new SearchNode<>(value, 0));
+		plugins.forEach(plugin -> plugin.initialise(initialNodes, result));
+		PriorityQueue<QueuedNode<T>> queue = new PriorityQueue<>();
+		Set<Object> keys = new HashSet<>();
+		for(Node<T> node : initialNodes)
+			if(keys.add(key.apply(node.getValue())))
+				queue.add(new QueuedNode<>(node, priority.applyAsDouble(node.getValue()), queue.size()));
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			long sequence = queue.size();
+			while(!queue.isEmpty())
+				sequence = searchBatch(queue, keys, sequence, result, pool);
+		} finally {
+			pool.shutdown();
+		}
+		plugins.forEach(plugin -> plugin.searchComplete(result));
+		return result;
+	}
+
+	//endregion
+
+	//region Private methods
+
+	/**
+	 * Processes a batch of nodes with the highest priorities and adds their children to the queue
+	 * @param queue		The queue of nodes
+	 * @param keys		The keys of all generated nodes
+	 * @param sequence	The sequence number of the next generated node
+	 * @param result	The result
+	 * @param pool		The pool used to expand nodes
+	 * @return	The sequence number of the next generated node after this batch
+	 */
+	private long searchBatch(PriorityQueue<QueuedNode<T>> queue, Set<Object> keys, long sequence, Result<T> result,
+							 ForkJoinPool pool) {
+		List<Node<T>> expanded = new ArrayList<>();
+		for(int i = 0; i < parallelism && !queue.isEmpty(); i++) {
+			Node<T> node = queue.poll().node;
+			if(!isSelected(node))
+				continue;
+			if(!resultPolicy.processSolution(result, node) || node.getDepth() >= getMaximalDepth())
+				((SearchNode<T>) node).pruneChildren();
+			if(node.shouldPruneChildren())
+				plugins.forEach(plugin -> plugin.nodeProcessed(node, result));
+			else
+				expanded.add(node);
+		}
+		List<List<T>> children = pool.submit(() -> expanded.parallelStream()
+				.map(expansionOperator::expandNode)
+				.collect(Collectors.toList())).join();
+		List<double[]> priorities = pool.submit(() -> children.parallelStream()
+				.map(values -> values.stream().mapToDouble(priority).toArray())
+				.collect(Collectors.toList())).join();
+		for(int i = 0; i < expanded.size(); i++) {
+			Node<T> node = expanded.get(i);
+			List<Node<T>> childNodes = new ArrayList<>();
+			for(int j = 0; j < children.get(i).size(); j++) {
+				T child = children.get(i).get(j);
+				if(keys.add(key.apply(child))) {
+					Node<T> childNode = new SearchNode<>(child, node.getDepth() + 1);
+					childNodes.add(childNode);
+					queue.add(new QueuedNode<>(childNode, priorities.get(i)[j], sequence++));
+				}
+			}
+			plugins.forEach(plugin -> plugin.nodeExpanded(node, childNodes));
+			plugins.forEach(plugin -> plugin.nodeProcessed(node, result));
+		}
+		return sequence;
+	}
+
+	private boolean isSelected(Node<T> node) {
+		for(Plugin<T> plugin : plugins)
+			if(!plugin.nodeSelected(node))
+				return false;
+		return true;
+	}
+
+	//endregion
+}
@@ -0,0 +1,146 @@
+package clausal_discovery.core;
+
+import version3.algorithm.Node;
+import version3.algorithm.Plugin;
+import version3.algorithm.Result;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+/**
+ * The budget plugin stops a search gracefully when its budget is exhausted: from then on, no node is selected, so
+ * no node is processed or expanded anymore and the search completes as usual.
+ * It has to be added before the other plugins, it keeps track of the smallest depth of a node it did not select.
+ * Searches and plugins that discard nodes themselves (e.g. beam searches) report the depths of these nodes as well.
+ * Every node that has not been processed is a descendant of such a node, so all nodes of smaller depths have been
+ * processed. Selection and discarding are expected to happen on one thread at a time.
+ *
+ * @param <T>	The type of the node values
+ * @author Samuel Kolb
+ */
+public class BudgetPlugin<T> implements Plugin<T> {
+
+	//region Variables
+
+	// IVAR budget - The search budget
+
+	private final SearchBudget budget;
+
+	public SearchBudget getBudget() {
+		return budget;
+	}
+
+	// IVAR callCounter - Returns the total number of IDP calls so far
+
+	private final LongSupplier callCounter;
+
+	// IVAR startTime, startCalls - The time and number of calls when the search started
+
+	private long startTime;
+
+	private long startCalls;
+
+	// IVAR nodeCount - The number of selected nodes
+
+	private long nodeCount = 0;
+
+	// IVAR exhausted - The limit that stopped the search, if any
+
+	private Optional<SearchBudget.Limit> exhausted = Optional.empty();
+
+	// IVAR cutoffDepth - The smallest depth of a node that was not selected because of the budget or discarded
+
+	private int cutoffDepth = Integer.MAX_VALUE;
+
+	// IVAR endTime - The time when the search completed
+
+	private long endTime;
+
+	//endregion
+
+	//region Construction
+
+	/**
+	 * Creates a new budget plugin
+	 * @param budget		The search budget
+	 * @param callCounter	Returns the total number of IDP calls so far
+	 */
+	public BudgetPlugin(SearchBudget budget, LongSupplier callCounter) {
+		this.budget = budget;
+		this.callCounter = callCounter;
+	}
+
+	//endregion
+
+	//region Public methods
+
+	@Override
+	public void initialise(List<Node<T>> initialNodes, Result<T> result) {
+		this.startTime = System.currentTimeMillis();
+		this.startCalls = callCounter.getAsLong();
+	}
+
+	@Override
+	public boolean nodeSelected(Node<T> node) {
+		if(!exhausted.isPresent())
+			exhausted = getExhaustedLimit();
+		if(exhausted.isPresent()) {
+			cutoffDepth = Math.min(cutoffDepth, node.getDepth());
+			return false;
+		}
+		nodeCount++;
+		return true;
+	}
+
+	@Override
+	public void nodeProcessed(Node<T> node, Result<T> result) {
+
+	}
+
+	@Override
+	public void nodeExpanded(Node<T> node, List<Node<T>> childNodes) {
+
+	}
+
+	@Override
+	public void searchComplete(Result<T> result) {
+		this.endTime = System.currentTimeMillis();
+	}
+
+	/**
+	 * Records that a node of the given depth has been discarded without being processed
+	 * @param depth	The depth of the node
+	 */
+	public void nodeDiscarded(int depth) {
+		cutoffDepth = Math.min(cutoffDepth, depth);
+	}
+
+	/**
+	 * Returns the report of the (completed) search
+	 * @param maximalDepth		The maximal depth of the search
+	 * @param pruningComplete	Whether every clause in the result has been tested for redundancy
+	 * @return	A search report
+	 */
+	public SearchReport getReport(int maximalDepth, boolean pruningComplete) {
+		int coveredDepth = Math.min(maximalDepth, cutoffDepth - 1);
+		return new SearchReport(exhausted, coveredDepth, nodeCount, callCounter.getAsLong() - startCalls,
+				endTime - startTime, pruningComplete);
+	}
+
+	//endregion
+
+	//region Private methods
+
+	private Optional<SearchBudget.Limit> getExhaustedLimit() {
+		if(System.currentTimeMillis() - startTime >= budget.getTimeLimit())
+			return Optional.of(SearchBudget.Limit.TIME);
+		if(nodeCount >= budget.getNodeLimit())
+			return Optional.of(SearchBudget.Limit.NODES);
+		if(callCounter.getAsLong() - startCalls >= budget.getCallLimit())
+			return Optional.of(SearchBudget.Limit.IDP_CALLS);
+		return Optional.empty();
+	}
+
+	//endregion
+}
@@ -0,0 +1,175 @@
+package clausal_discovery.core;
+
+import clausal_discovery.instance.Instance;
+import clausal_discovery.instance.PositionedInstance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Computes canonical keys for clauses up to variable renaming and literal order.
+ * Variables are colored by partition refinement over the incidence structure of variables and literals, ties that
+ * remain are broken by individualizing every variable of the first non-trivial cell in turn (keeping the smallest key).
+ * Arguments of symmetric predicates are compared as multisets, since their order is irrelevant.
+ * Two clauses have the same key iff one can be obtained from the other by renaming its variables.
+ * The search does not prune branches that are equivalent under automorphisms of the clause, so it may explore up to n!
+ * leaves for n variables that refinement cannot tell apart. Clauses have few variables (the search space is bounded
+ * by the configured variable count) and keys are only computed for clauses that introduce new variables, so the
+ * search remains far cheaper than the n! variants that it replaces.
+ *
+ * @author Samuel Kolb
+ */
+class CanonicalLabelling {
+
+	//region Variables
+
+	// IVAR literals - The literal labels (side and predicate)
+
+	private final String[] labels;
+
+	// IVAR arguments - The variable indices of every literal
+
+	private final int[][] arguments;
+
+	// IVAR symmetric - Whether the predicate of every literal is symmetric (its arguments can be permuted)
+
+	private final boolean[] symmetric;
+
+	// IVAR variableCount - The number of variables
+
+	private final int variableCount;
+
+	//endregion
+
+	//region Construction
+
+	private CanonicalLabelling(List<PositionedInstance> literals, int variableCount) {
+		this.labels = new String[literals.size()];
+		this.arguments = new int[literals.size()][];
+		this.symmetric = new boolean[literals.size()];
+		this.variableCount = variableCount;
+		for(int i = 0; i < literals.size(); i++) {
+			Instance instance = literals.get(i).getInstance();
+			labels[i] = (literals.get(i).isInBody() ? "~" : "") + instance.getPredicate().getName() + "/"
+					+ instance.getDefinition().getArity();
+			arguments[i] = instance.getVariables();
+			symmetric[i] = instance.getDefinition().isSymmetric();
+		}
+	}
+
+	//endregion
+
+	//region Public methods
+
+	/**
+	 * Returns the canonical key of the clause with the given literals
+	 * @param literals		The literals of the clause
+	 * @param variableCount	The number of variables occurring in the literals (indices start at 0)
+	 * @return	A key that is equal for two clauses iff they are equal up to variable renaming and literal order
+	 */
+	public static String getKey(List<PositionedInstance> literals, int variableCount) {
+		CanonicalLabelling labelling = new CanonicalLabelling(literals, variableCount);
+		return labelling.search(labelling.refine(new int[variableCount]));
+	}
+
+	//endregion
+
+	//region Private methods
+
+	/**
+	 * Returns the smallest key over all discrete colorings that refine the given coloring by individualization.
+	 * Every variable of the first non-trivial cell is tried, so the number of leaves is at most the product of the
+	 * sizes of the cells that are split along a branch (and at most n! for n variables).
+	 * @param colors	The (stable) colors of the variables
+	 * @return	The smallest key
+	 */
+	private String search(int[] colors) {
+		int cell = getFirstNonTrivialCell(colors);
+		if(cell < 0)
+			return print(colors);
+		String minimal = null;
+		for(int variable = 0; variable < variableCount; variable++)
+			if(colors[variable] == cell) {
+				int[] individualized = new int[variableCount];
+				for(int i = 0; i < variableCount; i++)
+					individualized[i] = 2 * colors[i] + (i == variable ? 0 : 1);
+				String key = search(refine(individualized));
+				if(minimal == null || key.compareTo(minimal) < 0)
+					minimal = key;
+			}
+		return minimal;
+	}
+
+	/**
+	 * Refines the given coloring until it is stable, colors are ordered consistently with the given colors
+	 * @param colors	The colors of the variables
+	 * @return	The refined colors, numbered from 0
+	 */
+	private int[] refine(int[] colors) {
+		int count = -1;
+		while(true) {
+			String[] signatures = new String[variableCount];
+			for(int variable = 0; variable < variableCount; variable++)
+				signatures[variable] = getSignature(colors, variable);
+			List<String> distinct = new ArrayList<>(new TreeSet<>(Arrays.asList(signatures)));
+			int[] refined = new int[variableCount];
+			for(int variable = 0; variable < variableCount; variable++)
+				refined[variable] = Collections.binarySearch(distinct, signatures[variable]);
+			colors = refined;
+			if(distinct.size() == count)
+				return colors;
+			count = distinct.size();
+		}
+	}
+
+	private String getSignature(int[] colors, int variable) {
+		List<String> occurrences = new ArrayList<>();
+		for(int i = 0; i < arguments.length; i++)
+			for(int j = 0; j < arguments[i].length; j++)
+				if(arguments[i][j] == variable)
+					occurrences.add(labels[i] + "@" + (symmetric[i] ? "*" : j) + printArguments(i, colors));
+		Collections.sort(occurrences);
+		return String.format("%04d", colors[variable]) + occurrences;
+	}
+
+	private int getFirstNonTrivialCell(int[] colors) {
+		int[] counts = new int[variableCount];
+		for(int color : colors)
+			counts[color]++;
+		for(int color = 0; color < variableCount; color++)
+			if(counts[color] > 1)
+				return color;
+		return -1;
+	}
+
+	private String print(int[] colors) {
+		List<String> literals = new ArrayList<>();
+		for(int i = 0; i < arguments.length; i++)
+			literals.add(labels[i] + printArguments(i, colors));
+		Collections.sort(literals);
+		return String.join(",", literals);
+	}
+
+	/**
+	 * Prints the colors of the arguments of a literal, in sorted order if its predicate is symmetric
+	 * @param literal	The index of the literal
+	 * @param colors	The colors of the variables
+	 * @return	A string representation of the colored arguments
+	 */
+	private String printArguments(int literal, int[] colors) {
+		int[] argumentColors = new int[arguments[literal].length];
+		for(int i = 0; i < argumentColors.length; i++)
+			argumentColors[i] = colors[arguments[literal][i]];
+		if(symmetric[literal])
+			Arrays.sort(argumentColors);
+		StringBuilder builder = new StringBuilder("(");
+		for(int i = 0; i < argumentColors.length; i++)
+			builder.append(i == 0 ? "" : " ").append(argumentColors[i]);
+		return builder.append(")").toString();
+	}
+
+	//endregion
+}
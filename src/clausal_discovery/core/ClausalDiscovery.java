@@ -3,16 +3,16 @@ package clausal_discovery.core;
 import clausal_discovery.configuration.Configuration;
 import clausal_discovery.instance.InstanceList;
 import clausal_discovery.validity.ValidatedClause;
+import idp.IdpExecutor;
+import log.Log;
 import logic.expression.formula.Formula;
 import logic.theory.InlineTheory;
 import logic.theory.Theory;
 import vector.Vector;
-import version3.algorithm.*;
-import version3.algorithm.implementation.BreadthFirstSearch;
-import version3.plugin.DuplicateEliminationPlugin;
-import version3.plugin.MaximalDepthPlugin;
+import version3.algorithm.Plugin;
 
 import java.util.*;
+import java.util.function.BiPredicate;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -23,6 +23,19 @@ import java.util.stream.Collectors;
  */
 public class ClausalDiscovery {
 
+	private interface SearchFactory {
+
+		/**
+		 * Creates the search of a run
+		 * @param configuration	The configuration
+		 * @param refinement	The refinement operator (and result policy)
+		 * @param budget		The budget plugin, it is added to the search before any other plugin
+		 * @return	A new search
+		 */
+		TreeSearch<ValidatedClause> create(Configuration configuration, VariableRefinement refinement,
+										   BudgetPlugin<ValidatedClause> budget);
+	}
+
 	// IVAR excessTime - The time taken that entailment checks in the last run needed to round off the search
 
 	private double excessTime;
@@ -31,6 +44,14 @@ public class ClausalDiscovery {
 		return excessTime;
 	}
 
+	// IVAR report - The report of the last run, describing how far it got within the search budget
+
+	private SearchReport report;
+
+	public SearchReport getReport() {
+		return report;
+	}
+
 	// IVAR configuration - The search configuration
 
 	private final Configuration configuration;
@@ -65,6 +86,20 @@ public class ClausalDiscovery {
 		return run(getConfiguration(), c -> c.getSupportCount() >= size);
 	}
 
+	/**
+	 * Use the given configuration to find the constraints for multiple support levels in a single search, sharing all
+	 * refinement, validity and entailment work between the levels
+	 * @param supports	The percentages (between 0 and 1) of examples, hard constraints (1) are always included
+	 * @return	A support lattice holding the constraints of every level
+	 */
+	public SupportLattice findConstraints(double... supports) {
+		int exampleCount = getConfiguration().getLogicBase().getExamples().size();
+		double[] levels = SupportLattice.getLevels(supports);
+		double size = Math.ceil(exampleCount * levels[levels.length - 1]);
+		List<ValidatedClause> clauses = run(getConfiguration(), c -> c.getSupportCount() >= size);
+		return new SupportLattice(exampleCount, supports, clauses);
+	}
+
 	/**
 	 * Finds constraints that are true on at least one example
 	 * @param clauses	The hard constraints that are used as background knowledge
@@ -79,21 +114,128 @@ public class ClausalDiscovery {
 		return run(newConfig, c -> c.getSupportCount() > 0);
 	}
 
+	/**
+	 * Use the given configuration to find hard constraints in the data, deepening the search one literal at a time.
+	 * The search continues from the clauses of the previous length, so accepted clauses, validities and the canonical
+	 * variants found so far are reused rather than recomputed. The clause length of the configuration acts as a limit,
+	 * the search mode is ignored (levels are searched breadth first).
+	 * @param listener	Receives every length (starting at 1) and the hard constraints found up to that length as soon as
+	 *                 	all clauses of that length have been tested, returns true iff the search should continue
+	 * @return	A list of status clauses that represent hard constraints
+	 */
+	public List<ValidatedClause> findHardConstraints(BiPredicate<Integer, List<ValidatedClause>> listener) {
+		return run(getConfiguration(), ValidatedClause::coversAll,
+				(configuration, refinement, budget) -> createDeepeningSearch(configuration, refinement, listener));
+	}
+
+	/**
+	 * Use the given configuration to find constraints that hold on a certain percentage of the examples, using a beam
+	 * search that only refines the best clauses of every length
+	 * @param support	The percentage (between 0 and 1) of examples, that a constraint needs to hold on
+	 * @param heuristic	The heuristic used to rank the clauses of a length
+	 * @param width		The number of clauses of a length that are kept
+	 * @return	A list of status clauses that hold on at least the given percentage of examples
+	 */
+	public List<ValidatedClause> findSoftConstraints(double support, ClauseHeuristic heuristic, int width) {
+		return findSoftConstraints(support, heuristic, width, width);
+	}
+
+	/**
+	 * Use the given configuration to find constraints that hold on a certain percentage of the examples, using a beam
+	 * search that only refines the best clauses of every length
+	 * @param support	The percentage (between 0 and 1) of examples, that a constraint needs to hold on
+	 * @param heuristic	The heuristic used to rank the clauses of a length
+	 * @param width		The number of clauses of a length that are kept
+	 * @param diversity	The number of kept clauses of a length that can be refinements of the same clause
+	 * @return	A list of status clauses that hold on at least the given percentage of examples
+	 */
+	public List<ValidatedClause> findSoftConstraints(double support, ClauseHeuristic heuristic, int width,
+													 int diversity) {
+		double size = Math.ceil(getConfiguration().getLogicBase().getExamples().size() * support);
+		return run(getConfiguration(), c -> c.getSupportCount() >= size, (configuration, refinement, budget) -> {
+			BeamSearch<ValidatedClause> search = new BeamSearch<>(refinement, refinement,
+					configuration.getClauseLength(), ValidatedClause::getClause, heuristic::evaluate, width, diversity);
+			search.setDiscardListener(budget::nodeDiscarded);
+			return search;
+		});
+	}
+
+	/**
+	 * Use the given configuration to find the k non-redundant constraints that hold on the most examples.
+	 * Clauses with a high support are refined first and the support required for new constraints rises as better
+	 * constraints are found, the search stops when no remaining clause can improve the k best constraints.
+	 * @param k	The number of constraints to find
+	 * @return	A list of (at most k) status clauses ordered by decreasing support
+	 */
+	public List<ValidatedClause> findTopSoftConstraints(int k) {
+		TopSupportPlugin top = new TopSupportPlugin(k, getConfiguration().getClauseLength());
+		List<ValidatedClause> clauses = run(getConfiguration(), top::accepts, (configuration, refinement, budget) -> {
+			BestFirstSearch<ValidatedClause> search = new BestFirstSearch<>(refinement, refinement,
+					configuration.getClauseLength(), ValidatedClause::getClause, ValidatedClause::getSupportCount);
+			top.setRedundancy(refinement::subsumes);
+			top.setDiscardListener(budget::nodeDiscarded);
+			return search;
+		}, top);
+		return top.select(clauses);
+	}
+
 	private List<ValidatedClause> run(Configuration configuration, Predicate<ValidatedClause> validityTest) {
+		return run(configuration, validityTest, (config, refinement, budget) -> createSearch(config, refinement));
+	}
+
+	/**
+	 * Searches for constraints
+	 * @param configuration	The configuration
+	 * @param validityTest	The test that decides which clauses are accepted
+	 * @param searchFactory	Creates the search for the given configuration, refinement operator and budget plugin
+	 * @param plugins		Additional plugins, added after the budget plugin and before the configured plugins
+	 * @return	The constraints found
+	 */
+	@SafeVarargs
+	private final List<ValidatedClause> run(Configuration configuration, Predicate<ValidatedClause> validityTest,
+			SearchFactory searchFactory,
+			Plugin<ValidatedClause>... plugins) {
 		int variables = configuration.getVariableCount();
 		LogicBase logicBase = configuration.getLogicBase();
 		Vector<Theory> background = configuration.getBackgroundTheories();
 		InstanceList list = new InstanceList(logicBase.getSearchPredicates(), variables);
-		VariableRefinement refinement = new VariableRefinement(logicBase, list, background, validityTest);
+		VariableRefinement refinement = new VariableRefinement(logicBase, list, background, validityTest,
+				configuration.getEntailmentStrategy());
 		List<ValidatedClause> initialNodes = Collections.singletonList(new ValidatedClause(list, logicBase));
-		SearchAlgorithm<ValidatedClause> algorithm = new BreadthFirstSearch<>(refinement, StopCriterion.empty(), refinement);
-		configuration.addPlugins(algorithm);
-		algorithm.addPlugin(new MaximalDepthPlugin<>(configuration.getClauseLength()));
-		algorithm.addPlugin(new DuplicateEliminationPlugin<>(false));
+		refinement.setPruningTimeLimit(configuration.getSearchBudget().getPruningTimeLimit());
+		BudgetPlugin<ValidatedClause> budget = new BudgetPlugin<>(configuration.getSearchBudget(),
+				IdpExecutor.get()::getCallCount);
+		TreeSearch<ValidatedClause> algorithm = searchFactory.create(configuration, refinement, budget);
+		algorithm.addPlugin(budget);
+		for(Plugin<ValidatedClause> plugin : plugins)
+			algorithm.addPlugin(plugin);
+		configuration.addPlugins(algorithm::addPlugin);
 		algorithm.addPlugin(refinement);
 
 		List<ValidatedClause> clauses = algorithm.search(initialNodes).getSolutions();
 		this.excessTime = refinement.getExcessTimer().stop();
+		this.report = budget.getReport(configuration.getClauseLength(), refinement.isPruningComplete());
+		Log.LOG.printLine(getReport().toString());
 		return clauses;
 	}
+
+	private TreeSearch<ValidatedClause> createSearch(Configuration configuration, VariableRefinement refinement) {
+		int depth = configuration.getClauseLength();
+		if(configuration.getSearchMode() == SearchMode.DEPTH_FIRST)
+			return new ParallelDepthFirstSearch<>(refinement, refinement, depth);
+		return new ParallelBreadthFirstSearch<>(refinement, refinement, depth, ValidatedClause::getClause);
+	}
+
+	private TreeSearch<ValidatedClause> createDeepeningSearch(Configuration configuration,
+			VariableRefinement refinement, BiPredicate<Integer, List<ValidatedClause>> depthListener) {
+		ParallelBreadthFirstSearch<ValidatedClause> search = new ParallelBreadthFirstSearch<>(refinement, refinement,
+				configuration.getClauseLength(), ValidatedClause::getClause);
+		search.setLevelListener((depth, result) -> {
+			if(depth == 0)
+				return true;
+			refinement.flush(result);
+			return depthListener.test(depth, result.getSolutions());
+		});
+		return search;
+	}
 }
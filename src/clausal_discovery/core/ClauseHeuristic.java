@@ -0,0 +1,45 @@
+package clausal_discovery.core;
+
+import clausal_discovery.validity.ValidatedClause;
+
+/**
+ * A clause heuristic scores a clause that has been obtained by refining a parent clause, higher scores are better
+ *
+ * @author Samuel Kolb
+ */
+@FunctionalInterface
+public interface ClauseHeuristic {
+
+	/**
+	 * Scores the given clause
+	 * @param parent	The clause that was refined
+	 * @param clause	The refined clause
+	 * @return	The score of the refined clause
+	 */
+	double evaluate(ValidatedClause parent, ValidatedClause clause);
+
+	/**
+	 * Returns a heuristic that scores clauses by the number of examples they hold on
+	 * @return	A clause heuristic
+	 */
+	static ClauseHeuristic support() {
+		return (parent, clause) -> clause.getSupportCount();
+	}
+
+	/**
+	 * Returns a heuristic that scores clauses by the number of examples they hold on, but their parent does not
+	 * @return	A clause heuristic
+	 */
+	static ClauseHeuristic supportGain() {
+		return (parent, clause) -> clause.getSupportCount() - parent.getSupportCount();
+	}
+
+	/**
+	 * Returns a heuristic that scores clauses by their support, decreased by a penalty for every literal
+	 * @param penalty	The penalty per literal (in number of examples)
+	 * @return	A clause heuristic
+	 */
+	static ClauseHeuristic lengthPenalty(double penalty) {
+		return (parent, clause) -> clause.getSupportCount() - penalty * clause.getClause().size();
+	}
+}
@@ -0,0 +1,183 @@
+package clausal_discovery.core;
+
+import clausal_discovery.instance.PositionedInstance;
+import logic.expression.formula.Predicate;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The clause matcher decides whether a clause equals a subset of another clause up to variable renaming.
+ * Under object identity, variables are renamed injectively, the matcher searches such a renaming by backtracking.
+ * Arguments of symmetric predicates are stored in sorted order, a renaming can change that order, so their arguments
+ * are matched onto any argument position of the target literal.
+ * Literals with few candidates and literals that share variables with literals that have been matched already are
+ * matched first, so inconsistent renamings fail early.
+ *
+ * @author Samuel Kolb
+ */
+class ClauseMatcher {
+
+	//region Variables
+
+	// IVAR predicates, inBody, symmetric, variables - The predicate, side, symmetry and variable indices of every literal
+
+	private final Predicate[] predicates;
+
+	private final boolean[] inBody;
+
+	private final boolean[] symmetric;
+
+	private final int[][] variables;
+
+	// IVAR variableCount - The number of variables (indices range from 0 to variableCount - 1)
+
+	private final int variableCount;
+
+	//endregion
+
+	//region Construction
+
+	/**
+	 * Creates a new clause matcher
+	 * @param literals		The literals of the clause
+	 * @param variableCount	The number of variables in the clause
+	 */
+	public ClauseMatcher(List<PositionedInstance> literals, int variableCount) {
+		this.predicates = new Predicate[literals.size()];
+		this.inBody = new boolean[literals.size()];
+		this.symmetric = new boolean[literals.size()];
+		this.variables = new int[literals.size()][];
+		this.variableCount = variableCount;
+		for(int i = 0; i < literals.size(); i++) {
+			predicates[i] = literals.get(i).getInstance().getPredicate();
+			inBody[i] = literals.get(i).isInBody();
+			symmetric[i] = literals.get(i).getInstance().getDefinition().isSymmetric();
+			variables[i] = literals.get(i).getInstance().getVariables();
+		}
+	}
+
+	//endregion
+
+	//region Public methods
+
+	/**
+	 * Returns whether the clause of this matcher equals a subset of the clause of the given matcher, up to an
+	 * injective renaming of its variables
+	 * @param target	The matcher of the (potentially) larger clause
+	 * @return	True iff an injective renaming maps every literal of this clause onto a literal of the target clause
+	 */
+	public boolean isSubsetOf(ClauseMatcher target) {
+		if(predicates.length > target.predicates.length || variableCount > target.variableCount)
+			return false;
+		int[] candidateCounts = new int[predicates.length];
+		for(int i = 0; i < predicates.length; i++) {
+			int occurrences = 0;
+			for(int j = 0; j < predicates.length; j++)
+				if(isCompatible(this, i, j))
+					occurrences++;
+			for(int j = 0; j < target.predicates.length; j++)
+				if(isCompatible(target, i, j))
+					candidateCounts[i]++;
+			if(candidateCounts[i] < occurrences)
+				return false;
+		}
+		int[] mapping = new int[variableCount];
+		Arrays.fill(mapping, -1);
+		return match(0, getOrder(candidateCounts), target, mapping, new boolean[target.variableCount]);
+	}
+
+	//endregion
+
+	//region Private methods
+
+	private boolean isCompatible(ClauseMatcher target, int literal, int targetLiteral) {
+		return inBody[literal] == target.inBody[targetLiteral]
+				&& predicates[literal].equals(target.predicates[targetLiteral]);
+	}
+
+	/**
+	 * Orders the literals such that every literal shares as many variables as possible with the preceding literals,
+	 * preferring literals with few candidates
+	 */
+	private int[] getOrder(int[] candidateCounts) {
+		int[] order = new int[predicates.length];
+		boolean[] placed = new boolean[predicates.length];
+		boolean[] bound = new boolean[variableCount];
+		for(int position = 0; position < order.length; position++) {
+			int best = -1;
+			int bestShared = -1;
+			for(int i = 0; i < predicates.length; i++) {
+				if(placed[i])
+					continue;
+				int shared = 0;
+				for(int variable : variables[i])
+					if(bound[variable])
+						shared++;
+				if(shared > bestShared || shared == bestShared && candidateCounts[i] < candidateCounts[best]) {
+					best = i;
+					bestShared = shared;
+				}
+			}
+			order[position] = best;
+			placed[best] = true;
+			for(int variable : variables[best])
+				bound[variable] = true;
+		}
+		return order;
+	}
+
+	private boolean match(int depth, int[] order, ClauseMatcher target, int[] mapping, boolean[] used) {
+		if(depth == order.length)
+			return true;
+		int literal = order[depth];
+		for(int j = 0; j < target.predicates.length; j++)
+			if(isCompatible(target, literal, j) && matchArguments(depth, order, j, 0, 0, target, mapping, used))
+				return true;
+		return false;
+	}
+
+	/**
+	 * Matches the arguments of the literal at the given depth onto the arguments of the given target literal, starting
+	 * at the given argument, and continues with the next literal if all arguments are matched
+	 * @param depth				The depth of the literal in the order
+	 * @param order				The order of the literals
+	 * @param targetLiteral		The index of the target literal
+	 * @param argument			The index of the argument to match
+	 * @param positions			The mask of the target argument positions that have been matched already
+	 * @param target			The target matcher
+	 * @param mapping			The variable mapping (-1 for unmapped variables)
+	 * @param used				Which target variables are mapped onto
+	 * @return	True iff the remaining arguments and literals can be matched
+	 */
+	private boolean matchArguments(int depth, int[] order, int targetLiteral, int argument, int positions,
+								   ClauseMatcher target, int[] mapping, boolean[] used) {
+		int literal = order[depth];
+		int[] arguments = variables[literal];
+		if(argument == arguments.length)
+			return match(depth + 1, order, target, mapping, used);
+		int variable = arguments[argument];
+		int first = symmetric[literal] ? 0 : argument;
+		int last = symmetric[literal] ? arguments.length - 1 : argument;
+		for(int position = first; position <= last; position++) {
+			if((positions & 1 << position) != 0)
+				continue;
+			int targetVariable = target.variables[targetLiteral][position];
+			int nextPositions = positions | 1 << position;
+			if(mapping[variable] < 0 && !used[targetVariable]) {
+				mapping[variable] = targetVariable;
+				used[targetVariable] = true;
+				if(matchArguments(depth, order, targetLiteral, argument + 1, nextPositions, target, mapping, used))
+					return true;
+				used[targetVariable] = false;
+				mapping[variable] = -1;
+			} else if(mapping[variable] == targetVariable) {
+				if(matchArguments(depth, order, targetLiteral, argument + 1, nextPositions, target, mapping, used))
+					return true;
+			}
+		}
+		return false;
+	}
+
+	//endregion
+}
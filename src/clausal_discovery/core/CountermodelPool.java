@@ -0,0 +1,133 @@
+package clausal_discovery.core;
+
+import logic.example.Example;
+import logic.expression.formula.Clause;
+import logic.expression.formula.Formula;
+import logic.theory.FileTheory;
+import logic.theory.InlineTheory;
+import logic.theory.Model;
+import logic.theory.Theory;
+import vector.Vector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A countermodel pool collects models that can refute entailment without calling the logic executor.
+ * If a model satisfies the premises (and background theories) but falsifies a clause, the premises do not entail it.
+ * The pool is seeded with the examples and extended with the countermodels of failed entailment checks.
+ * An example is only used as a seed if it can be verified to satisfy every background formula. Hence, no examples are
+ * used if there are file background theories, which cannot be evaluated natively.
+ *
+ * @author Samuel Kolb
+ */
+public class CountermodelPool {
+
+	private static final int CAPACITY = 64;
+
+	//region Variables
+
+	// IVAR models - The models in this pool, the examples are kept in front
+
+	private final List<Model> models = new CopyOnWriteArrayList<>();
+
+	// IVAR exampleCount - The number of models that originate from examples
+
+	private final int exampleCount;
+
+	// IVAR backgroundFormulas - The formulas of the inline background theories
+
+	private final List<Formula> backgroundFormulas = new ArrayList<>();
+
+	// IVAR refutationCount - The number of entailment checks that were refuted by this pool
+
+	private final AtomicInteger refutationCount = new AtomicInteger();
+
+	public int getRefutationCount() {
+		return refutationCount.get();
+	}
+
+	//endregion
+
+	//region Construction
+
+	/**
+	 * Creates a countermodel pool seeded with the examples of the given logic base
+	 * @param logicBase		The logic base containing the vocabulary and examples
+	 * @param background	The background theories that every countermodel has to satisfy
+	 */
+	public CountermodelPool(LogicBase logicBase, Vector<Theory> background) {
+		boolean inline = true;
+		for(Theory theory : background)
+			inline &= theory.accept(new Theory.Visitor<Boolean>() {
+				@Override
+				public Boolean visit(InlineTheory inlineTheory) {
+					backgroundFormulas.addAll(inlineTheory.getFormulas());
+					return true;
+				}
+
+				@Override
+				public Boolean visit(FileTheory fileTheory) {
+					return false;
+				}
+			});
+		for(Example example : inline ? logicBase.getExamples() : new Vector<Example>()) {
+			Model model = example.getModel();
+			if(isBackgroundModel(model))
+				models.add(model);
+		}
+		this.exampleCount = models.size();
+	}
+
+	//endregion
+
+	//region Public methods
+
+	/**
+	 * Returns the number of models in this pool
+	 * @return	The number of models
+	 */
+	public int size() {
+		return models.size();
+	}
+
+	/**
+	 * Returns whether a model in this pool proves that the premises do not entail the given clause
+	 * @param premises	The premises (clauses)
+	 * @param clause	The potentially entailed clause
+	 * @return	True if a model satisfies all premises and falsifies the clause, false if no such model is known
+	 */
+	public boolean refutes(List<Formula> premises, Clause clause) {
+		for(Model model : models)
+			if(model.canEvaluate(clause) && model.findViolation(clause).isPresent()
+					&& model.canEvaluate(premises) && model.satisfiesAll(premises)) {
+				refutationCount.incrementAndGet();
+				return true;
+			}
+		return false;
+	}
+
+	/**
+	 * Adds a countermodel to this pool, removing the oldest extracted countermodel if the pool is full
+	 * @param model	The model to add (it must satisfy the background theories)
+	 */
+	public synchronized void addCountermodel(Model model) {
+		if(models.size() - exampleCount >= CAPACITY)
+			models.remove(exampleCount);
+		models.add(model);
+	}
+
+	//endregion
+
+	//region Private methods
+
+	private boolean isBackgroundModel(Model model) {
+		for(Formula formula : backgroundFormulas)
+			if(!model.canEvaluate(formula) || !model.satisfies(formula))
+				return false;
+		return true;
+	}
+	//endregion
+}
@@ -0,0 +1,22 @@
+package clausal_discovery.core;
+
+/**
+ * Describes how entailment tests that cannot be decided natively are passed to the logic executor
+ *
+ * @author Samuel Kolb
+ */
+public enum EntailmentStrategy {
+
+	/**
+	 * Candidates with the same premises are tested together in a single program (tests can run in parallel), this is
+	 * the default strategy
+	 */
+	BATCHED,
+
+	/**
+	 * Candidates are tested in persistent sessions (one per set of premises) that are updated incrementally, sessions
+	 * are used by a single thread. This strategy is opt-in: the interactive IDP protocol has not been verified against
+	 * every IDP version.
+	 */
+	INCREMENTAL
+}
@@ -1,33 +1,50 @@
 package clausal_discovery.core;
 
 import clausal_discovery.instance.Instance;
-import logic.bias.Type;
+import logic.bias.TypeRegistry;
 import logic.expression.formula.Predicate;
 import vector.Vector;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * The environment class containsInstance variable indices and their types. It can be used to determine the validity of
  * instances and keep track of typing information.
+ * Environments are immutable, the types are stored as the identifiers of a type registry in an array indexed by
+ * variable that is only copied when an added instance changes the typing (otherwise the environment is shared).
  *
  * @author Samuel Kolb
  */
 public class Environment {
 
-	// IVAR variableTypes - Maps integers to types
+	private static final int[] EMPTY = new int[0];
 
-	private final Map<Integer, Type> variableTypes;
+	private static final int UNTYPED = -1;
+
+	private static final int NONE = -2;
+
+	// IVAR registry - The registry that assigns identifiers to the types
+
+	private final TypeRegistry registry;
+
+	public TypeRegistry getRegistry() {
+		return registry;
+	}
+
+	// IVAR variableTypes - The type identifier of every variable (-1 if the variable has not been typed)
+
+	private final int[] variableTypes;
 
 	/**
-	 * Creates a new environment with an empty variable-type map
+	 * Creates a new environment without typing information
+	 * @param registry	The registry containing the types of all instances that will be added or checked
 	 */
-	public Environment() {
-		this.variableTypes = new HashMap<>();
+	public Environment(TypeRegistry registry) {
+		this(registry, EMPTY);
 	}
 
-	private Environment(Map<Integer, Type> variableTypes) {
+	private Environment(TypeRegistry registry, int[] variableTypes) {
+		this.registry = registry;
 		this.variableTypes = variableTypes;
 	}
 
@@ -37,7 +54,7 @@ public class Environment {
 	 * @return	True iff the given instance is consistent
 	 */
 	public boolean isValidInstance(Instance instance) {
-		return isValidInstance(instance.getDefinition(), instance.getVariableIndices());
+		return isValidInstance(instance.getDefinition(), instance.getVariables());
 	}
 
 	/**
@@ -47,13 +64,37 @@ public class Environment {
 	 * @return	True iff the given instance is consistent
 	 */
 	public boolean isValidInstance(PredicateDefinition definition, Vector<Integer> indices) {
-		Map<Integer, Type> variables = new HashMap<>(variableTypes);
-		for(int i = 0; i < definition.getArity(); i++) {
-			Integer integer = indices.get(i);
-			Type type = definition.getTypes().get(i);
-			if(!variables.containsKey(integer) || variables.get(integer).isSuperTypeOf(type))
-				variables.put(integer, type);
-			else if(!type.isSuperTypeOf(variables.get(integer)))
+		int[] array = new int[indices.size()];
+		for(int i = 0; i < array.length; i++)
+			array[i] = indices.get(i);
+		return isValidInstance(definition, array);
+	}
+
+	/**
+	 * Determines whether a definition and indices are consistent with the typing information stored in this environment
+	 * @param definition	The definition to check
+	 * @param indices		The variable indices
+	 * @return	True iff the given instance is consistent
+	 */
+	public boolean isValidInstance(PredicateDefinition definition, int[] indices) {
+		return isValidInstance(registry.getIds(definition.getTypes()), indices);
+	}
+
+	/**
+	 * Determines whether argument types and indices are consistent with the typing information stored in this
+	 * environment
+	 * @param types		The type identifiers of the arguments
+	 * @param indices	The variable indices
+	 * @return	True iff the given instance is consistent
+	 */
+	public boolean isValidInstance(int[] types, int[] indices) {
+		for(int i = 0; i < types.length; i++) {
+			int variable = indices[i];
+			int current = getType(variable);
+			for(int j = 0; j < i && current != NONE; j++)
+				if(indices[j] == variable)
+					current = current == UNTYPED ? types[j] : narrow(current, types[j]);
+			if(current == NONE || current != UNTYPED && narrow(current, types[i]) == NONE)
 				return false;
 		}
 		return true;
@@ -65,19 +106,55 @@ public class Environment {
 	 * @return	A new environment that containsInstance additional typing information contained in the given instance
 	 */
 	public Environment addInstance(Instance instance) {
-		return addInstance(instance.getPredicate(), instance.getVariableIndices());
+		return addInstance(instance.getPredicate(), instance.getVariables());
 	}
 
-	protected Environment addInstance(Predicate predicate, Vector<Integer> indices) {
-		Map<Integer, Type> variables = new HashMap<>(variableTypes);
-		for(int i = 0; i < predicate.getArity(); i++) {
-			Integer integer = indices.get(i);
-			Type type = predicate.getTypes().get(i);
-			if (!variables.containsKey(integer) || variables.get(integer).isSuperTypeOf(type))
-				variables.put(integer, type);
-			else if (!type.isSuperTypeOf(variables.get(integer)))
+	protected Environment addInstance(Predicate predicate, int[] indices) {
+		return addInstance(registry.getIds(predicate.getTypes()), indices);
+	}
+
+	/**
+	 * Adds the typing information of the given argument types and indices
+	 * @param types		The type identifiers of the arguments
+	 * @param indices	The variable indices
+	 * @return	A new environment that containsInstance the additional typing information
+	 */
+	public Environment addInstance(int[] types, int[] indices) {
+		int[] variables = variableTypes;
+		for(int i = 0; i < types.length; i++) {
+			int variable = indices[i];
+			int current = variable < variables.length ? variables[variable] : UNTYPED;
+			int type = current == UNTYPED ? types[i] : narrow(current, types[i]);
+			if(type == NONE)
 				throw new IllegalStateException();
+			if(type != current) {
+				if(variables == variableTypes || variable >= variables.length)
+					variables = copy(variables, Math.max(variables.length, variable + 1));
+				variables[variable] = type;
+			}
 		}
-		return new Environment(variables);
+		return variables == variableTypes ? this : new Environment(registry, variables);
+	}
+
+	private int getType(int variable) {
+		return variable < variableTypes.length ? variableTypes[variable] : UNTYPED;
+	}
+
+	private static int[] copy(int[] variables, int length) {
+		int[] copy = Arrays.copyOf(variables, length);
+		Arrays.fill(copy, variables.length, length, UNTYPED);
+		return copy;
+	}
+
+	/**
+	 * Returns the most specific of the given types
+	 * @param current	The identifier of the current type of a variable
+	 * @param type		The identifier of the type required by an argument
+	 * @return	The most specific type or NONE if the types are incompatible
+	 */
+	private int narrow(int current, int type) {
+		if(!registry.isCompatible(current, type))
+			return NONE;
+		return registry.isSuperTypeOf(current, type) ? type : current;
 	}
 }
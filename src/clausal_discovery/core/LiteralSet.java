@@ -32,15 +32,7 @@ class LiteralSet implements Comparable<LiteralSet> {
 	}
 
 	public LiteralSet add(int index, boolean inBody) {
-		if(inBody) {
-			AtomSet newSet = new AtomSet(body);
-			newSet.add(index);
-			return new LiteralSet(newSet, head);
-		} else {
-			AtomSet newSet = new AtomSet(head);
-			newSet.add(index);
-			return new LiteralSet(body, newSet);
-		}
+		return inBody ? new LiteralSet(body.add(index), head) : new LiteralSet(body, head.add(index));
 	}
 
 	public int size() {
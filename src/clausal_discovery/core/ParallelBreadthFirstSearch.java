@@ -0,0 +1,205 @@
+package clausal_discovery.core;
+
+import version3.algorithm.ExpansionOperator;
+import version3.algorithm.Node;
+import version3.algorithm.Plugin;
+import version3.algorithm.Result;
+import version3.algorithm.ResultPolicy;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The parallel breadth first search processes the search tree level by level.
+ * Nodes of a level are selected and processed sequentially, in order, since plugins and the result policy depend on
+ * the solutions that precede them. The selected nodes are then expanded in parallel on a fork/join pool and their
+ * children are merged in the order of their parents, eliminating duplicates. Hence, the nodes (and solutions) are
+ * visited in the same order as by a sequential breadth first search.
+ *
+ * @param <T>	The type of the node values
+ * @author Samuel Kolb
+ */
+public class ParallelBreadthFirstSearch<T> implements TreeSearch<T> {
+
+	//region Variables
+
+	// IVAR expansionOperator - The operator used to generate the children of a node (concurrently)
+
+	private final ExpansionOperator<T> expansionOperator;
+
+	// IVAR resultPolicy - The policy that decides which nodes are solutions
+
+	private final ResultPolicy<T> resultPolicy;
+
+	// IVAR maximalDepth - The depth of the deepest nodes to be expanded (initial nodes have depth 0)
+
+	private final int maximalDepth;
+
+	public int getMaximalDepth() {
+		return maximalDepth;
+	}
+
+	// IVAR key - Maps node values onto keys, children with the same key as a previous node in their level are removed
+
+	private final Function<T, ?> key;
+
+	// IVAR parallelism - The number of threads used to expand nodes
+
+	private final int parallelism;
+
+	// IVAR plugins - The plugins that monitor the search
+
+	private final List<Plugin<T>> plugins = new ArrayList<>();
+
+	// IVAR levelListener - Notified when all nodes of a level have been processed, returns whether to continue
+
+	private BiPredicate<Integer, Result<T>> levelListener = (depth, result) -> true;
+
+	/**
+	 * Sets the listener that is notified (on the searching thread) with the depth and the current result after all
+	 * nodes of a level have been processed and before they are expanded
+	 * @param levelListener	The listener, returns true iff the search should continue with the next level
+	 */
+	public void setLevelListener(BiPredicate<Integer, Result<T>> levelListener) {
+		this.levelListener = levelListener;
+	}
+
+	//endregion
+
+	//region Construction
+
+	/**
+	 * Creates a new parallel breadth first search that uses all available processors
+	 * @param expansionOperator	The expansion operator, it has to be thread-safe
+	 * @param resultPolicy		The result policy
+	 * @param maximalDepth		The maximal depth of nodes
+	 * @param key				The key used for duplicate elimination
+	 */
+	public ParallelBreadthFirstSearch(ExpansionOperator<T> expansionOperator, ResultPolicy<T> resultPolicy,
+									  int maximalDepth, Function<T, ?> key) {
+		this(expansionOperator, resultPolicy, maximalDepth, key, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a new parallel breadth first search
+	 * @param expansionOperator	The expansion operator, it has to be thread-safe
+	 * @param resultPolicy		The result policy
+	 * @param maximalDepth		The maximal depth of nodes
+	 * @param key				The key used for duplicate elimination
+	 * @param parallelism		The number of threads used to expand nodes
+	 */
+	public ParallelBreadthFirstSearch(ExpansionOperator<T> expansionOperator, ResultPolicy<T> resultPolicy,
+									  int maximalDepth, Function<T, ?> key, int parallelism) {
+		if(parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be positive, was " + parallelism);
+		this.expansionOperator = expansionOperator;
+		this.resultPolicy = resultPolicy;
+		this.maximalDepth = maximalDepth;
+		this.key = key;
+		this.parallelism = parallelism;
+	}
+
+	//endregion
+
+	//region Public methods
+
+	@Override
+	public void addPlugin(Plugin<T> plugin) {
+		plugins.add(plugin);
+	}
+
+	@Override
+	public Result<T> search(List<T> initialValues) {
+		Result<T> result = new SearchResult<>();
+		List<Node<T>> level = new ArrayList<>();
+		for(T value : initialValues)
+			level.add(new SearchNode<>(value, 0));
+		plugins.forEach(plugin -> plugin.initialise(level, result));
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			List<Node<T>> nodes = level;
+			for(int depth = 0; !nodes.isEmpty(); depth++)
+				nodes = searchLevel(depth, nodes, result, pool);
+		} finally {
+			pool.shutdown();
+		}
+		plugins.forEach(plugin -> plugin.searchComplete(result));
+		return result;
+	}
+
+	//endregion
+
+	//region Private methods
+
+	/**
+	 * Processes the given nodes of a level and returns the nodes of the next level
+	 * @param depth		The depth of the level
+	 * @param level		The nodes of the level
+	 * @param result	The result
+	 * @param pool		The pool used to expand nodes
+	 * @return	The (distinct) children of the nodes that have been expanded, in order of their parents (empty if the
+	 * 			level listener stops the search)
+	 */
+	private List<Node<T>> searchLevel(int depth, List<Node<T>> level, Result<T> result, ForkJoinPool pool) {
+		List<Node<T>> expanded = new ArrayList<>();
+		for(Node<T> node : level) {
+			if(!isSelected(node))
+				continue;
+			if(!resultPolicy.processSolution(result, node) || node.getDepth() >= getMaximalDepth())
+				((SearchNode<T>) node).pruneChildren();
+			if(node.shouldPruneChildren())
+				plugins.forEach(plugin -> plugin.nodeProcessed(node, result));
+			else
+				expanded.add(node);
+		}
+		if(!levelListener.test(depth, result)) {
+			for(Node<T> node : expanded)
+				plugins.forEach(plugin -> plugin.nodeProcessed(node, result));
+			return new ArrayList<>();
+		}
+		List<List<T>> children = pool.submit(() -> expanded.parallelStream()
+				.map(expansionOperator::expandNode)
+				.collect(Collectors.toList())).join();
+		List<List<Node<T>>> childNodes = new ArrayList<>(expanded.size());
+		Set<Object> keys = new HashSet<>();
+		for(int i = 0; i < expanded.size(); i++) {
+			Node<T> node = expanded.get(i);
+			List<Node<T>> nodes = new ArrayList<>();
+			for(T child : children.get(i))
+				if(keys.add(key.apply(child)))
+					nodes.add(new SearchNode<>(child, node.getDepth() + 1));
+			plugins.forEach(plugin -> plugin.nodeExpanded(node, nodes));
+			plugins.forEach(plugin -> plugin.nodeProcessed(node, result));
+			childNodes.add(nodes);
+		}
+		return selectLevel(expanded, childNodes, pool);
+	}
+
+	/**
+	 * Selects the nodes of the next level among the (distinct) children of the expanded nodes
+	 * @param parents	The expanded nodes, in order
+	 * @param children	The children of every expanded node, in order
+	 * @param pool		The pool that can be used for parallel computations
+	 * @return	The nodes of the next level, by default all children in order of their parents
+	 */
+	protected List<Node<T>> selectLevel(List<Node<T>> parents, List<List<Node<T>>> children, ForkJoinPool pool) {
+		List<Node<T>> nextLevel = new ArrayList<>();
+		children.forEach(nextLevel::addAll);
+		return nextLevel;
+	}
+
+	private boolean isSelected(Node<T> node) {
+		for(Plugin<T> plugin : plugins)
+			if(!plugin.nodeSelected(node))
+				return false;
+		return true;
+	}
+
+	//endregion
+}
@@ -0,0 +1,181 @@
+package clausal_discovery.core;
+
+import version3.algorithm.ExpansionOperator;
+import version3.algorithm.Node;
+import version3.algorithm.Plugin;
+import version3.algorithm.Result;
+import version3.algorithm.ResultPolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The parallel depth first search traverses subtrees of the search tree as fork/join tasks.
+ * A task processes its node, expands it and forks tasks for the children as long as the thread has few queued tasks
+ * (idle threads steal them), other children are searched by the task itself. Hence, only the children of the nodes
+ * on the paths that are being searched are kept in memory.
+ * The expansion operator is called concurrently, while the selection, processing and plugin notifications of nodes
+ * are executed by one thread at a time. Nodes are processed before their descendants, but the order of nodes in
+ * different subtrees depends on the scheduling of tasks.
+ *
+ * @param <T>	The type of the node values
+ * @author Samuel Kolb
+ */
+public class ParallelDepthFirstSearch<T> implements TreeSearch<T> {
+
+	private class SubtreeTask extends RecursiveAction {
+
+		private final Node<T> node;
+
+		private final Result<T> result;
+
+		private SubtreeTask(Node<T> node, Result<T> result) {
+			this.node = node;
+			this.result = result;
+		}
+
+		@Override
+		protected void compute() {
+			if(!process(node, result))
+				return;
+			List<T> children = expansionOperator.expandNode(node);
+			List<Node<T>> childNodes = new ArrayList<>(children.size());
+			for(T child : children)
+				childNodes.add(new SearchNode<>(child, node.getDepth() + 1));
+			synchronized(lock) {
+				plugins.forEach(plugin -> plugin.nodeExpanded(node, childNodes));
+				plugins.forEach(plugin -> plugin.nodeProcessed(node, result));
+			}
+			List<SubtreeTask> forked = new ArrayList<>();
+			for(Node<T> child : childNodes) {
+				SubtreeTask task = new SubtreeTask(child, result);
+				if(getSurplusQueuedTaskCount() < SURPLUS_THRESHOLD) {
+					task.fork();
+					forked.add(task);
+				} else {
+					task.compute();
+				}
+			}
+			for(int i = forked.size() - 1; i >= 0; i--)
+				forked.get(i).join();
+		}
+	}
+
+	private static final int SURPLUS_THRESHOLD = 3;
+
+	//region Variables
+
+	// IVAR expansionOperator - The operator used to generate the children of a node (concurrently)
+
+	private final ExpansionOperator<T> expansionOperator;
+
+	// IVAR resultPolicy - The policy that decides which nodes are solutions
+
+	private final ResultPolicy<T> resultPolicy;
+
+	// IVAR maximalDepth - The depth of the deepest nodes to be expanded (initial nodes have depth 0)
+
+	private final int maximalDepth;
+
+	public int getMaximalDepth() {
+		return maximalDepth;
+	}
+
+	// IVAR parallelism - The number of threads used to search subtrees
+
+	private final int parallelism;
+
+	// IVAR plugins - The plugins that monitor the search
+
+	private final List<Plugin<T>> plugins = new ArrayList<>();
+
+	// IVAR lock - Guards the result policy, the plugins and the result
+
+	private final Object lock = new Object();
+
+	//endregion
+
+	//region Construction
+
+	/**
+	 * Creates a new parallel depth first search that uses all available processors
+	 * @param expansionOperator	The expansion operator, it has to be thread-safe
+	 * @param resultPolicy		The result policy
+	 * @param maximalDepth		The maximal depth of nodes
+	 */
+	public ParallelDepthFirstSearch(ExpansionOperator<T> expansionOperator, ResultPolicy<T> resultPolicy,
+									int maximalDepth) {
+		this(expansionOperator, resultPolicy, maximalDepth, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Creates a new parallel depth first search
+	 * @param expansionOperator	The expansion operator, it has to be thread-safe
+	 * @param resultPolicy		The result policy
+	 * @param maximalDepth		The maximal depth of nodes
+	 * @param parallelism		The number of threads used to search subtrees
+	 */
+	public ParallelDepthFirstSearch(ExpansionOperator<T> expansionOperator, ResultPolicy<T> resultPolicy,
+									int maximalDepth, int parallelism) {
+		if(parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be positive, was " + parallelism);
+		this.expansionOperator = expansionOperator;
+		this.resultPolicy = resultPolicy;
+		this.maximalDepth = maximalDepth;
+		this.parallelism = parallelism;
+	}
+
+	//endregion
+
+	//region Public methods
+
+	@Override
+	public void addPlugin(Plugin<T> plugin) {
+		plugins.add(plugin);
+	}
+
+	@Override
+	public Result<T> search(List<T> initialValues) {
+		Result<T> result = new SearchResult<>();
+		List<Node<T>> initialNodes = new ArrayList<>();
+		for(T value : initialValues)
+			initialNodes.add(new SearchNode<>(value, 0));
+		plugins.forEach(plugin -> plugin.initialise(initialNodes, result));
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			for(Node<T> node : initialNodes)
+				pool.invoke(new SubtreeTask(node, result));
+		} finally {
+			pool.shutdown();
+		}
+		plugins.forEach(plugin -> plugin.searchComplete(result));
+		return result;
+	}
+
+	//endregion
+
+	//region Private methods
+
+	/**
+	 * Selects and processes the given node
+	 * @param node		The node
+	 * @param result	The result
+	 * @return	True iff the node has been selected and its children should be generated
+	 */
+	private boolean process(Node<T> node, Result<T> result) {
+		synchronized(lock) {
+			for(Plugin<T> plugin : plugins)
+				if(!plugin.nodeSelected(node))
+					return false;
+			if(!resultPolicy.processSolution(result, node) || node.getDepth() >= getMaximalDepth())
+				((SearchNode<T>) node).pruneChildren();
+			if(node.shouldPruneChildren())
+				plugins.forEach(plugin -> plugin.nodeProcessed(node, result));
+			return !node.shouldPruneChildren();
+		}
+	}
+
+	//endregion
+}
@@ -0,0 +1,183 @@
+package clausal_discovery.core;
+
+import basic.FileUtil;
+import logic.expression.formula.Formula;
+import logic.expression.formula.Predicate;
+import logic.expression.visitor.ExpressionPredicateFinder;
+import logic.theory.FileTheory;
+import logic.theory.InlineTheory;
+import logic.theory.Theory;
+import logic.theory.Vocabulary;
+import vector.Vector;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * The relevance filter restricts the premises of an entailment check to those that are connected to the predicates of
+ * the tested clause. Predicates are connected if they occur together in a premise or in a sentence of a background
+ * theory. Premises and background theories that share no predicates with the connected component of the clause
+ * cannot take part in a derivation of the clause, so leaving them out only shrinks the program.
+ *
+ * @author Samuel Kolb
+ */
+public class RelevanceFilter {
+
+	private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+	//region Variables
+
+	// IVAR backgroundTheories - The background theories and the predicates that occur in them
+
+	private final Map<Theory, Set<Predicate>> backgroundTheories = new HashMap<>();
+
+	// IVAR backgroundLinks - The predicate dependency graph of the background theories (as union-find parents)
+
+	private final Map<Predicate, Predicate> backgroundLinks = new HashMap<>();
+
+	//endregion
+
+	//region Construction
+
+	/**
+	 * Creates a new relevance filter
+	 * @param vocabulary	The vocabulary (used to recognize predicates in file theories)
+	 * @param background	The background theories
+	 */
+	public RelevanceFilter(Vocabulary vocabulary, Vector<Theory> background) {
+		Map<String, List<Predicate>> names = new HashMap<>();
+		for(PredicateDefinition definition : vocabulary.getDefinitions())
+			names.computeIfAbsent(definition.getPredicate().getName(), n -> new ArrayList<>())
+					.add(definition.getPredicate());
+		for(Theory theory : background) {
+			List<Set<Predicate>> sentences = theory.accept(new Theory.Visitor<List<Set<Predicate>>>() {
+				@Override
+				public List<Set<Predicate>> visit(InlineTheory inlineTheory) {
+					return inlineTheory.getFormulas().stream()
+							.map(ExpressionPredicateFinder::findPredicates)
+							.collect(Collectors.toList());
+				}
+
+				@Override
+				public List<Set<Predicate>> visit(FileTheory fileTheory) {
+					return findPredicates(FileUtil.readFile(fileTheory.getFile()), names);
+				}
+			});
+			Set<Predicate> predicates = new HashSet<>();
+			for(Set<Predicate> sentence : sentences) {
+				link(backgroundLinks, sentence);
+				predicates.addAll(sentence);
+			}
+			backgroundTheories.put(theory, predicates);
+		}
+	}
+
+	//endregion
+
+	//region Public methods
+
+	/**
+	 * Returns the predicates that are connected to the predicates of the given clause
+	 * @param premises	The premises
+	 * @param clause	The clause
+	 * @return	The set of relevant predicates
+	 */
+	public Set<Predicate> getRelevantPredicates(List<Formula> premises, Formula clause) {
+		Map<Predicate, Predicate> links = new HashMap<>(backgroundLinks);
+		for(Formula premise : premises)
+			link(links, ExpressionPredicateFinder.findPredicates(premise));
+		Set<Predicate> roots = new HashSet<>();
+		for(Predicate predicate : ExpressionPredicateFinder.findPredicates(clause))
+			roots.add(find(links, predicate));
+		Set<Predicate> relevant = new HashSet<>();
+		for(Predicate predicate : new ArrayList<>(links.keySet()))
+			if(roots.contains(find(links, predicate)))
+				relevant.add(predicate);
+		relevant.addAll(ExpressionPredicateFinder.findPredicates(clause));
+		return relevant;
+	}
+
+	/**
+	 * Filters the given premises
+	 * @param premises	The premises
+	 * @param relevant	The relevant predicates
+	 * @return	The premises that are predicate-free or that contain relevant predicates
+	 */
+	public List<Formula> filterPremises(List<Formula> premises, Set<Predicate> relevant) {
+		return premises.stream()
+				.filter(premise -> isRelevant(ExpressionPredicateFinder.findPredicates(premise), relevant))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Filters the given background theories (theories that were not provided during construction are kept)
+	 * @param theories	The background theories
+	 * @param relevant	The relevant predicates
+	 * @return	The theories that are predicate-free or that contain relevant predicates
+	 */
+	public Vector<Theory> filterBackground(Vector<Theory> theories, Set<Predicate> relevant) {
+		return theories.filter(theory -> !backgroundTheories.containsKey(theory)
+				|| isRelevant(backgroundTheories.get(theory), relevant));
+	}
+
+	//endregion
+
+	//region Private methods
+
+	private static boolean isRelevant(Collection<Predicate> predicates, Set<Predicate> relevant) {
+		if(predicates.isEmpty())
+			return true;
+		for(Predicate predicate : predicates)
+			if(relevant.contains(predicate))
+				return true;
+		return false;
+	}
+
+	private static List<Set<Predicate>> findPredicates(String text, Map<String, List<Predicate>> names) {
+		List<Set<Predicate>> sentences = new ArrayList<>();
+		String code = text.replaceAll("//[^\n]*", "");
+		for(String sentence : code.split("\\.(\\s|$)")) {
+			Set<Predicate> predicates = new HashSet<>();
+			Matcher matcher = IDENTIFIER.matcher(sentence);
+			while(matcher.find())
+				predicates.addAll(names.getOrDefault(matcher.group(), new ArrayList<>()));
+			if(!predicates.isEmpty())
+				sentences.add(predicates);
+		}
+		return sentences;
+	}
+
+	private static void link(Map<Predicate, Predicate> links, Set<Predicate> predicates) {
+		Predicate first = null;
+		for(Predicate predicate : predicates) {
+			Predicate root = find(links, predicate);
+			if(first == null)
+				first = root;
+			else if(!root.equals(first))
+				links.put(root, first);
+		}
+	}
+
+	private static Predicate find(Map<Predicate, Predicate> links, Predicate predicate) {
+		Predicate parent = links.get(predicate);
+		if(parent == null) {
+			links.put(predicate, predicate);
+			return predicate;
+		}
+		if(parent.equals(predicate))
+			return predicate;
+		Predicate root = find(links, parent);
+		links.put(predicate, root);
+		return root;
+	}
+
+	//endregion
+}
@@ -0,0 +1,142 @@
+package clausal_discovery.core;
+
+/**
+ * A search budget limits the resources a search can use. Limits that are not set are unlimited.
+ * Search budgets are immutable, setting a limit returns a new budget.
+ *
+ * @author Samuel Kolb
+ */
+public class SearchBudget {
+
+	/**
+	 * The resources that can be limited
+	 */
+	public enum Limit {
+
+		/**
+		 * The wall-clock time of the search (in milliseconds)
+		 */
+		TIME,
+
+		/**
+		 * The number of processed nodes
+		 */
+		NODES,
+
+		/**
+		 * The number of programs and session commands executed by IDP
+		 */
+		IDP_CALLS
+	}
+
+	public static final SearchBudget UNLIMITED = new SearchBudget(Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE,
+			Long.MAX_VALUE);
+
+	//region Variables
+
+	// IVAR timeLimit - The maximal wall-clock time of the search in milliseconds
+
+	private final long timeLimit;
+
+	public long getTimeLimit() {
+		return timeLimit;
+	}
+
+	// IVAR nodeLimit - The maximal number of processed nodes
+
+	private final long nodeLimit;
+
+	public long getNodeLimit() {
+		return nodeLimit;
+	}
+
+	// IVAR callLimit - The maximal number of IDP calls
+
+	private final long callLimit;
+
+	public long getCallLimit() {
+		return callLimit;
+	}
+
+	// IVAR pruningTimeLimit - The maximal time in milliseconds spent on pruning the result after the search
+
+	private final long pruningTimeLimit;
+
+	public long getPruningTimeLimit() {
+		return pruningTimeLimit;
+	}
+
+	//endregion
+
+	//region Construction
+
+	private SearchBudget(long timeLimit, long nodeLimit, long callLimit, long pruningTimeLimit) {
+		this.timeLimit = timeLimit;
+		this.nodeLimit = nodeLimit;
+		this.callLimit = callLimit;
+		this.pruningTimeLimit = pruningTimeLimit;
+	}
+
+	//endregion
+
+	//region Public methods
+
+	/**
+	 * Returns a copy of this budget with the given time limit
+	 * @param milliseconds	The maximal wall-clock time of the search
+	 * @return	The new budget
+	 */
+	public SearchBudget setTimeLimit(long milliseconds) {
+		return new SearchBudget(check(milliseconds), getNodeLimit(), getCallLimit(), getPruningTimeLimit());
+	}
+
+	/**
+	 * Returns a copy of this budget with the given node limit
+	 * @param nodes	The maximal number of processed nodes
+	 * @return	The new budget
+	 */
+	public SearchBudget setNodeLimit(long nodes) {
+		return new SearchBudget(getTimeLimit(), check(nodes), getCallLimit(), getPruningTimeLimit());
+	}
+
+	/**
+	 * Returns a copy of this budget with the given IDP call limit
+	 * @param calls	The maximal number of IDP calls
+	 * @return	The new budget
+	 */
+	public SearchBudget setCallLimit(long calls) {
+		return new SearchBudget(getTimeLimit(), getNodeLimit(), check(calls), getPruningTimeLimit());
+	}
+
+	/**
+	 * Returns a copy of this budget with the given pruning time limit. Clauses that have not been tested when the
+	 * limit is reached remain in the result (they might be redundant).
+	 * @param milliseconds	The maximal time spent on pruning the result
+	 * @return	The new budget
+	 */
+	public SearchBudget setPruningTimeLimit(long milliseconds) {
+		return new SearchBudget(getTimeLimit(), getNodeLimit(), getCallLimit(), check(milliseconds));
+	}
+
+	@Override
+	public String toString() {
+		return String.format("Budget[time=%s, nodes=%s, calls=%s, pruning=%s]", print(getTimeLimit()),
+				print(getNodeLimit()), print(getCallLimit()), print(getPruningTimeLimit()));
+	}
+
+	//endregion
+
+	//region Private methods
+
+	private static long check(long limit) {
+		if(limit < 0)
+			throw new IllegalArgumentException("Limits cannot be negative, was " + limit);
+		return limit;
+	}
+
+	private static String print(long limit) {
+		return limit == Long.MAX_VALUE ? "-" : Long.toString(limit);
+	}
+
+	//endregion
+}
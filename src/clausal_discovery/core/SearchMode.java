@@ -0,0 +1,21 @@
+package clausal_discovery.core;
+
+/**
+ * Describes how the refinement tree is traversed
+ *
+ * @author Samuel Kolb
+ */
+public enum SearchMode {
+
+	/**
+	 * Levels are traversed in order and every level is expanded in parallel, solutions are found in a deterministic
+	 * order (shortest clauses first) but entire levels are kept in memory
+	 */
+	BREADTH_FIRST,
+
+	/**
+	 * Subtrees are traversed depth first by work-stealing threads, memory is proportional to the depth and number of
+	 * threads but the order of solutions depends on scheduling
+	 */
+	DEPTH_FIRST
+}
@@ -0,0 +1,61 @@
+package clausal_discovery.core;
+
+import version3.algorithm.Node;
+
+/**
+ * A node in the search tree of the clausal discovery searches
+ *
+ * @param <T>	The type of the node value
+ * @author Samuel Kolb
+ */
+class SearchNode<T> implements Node<T> {
+
+	// IVAR value - The value of this node
+
+	private final T value;
+
+	@Override
+	public T getValue() {
+		return value;
+	}
+
+	// IVAR depth - The depth of this node (initial nodes have depth 0)
+
+	private final int depth;
+
+	@Override
+	public int getDepth() {
+		return depth;
+	}
+
+	// IVAR pruneChildren - Whether the children of this node should not be generated
+
+	private volatile boolean pruneChildren = false;
+
+	@Override
+	public boolean shouldPruneChildren() {
+		return pruneChildren;
+	}
+
+	/**
+	 * Creates a new search node
+	 * @param value	The value
+	 * @param depth	The depth
+	 */
+	public SearchNode(T value, int depth) {
+		this.value = value;
+		this.depth = depth;
+	}
+
+	/**
+	 * Marks this node such that its children are not generated
+	 */
+	public void pruneChildren() {
+		this.pruneChildren = true;
+	}
+
+	@Override
+	public String toString() {
+		return value.toString();
+	}
+}
@@ -0,0 +1,105 @@
+package clausal_discovery.core;
+
+import java.util.Optional;
+
+/**
+ * The search report describes how far a search got within its budget
+ *
+ * @author Samuel Kolb
+ */
+public class SearchReport {
+
+	//region Variables
+
+	// IVAR exhausted - The limit that stopped the search, if any
+
+	private final Optional<SearchBudget.Limit> exhausted;
+
+	public Optional<SearchBudget.Limit> getExhausted() {
+		return exhausted;
+	}
+
+	// IVAR coveredDepth - The depth up to which all nodes (that the search would visit) have been processed
+
+	private final int coveredDepth;
+
+	public int getCoveredDepth() {
+		return coveredDepth;
+	}
+
+	// IVAR nodeCount - The number of processed nodes
+
+	private final long nodeCount;
+
+	public long getNodeCount() {
+		return nodeCount;
+	}
+
+	// IVAR callCount - The number of IDP calls during the search
+
+	private final long callCount;
+
+	public long getCallCount() {
+		return callCount;
+	}
+
+	// IVAR time - The wall-clock time of the search in milliseconds (excluding the final entailment tests and pruning)
+
+	private final long time;
+
+	public long getTime() {
+		return time;
+	}
+
+	// IVAR pruningComplete - Whether every clause in the result has been tested for redundancy
+
+	private final boolean pruningComplete;
+
+	public boolean isPruningComplete() {
+		return pruningComplete;
+	}
+
+	//endregion
+
+	//region Construction
+
+	/**
+	 * Creates a new search report
+	 * @param exhausted			The limit that stopped the search, if any
+	 * @param coveredDepth		The depth up to which all nodes have been processed
+	 * @param nodeCount			The number of processed nodes
+	 * @param callCount			The number of IDP calls
+	 * @param time				The wall-clock time of the search in milliseconds
+	 * @param pruningComplete	Whether every clause in the result has been tested for redundancy
+	 */
+	public SearchReport(Optional<SearchBudget.Limit> exhausted, int coveredDepth, long nodeCount, long callCount,
+						long time, boolean pruningComplete) {
+		this.exhausted = exhausted;
+		this.coveredDepth = coveredDepth;
+		this.nodeCount = nodeCount;
+		this.callCount = callCount;
+		this.time = time;
+		this.pruningComplete = pruningComplete;
+	}
+
+	//endregion
+
+	//region Public methods
+
+	/**
+	 * Returns whether the search was completed within its budget
+	 * @return	True iff no limit has been reached
+	 */
+	public boolean isComplete() {
+		return !getExhausted().isPresent();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s, covered depth %d, %d nodes, %d IDP calls, %d ms, pruning %s",
+				getExhausted().map(limit -> "Stopped (" + limit + ")").orElse("Complete"), getCoveredDepth(),
+				getNodeCount(), getCallCount(), getTime(), isPruningComplete() ? "complete" : "incomplete");
+	}
+
+	//endregion
+}
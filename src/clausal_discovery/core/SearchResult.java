@@ -0,0 +1,41 @@
+package clausal_discovery.core;
+
+import version3.algorithm.Node;
+import version3.algorithm.Result;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The result of the clausal discovery searches, holds the solution nodes in order of addition
+ *
+ * @param <T>	The type of the node values
+ * @author Samuel Kolb
+ */
+class SearchResult<T> implements Result<T> {
+
+	// IVAR nodes - The solution nodes
+
+	private final List<Node<T>> nodes = new ArrayList<>();
+
+	@Override
+	public List<T> getSolutions() {
+		return nodes.stream().map(Node::getValue).collect(Collectors.toList());
+	}
+
+	@Override
+	public void addNode(Node<T> node) {
+		nodes.add(node);
+	}
+
+	@Override
+	public Node<T> removeNode(int index) {
+		return nodes.remove(index);
+	}
+
+	@Override
+	public int getSolutionCount() {
+		return nodes.size();
+	}
+}
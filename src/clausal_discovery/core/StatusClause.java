@@ -12,19 +12,56 @@ import vector.Vector;
 import vector.WriteOnceVector;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 /**
  * Represents a selection of indices that represent instances in the instances body and head
  * The status clause helps with the efficient traversal of the clausal space
- * // TODO Improvement by arranging instance sets in a graph to determine possible moves
  * @author Samuel Kolb
  */
 public class StatusClause {
 
+	/**
+	 * The body of a variant of a clause, obtained by renaming its variables, and its difference with the clause body
+	 */
+	private static class Variant {
+
+		private final Numbers.Permutation permutation;
+
+		private final BitSet body;
+
+		private final BitSet difference;
+
+		private Variant(Numbers.Permutation permutation, BitSet body, BitSet clauseBody) {
+			this.permutation = permutation;
+			this.body = body;
+			this.difference = (BitSet) body.clone();
+			this.difference.xor(clauseBody);
+		}
+
+		/**
+		 * Returns whether the body of the variant is smaller after adding the given literal to the clause
+		 * @param literal	The index of the added literal
+		 * @param renamed	The index of the renamed literal (or -1 if the literal is added to the head)
+		 * @return	True iff the first difference between the bodies occurs in the body of the variant
+		 */
+		private boolean isSmaller(int literal, int renamed) {
+			int first = difference.nextSetBit(0);
+			if(renamed >= 0 && renamed != literal) {
+				while(first == literal || first == renamed)
+					first = difference.nextSetBit(first + 1);
+				if(!difference.get(literal) && (first < 0 || literal < first))
+					first = literal;
+				if(!difference.get(renamed) && (first < 0 || renamed < first))
+					first = renamed;
+			}
+			return first >= 0 && (first == renamed || body.get(first));
+		}
+	}
+
 	// region Variables
 
 	// IVAR rank - The rank is the amount of variables already introduced
@@ -51,6 +88,18 @@ public class StatusClause {
 		return environment;
 	}
 
+	// IVAR variantCache - The variant cache, shared by clauses grown from one root
+
+	private final VariantCache variantCache;
+
+	// IVAR literals - The body instances followed by the head instances, computed on demand
+
+	private volatile PositionedInstance[] literals;
+
+	// IVAR matcher - The matcher used for subset tests, computed on demand
+
+	private volatile ClauseMatcher matcher;
+
 	// endregion
 
 	// region Construction
@@ -62,13 +111,15 @@ public class StatusClause {
 	public StatusClause(InstanceList instanceList) {
 		this.rank = 0;
 		this.literalSet = new LiteralSet(instanceList);
-		this.environment = new Environment();
+		this.environment = new Environment(instanceList.getTypeRegistry());
+		this.variantCache = new VariantCache(instanceList);
 	}
 
-	private StatusClause(int rank, LiteralSet literalSet, Environment environment) {
+	private StatusClause(int rank, LiteralSet literalSet, Environment environment, VariantCache variantCache) {
 		this.rank = rank;
 		this.literalSet = literalSet;
 		this.environment = environment;
+		this.variantCache = variantCache;
 	}
 
 	// endregion
@@ -98,20 +149,67 @@ public class StatusClause {
 	 */
 	@Deprecated
 	public Vector<PositionedInstance> getInstances() {
-		Vector<PositionedInstance> vector = new WriteOnceVector<>(new PositionedInstance[size()]);
-		vector.addAll(getLiteralSet().getBody().getInstances(true));
-		vector.addAll(getLiteralSet().getHead().getInstances(false));
-		return vector;
+		return new Vector<>(getLiterals().clone());
+	}
+
+	/**
+	 * Returns the instances that might extend this clause: the body or head instances (depending on whether this clause
+	 * has a head) after the last instance of this clause and, if this clause has no head yet, all head instances.
+	 * Only instances that are connected to this clause and introduce variables in order are returned, the remaining
+	 * conditions are checked when adding an instance.
+	 * @return	A list of positioned instances in the order in which they should be added
+	 */
+	public List<PositionedInstance> getExtensions() {
+		InstanceList instanceList = getLiteralSet().getBody().getInstanceList();
+		List<PositionedInstance> extensions = new ArrayList<>();
+		int[] indices = instanceList.getRefinements(getRank(), !hasHead());
+		int start = Arrays.binarySearch(indices, getIndex() + 1);
+		for(int i = start < 0 ? -start - 1 : start; i < indices.length; i++)
+			extensions.add(instanceList.getInstance(indices[i], !hasHead()));
+		if(!hasHead())
+			for(int index : instanceList.getRefinements(getRank(), false))
+				extensions.add(instanceList.getInstance(index, false));
+		return extensions;
+	}
+
+	/**
+	 * Returns the valid representative clauses that are obtained by adding one of the extensions of this clause.
+	 * The variants of this clause, which the incremental representativeness checks rely on, are computed at most once
+	 * and are not kept afterwards.
+	 * @return	A list of clauses in the order of the extensions
+	 */
+	public List<StatusClause> getRepresentativeChildren() {
+		List<StatusClause> children = new ArrayList<>();
+		List<Variant> variants = null;
+		for(PositionedInstance instance : getExtensions()) {
+			Optional<StatusClause> clause = addIfValid(instance);
+			if(!clause.isPresent())
+				continue;
+			boolean representative;
+			if(clause.get().getRank() != getRank())
+				representative = clause.get().isRepresentative();
+			else {
+				if(variants == null)
+					variants = getVariants();
+				representative = clause.get().isRepresentative(variants, instance);
+			}
+			if(representative)
+				children.add(clause.get());
+		}
+		return children;
 	}
 
 	/**
 	 * Creates a new clause by adding the given instance
 	 * @param instance	The instance to add
 	 * @return	An optional containing either the valid representative clause or an empty optional
+	 * @deprecated	The variants of this clause are recomputed on every call, use getRepresentativeChildren to extend a
+	 * 				clause by all of its extensions (computing the variants at most once)
 	 */
+	@Deprecated
 	public Optional<StatusClause> processIfRepresentative(PositionedInstance instance) {
 		Optional<StatusClause> clause = addIfValid(instance);
-		if(clause.isPresent() && clause.get().isRepresentative())
+		if(clause.isPresent() && clause.get().isRepresentative(this, instance))
 			return clause;
 		return Optional.empty();
 	}
@@ -125,31 +223,35 @@ public class StatusClause {
 		if(!canAdd(instance))
 			return Optional.empty();
 		int newRank = Math.max(getRank(), instance.getInstance().getMax() + 1);
-		Environment newEnvironment = getEnvironment().addInstance(instance.getInstance());
+		int[] types = instance.getInstanceList().getTypeIds(instance.getIndex());
+		Environment newEnvironment = getEnvironment().addInstance(types, instance.getInstance().getVariables());
 		LiteralSet newLiteralSet = literalSet.add(instance.getIndex(), instance.isInBody());
-		return Optional.of(new StatusClause(newRank, newLiteralSet, newEnvironment));
+		return Optional.of(new StatusClause(newRank, newLiteralSet, newEnvironment, variantCache));
 	}
 
 	/**
 	 * Determines whether this status clause is a subset of the given status clause
 	 * @param statusClause	The clause to check
-	 * @return	True iff this clause equals a subset of the given status clause of the same length as this clause
+	 * @return	True iff this clause equals a subset of the given status clause up to an injective variable renaming
 	 */
 	public boolean isSubsetOf(StatusClause statusClause) {
-		// not-opt
-		//boolean test = statusClause.getLiteralSet().isSubsetOf(statusClause.getLiteralSet());
-		for(StatusClause clause : statusClause.getSubsets(literalSet.size())) {
-			if(equalsSymmetric(clause)) {
-				return true;
-			}
+		return getMatcher().isSubsetOf(statusClause.getMatcher());
+	}
+
+	private PositionedInstance[] getLiterals() {
+		if(literals == null) {
+			Vector<PositionedInstance> vector = new WriteOnceVector<>(new PositionedInstance[size()]);
+			vector.addAll(getLiteralSet().getBody().getInstances(true));
+			vector.addAll(getLiteralSet().getHead().getInstances(false));
+			literals = vector.getArray();
 		}
-		return false;
+		return literals;
 	}
 
-	private List<StatusClause> getSubsets(int size) {
-		List<StatusClause> result = new ArrayList<>();
-		Numbers.getChoices(literalSet.size(), size).forEach(p -> getSubsetClause(p).ifPresent(result::add));
-		return result;
+	private ClauseMatcher getMatcher() {
+		if(matcher == null)
+			matcher = new ClauseMatcher(Arrays.asList(getLiterals()), getRank());
+		return matcher;
 	}
 
 	@Override
@@ -184,7 +286,8 @@ public class StatusClause {
 	 * @return	An empty clause
 	 */
 	public StatusClause emptyClause() {
-		return new StatusClause(literalSet.getBody().getInstanceList());
+		InstanceList instanceList = literalSet.getBody().getInstanceList();
+		return new StatusClause(0, new LiteralSet(instanceList), new Environment(instanceList.getTypeRegistry()), variantCache);
 	}
 
 	/**
@@ -208,6 +311,7 @@ public class StatusClause {
 	 * 		4) is not a head instance that has already been added as a body instance
 	 * 		5) is connected
 	 * 		6) introduces variables in order
+	 * 	Conditions 5 and 6 are looked up in the refinements of the instance list
 	 */
 	protected boolean canAdd(PositionedInstance positionedInstance) {
 		Instance instance = positionedInstance.getInstance();
@@ -216,14 +320,17 @@ public class StatusClause {
 			return false;
 		if(hasHead() && positionedInstance.isInBody())
 			return false;
-		if(!getEnvironment().isValidInstance(instance))
+		InstanceList instanceList = positionedInstance.getInstanceList();
+		if(!instanceList.isRefinement(getRank(), positionedInstance.isInBody(), positionedInstance.getIndex()))
+			return false;
+		int[] types = instanceList.getTypeIds(positionedInstance.getIndex());
+		if(!getEnvironment().isValidInstance(types, instance.getVariables()))
 			return false;
 		/*if(!positionedInstance.isInBody() && getInstances().contains(positionedInstance.clone(true)))
 			return false;/*/
-		if(containsInstance(positionedInstance.getInstance()))
+		if(contains(positionedInstance.getIndex()))
 			return false;/**/
-		Vector<Integer> indices = instance.getVariableIndices();
-		return (getRank() == 0 || isConnected(indices)) && introducesVariablesInOrder(positionedInstance);
+		return true;
 	}
 
 	/**
@@ -232,11 +339,7 @@ public class StatusClause {
 	 * @return True iff the given clause is equal to this clause
 	 */
 	protected boolean equalsSymmetric(StatusClause clause) {
-		// not-opt revisit
-		for(PositionedInstance instance : clause.getInstances())
-			if(!containsElementSymmetric(instance))
-				return false;
-		return true;
+		return clause.getLiteralSet().isSubsetOf(getLiteralSet());
 	}
 
 	/**
@@ -245,10 +348,8 @@ public class StatusClause {
 	 * @return	True iff this clause contains the instance or a symmetric variant
 	 */
 	protected boolean containsElementSymmetric(PositionedInstance containedInstance) {
-		for(PositionedInstance instance : getInstances())
-			if(equalsSymmetric(instance, containedInstance))
-				return true;
-		return false;
+		AtomSet atoms = containedInstance.isInBody() ? getLiteralSet().getBody() : getLiteralSet().getHead();
+		return atoms.contains(containedInstance.getIndex());
 	}
 
 	/**
@@ -268,66 +369,106 @@ public class StatusClause {
 	 * @return	True iff this instance has been added to this status clause already
 	 */
 	protected boolean containsInstance(Instance instance) {
-		for(PositionedInstance positionedInstance : getInstances())
+		for(PositionedInstance positionedInstance : getLiterals())
 			if(containsInstance(positionedInstance, instance))
 				return true;
 		return false;
 	}
 
+	/**
+	 * Returns whether this clause contains the instance with the given index (in its body or head)
+	 * @param index	The index of the instance
+	 * @return	True iff the instance has been added to this status clause already
+	 */
+	private boolean contains(int index) {
+		return getLiteralSet().getBody().contains(index) || getLiteralSet().getHead().contains(index);
+	}
+
 	private boolean containsInstance(PositionedInstance positionedInstance, Instance instance) {
-		Instance containedInstance = positionedInstance.getInstance();
-		if(!containedInstance.getPredicate().equals(instance.getPredicate()))
-			return false;
-		return containedInstance.getVariableIndices().equals(instance.getVariableIndices());
+		return positionedInstance.getInstance().equals(instance);
 	}
 
-	private boolean isConnected(Vector<Integer> indices) {
-		int max = getRank() - 1;
-		for(Integer index : indices)
-			if(index <= max)
-				return true;
-		return false;
+	/**
+	 * Returns whether this clause is smaller than or equal to all of its valid variants (up to variable renaming).
+	 * The minimal variant is computed once for every canonical key, by applying all permutations of the variables
+	 * (rather than all permutations of the literals, which induce the same renamings).
+	 * @return	True iff this clause is a representative of its variants
+	 */
+	protected boolean isRepresentative() {
+		String key = CanonicalLabelling.getKey(Arrays.asList(getLiterals()), getRank());
+		return smallerThanOrEqual(variantCache.getMinimalVariants().computeIfAbsent(key, k -> getMinimalVariant()));
 	}
 
-	private boolean introducesVariablesInOrder(PositionedInstance instance) {
-		int max = getRank() - 1;
-		Vector<Integer> indices = instance.getInstance().getVariableIndices();
-		for(Integer index : indices)
-			if((instance.isInBody()) && index == max + 1)
-				max = index;
-			else if(index > max)
-				return false;
-		return true;
+	/**
+	 * Returns whether this clause, obtained by adding the given instance to the given parent, is a representative.
+	 * If the instance introduces no new variables, the variable permutations of this clause and its parent coincide.
+	 * The body of every variant of this clause then only differs from the body of the variant of the parent by the
+	 * renamed instance, so its comparison with this clause follows from the first difference between the parent and
+	 * its variant. Only the variants that turn out to be smaller are built to test their validity.
+	 * @param parent	The parent clause
+	 * @param instance	The instance that was added to the parent
+	 * @return	True iff this clause is a representative of its variants
+	 */
+	protected boolean isRepresentative(StatusClause parent, PositionedInstance instance) {
+		if(getRank() != parent.getRank())
+			return isRepresentative();
+		return isRepresentative(parent.getVariants(), instance);
 	}
 
-	protected boolean isRepresentative() {
-		List<Numbers.Permutation> permutations = Numbers.getPermutations(size());
-		for(Numbers.Permutation permutation : permutations) {
-			List<PositionedInstance> instances = permutation.applyList(getInstances());
-			if(!smallerThanOrEqual(instances))
+	/**
+	 * Returns whether this clause, obtained by adding the given instance to a parent with the same rank, is a
+	 * representative
+	 * @param parentVariants	The variants of the parent
+	 * @param instance			The instance that was added to the parent
+	 * @return	True iff this clause is a representative of its variants
+	 */
+	private boolean isRepresentative(List<Variant> parentVariants, PositionedInstance instance) {
+		int literal = instance.getIndex();
+		for(Variant variant : parentVariants) {
+			int renamed = instance.isInBody() ? variantCache.rename(variant.permutation, literal) : -1;
+			if(variant.isSmaller(literal, renamed) && getClause(variant.permutation).isPresent())
 				return false;
 		}
 		return true;
 	}
 
-	private boolean smallerThanOrEqual(List<PositionedInstance> instances) {
-		Optional<StatusClause> builtClause = getClause(instances);
-		return !builtClause.isPresent() || smallerThanOrEqual(builtClause.get());
-	}
-
-	private Optional<StatusClause> getSubsetClause(Numbers.Permutation permutation) {
-		return getClause(permutation.applyList(getInstances()));
+	/**
+	 * Computes the body of every variant of this clause (for every variable permutation)
+	 * @return	A new list of variants
+	 */
+	private List<Variant> getVariants() {
+		BitSet body = getLiteralSet().getBody().toBitSet();
+		List<Variant> variants = new ArrayList<>();
+		for(Numbers.Permutation permutation : variantCache.getPermutations(getRank())) {
+			BitSet variantBody = new BitSet();
+			getLiteralSet().getBody().forEach(i -> { variantBody.set(variantCache.rename(permutation, i)); return true; });
+			variants.add(new Variant(permutation, variantBody, body));
+		}
+		return variants;
 	}
 
-	private Optional<StatusClause> getClause(List<PositionedInstance> instances) {
-		Map<Integer, Integer> mapping = createMapping(instances);
-		updateInstances(mapping, instances);
+	private Optional<StatusClause> getClause(Numbers.Permutation permutation) {
+		InstanceList instanceList = getLiteralSet().getBody().getInstanceList();
+		List<PositionedInstance> instances = new ArrayList<>(size());
+		for(PositionedInstance instance : getLiterals())
+			instances.add(instanceList.getInstance(variantCache.rename(permutation, instance.getIndex()),
+					instance.isInBody()));
 		instances.sort(new InstanceComparator());
 		return buildClause(instances);
 	}
 
-	private boolean smallerThanOrEqual(StatusClause newClause) {
-		return getLiteralSet().compareTo(newClause.getLiteralSet()) <= 0;
+	private LiteralSet getMinimalVariant() {
+		LiteralSet minimal = getLiteralSet();
+		for(Numbers.Permutation permutation : variantCache.getPermutations(getRank())) {
+			Optional<StatusClause> variant = getClause(permutation);
+			if(variant.isPresent() && variant.get().getLiteralSet().compareTo(minimal) < 0)
+				minimal = variant.get().getLiteralSet();
+		}
+		return minimal;
+	}
+
+	private boolean smallerThanOrEqual(LiteralSet literalSet) {
+		return getLiteralSet().compareTo(literalSet) <= 0;
 	}
 
 	private Optional<StatusClause> buildClause(List<PositionedInstance> instances) {
@@ -340,28 +481,5 @@ public class StatusClause {
 		return clause;
 	}
 
-	private Map<Integer,Integer> createMapping(List<PositionedInstance> instances) {
-		int current = 0;
-		Map<Integer, Integer> mapping = new HashMap<>();
-		for(PositionedInstance instance : instances)
-			for(Integer index : instance.getInstance().getVariableIndices())
-				if(!mapping.containsKey(index))
-					mapping.put(index, current++);
-		return mapping;
-	}
-
-	private void updateInstances(Map<Integer, Integer> mapping, List<PositionedInstance> list) {
-		for(int i = 0; i < list.size(); i++) {
-			PositionedInstance positionedInstance = list.get(i);
-			Instance instance = positionedInstance.getInstance();
-			InstanceList instanceList = positionedInstance.getInstanceList();
-			Instance newInstance = new Instance(instance.getDefinition(), getVariables(mapping, instance));
-			list.set(i, instanceList.getInstance(instanceList.getIndex(newInstance), positionedInstance.isInBody()));
-		}
-	}
-
-	private Vector<Integer> getVariables(Map<Integer, Integer> mapping, Instance instance) {
-		return instance.getVariableIndices().map(Integer.class, mapping::get);
-	}
 	// endregion
 }
@@ -56,8 +56,7 @@ public class StatusClauseConverter implements Function<StatusClause, Clause> {
 		Variable[] array = variables.toArray(new Variable[variables.size()]);
 		for(int i = 0; i < array.length; i++)
 			for(int j = i + 1; j < array.length; j++)
-				if(array[i].getType().isSuperTypeOf(array[j].getType())
-						|| array[j].getType().isSuperTypeOf(array[i].getType()))
+				if(array[i].getType().isCompatibleWith(array[j].getType()))
 					bodyAtoms.add(INEQUALITY.getInstance(array[i], array[j]));
 	}
 
@@ -0,0 +1,144 @@
+package clausal_discovery.core;
+
+import clausal_discovery.instance.InstanceList;
+import clausal_discovery.validity.ValidatedClause;
+import logic.expression.formula.Predicate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The subsumption index stores clauses by their features, the predicates of their literals together with the side
+ * (body or head) the literals occur in. A clause can only be a subset (up to variable renaming) of another clause if
+ * its multiset of features is contained in the features of the other clause. Queries enumerate the subsets of the
+ * (few) distinct features of a clause, so they only visit clauses that can pass this test.
+ *
+ * @author Samuel Kolb
+ */
+public class SubsumptionIndex {
+
+	private static class Entry {
+
+		private final ValidatedClause clause;
+
+		private final int[] features;
+
+		private Entry(ValidatedClause clause, int[] features) {
+			this.clause = clause;
+			this.features = features;
+		}
+	}
+
+	//region Variables
+
+	// IVAR featureIds - The identifiers of the features (predicate and side)
+
+	private final Map<Predicate, int[]> featureIds = new ConcurrentHashMap<>();
+
+	private final AtomicInteger featureCount = new AtomicInteger();
+
+	// IVAR entries - The indexed clauses for every set of distinct features
+
+	private final Map<BitSet, Queue<Entry>> entries = new ConcurrentHashMap<>();
+
+	// IVAR size - The number of indexed clauses
+
+	private final AtomicInteger size = new AtomicInteger();
+
+	public int size() {
+		return size.get();
+	}
+
+	//endregion
+
+	//region Public methods
+
+	/**
+	 * Adds a clause to this index
+	 * @param clause	The clause to add
+	 */
+	public void add(ValidatedClause clause) {
+		int[] features = getFeatures(clause.getClause());
+		entries.computeIfAbsent(getKey(features), k -> new ConcurrentLinkedQueue<>()).add(new Entry(clause, features));
+		size.incrementAndGet();
+	}
+
+	/**
+	 * Returns the indexed clauses whose features are contained in the features of the given clause
+	 * @param clause	The clause
+	 * @return	A list of indexed clauses that might be a subset of the given clause
+	 */
+	public List<ValidatedClause> getCandidates(StatusClause clause) {
+		int[] features = getFeatures(clause);
+		int[] distinct = getKey(features).stream().toArray();
+		List<ValidatedClause> candidates = new ArrayList<>();
+		for(long mask = 1; mask < 1L << distinct.length; mask++) {
+			BitSet key = new BitSet();
+			for(int i = 0; i < distinct.length; i++)
+				if((mask & 1L << i) != 0)
+					key.set(distinct[i]);
+			Collection<Entry> bucket = entries.get(key);
+			if(bucket != null)
+				for(Entry entry : bucket)
+					if(isContained(entry.features, features))
+						candidates.add(entry.clause);
+		}
+		return candidates;
+	}
+
+	//endregion
+
+	//region Private methods
+
+	private int[] getFeatures(StatusClause clause) {
+		LiteralSet literals = clause.getLiteralSet();
+		InstanceList instanceList = literals.getBody().getInstanceList();
+		int[] features = new int[literals.size()];
+		AtomicInteger index = new AtomicInteger();
+		literals.getBody().forEach(i -> {
+			features[index.getAndIncrement()] = getFeature(instanceList.get(i).getPredicate(), true);
+			return true;
+		});
+		literals.getHead().forEach(i -> {
+			features[index.getAndIncrement()] = getFeature(instanceList.get(i).getPredicate(), false);
+			return true;
+		});
+		Arrays.sort(features);
+		return features;
+	}
+
+	private int getFeature(Predicate predicate, boolean inBody) {
+		int[] ids = featureIds.computeIfAbsent(predicate,
+				p -> new int[]{featureCount.getAndIncrement(), featureCount.getAndIncrement()});
+		return ids[inBody ? 0 : 1];
+	}
+
+	private static BitSet getKey(int[] features) {
+		BitSet key = new BitSet();
+		for(int feature : features)
+			key.set(feature);
+		return key;
+	}
+
+	private static boolean isContained(int[] features, int[] superFeatures) {
+		int j = 0;
+		for(int feature : features) {
+			while(j < superFeatures.length && superFeatures[j] < feature)
+				j++;
+			if(j == superFeatures.length || superFeatures[j] != feature)
+				return false;
+			j++;
+		}
+		return true;
+	}
+
+	//endregion
+}
@@ -0,0 +1,133 @@
+package clausal_discovery.core;
+
+import clausal_discovery.validity.ValidatedClause;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The support lattice holds the constraints found by a single search for multiple support levels.
+ * Whether a clause is accepted and non-redundant only depends on the clauses it shares its validity with and on the
+ * hard constraints, which all have at least its support. Therefore, a search with the lowest support level finds the
+ * constraints of every higher level as well: the constraints of a level are the constraints found that reach it.
+ *
+ * @author Samuel Kolb
+ */
+public class SupportLattice {
+
+	//region Variables
+
+	// IVAR exampleCount - The number of examples
+
+	private final int exampleCount;
+
+	// IVAR supports - The support levels (between 0 and 1), in decreasing order (the first level is 1)
+
+	private final double[] supports;
+
+	public List<Double> getSupports() {
+		return Arrays.stream(supports).boxed().collect(Collectors.toList());
+	}
+
+	// IVAR clauses - The constraints of the lowest support level, in order of discovery
+
+	private final List<ValidatedClause> clauses;
+
+	//endregion
+
+	//region Construction
+
+	/**
+	 * Creates a new support lattice
+	 * @param exampleCount	The number of examples
+	 * @param supports		The support levels (between 0 and 1), the level 1 (hard constraints) is always included
+	 * @param clauses		The constraints found for the lowest support level
+	 */
+	public SupportLattice(int exampleCount, double[] supports, List<ValidatedClause> clauses) {
+		this.exampleCount = exampleCount;
+		this.supports = getLevels(supports);
+		this.clauses = new ArrayList<>(clauses);
+	}
+
+	//endregion
+
+	//region Public methods
+
+	/**
+	 * Returns the lowest support level
+	 * @return	The lowest support level
+	 */
+	public double getMinimalSupport() {
+		return supports[supports.length - 1];
+	}
+
+	/**
+	 * Returns the constraints that hold on all examples
+	 * @return	The hard constraints, in order of discovery
+	 */
+	public List<ValidatedClause> getHardConstraints() {
+		return getConstraints(1);
+	}
+
+	/**
+	 * Returns the constraints that hold on at least the given percentage of examples
+	 * @param support	The percentage (between 0 and 1), at least the lowest support level
+	 * @return	The constraints, in order of discovery
+	 */
+	public List<ValidatedClause> getConstraints(double support) {
+		if(support < getMinimalSupport())
+			throw new IllegalArgumentException(String.format("Support %f is below the lowest level %f", support,
+					getMinimalSupport()));
+		int count = getSupportCount(support);
+		return clauses.stream().filter(c -> c.getSupportCount() >= count).collect(Collectors.toList());
+	}
+
+	/**
+	 * Returns the support levels at which the given constraint is a non-redundant constraint
+	 * @param clause	A constraint in this lattice
+	 * @return	The support levels, in decreasing order
+	 */
+	public List<Double> getSupports(ValidatedClause clause) {
+		return Arrays.stream(supports).filter(s -> clause.getSupportCount() >= getSupportCount(s)).boxed()
+				.collect(Collectors.toList());
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for(double support : supports)
+			builder.append(String.format("%3.0f%%: %d constraints\n", support * 100, getConstraints(support).size()));
+		return builder.toString();
+	}
+
+	//endregion
+
+	//region Private methods
+
+	private int getSupportCount(double support) {
+		return (int) Math.ceil(exampleCount * support);
+	}
+
+	/**
+	 * Returns the distinct support levels in decreasing order, including the level 1
+	 * @param supports	The support levels (between 0 and 1)
+	 * @return	A new array of support levels
+	 */
+	static double[] getLevels(double[] supports) {
+		for(double support : supports)
+			if(support < 0 || support > 1)
+				throw new IllegalArgumentException("Support levels must be between 0 and 1, was " + support);
+		double[] levels = Arrays.stream(supports).map(s -> -s).sorted().distinct().map(s -> -s).toArray();
+		if(levels.length == 0 || levels[0] != 1) {
+			double[] withHard = new double[levels.length + 1];
+			withHard[0] = 1;
+			System.arraycopy(levels, 0, withHard, 1, levels.length);
+			return withHard;
+		}
+		return levels;
+	}
+
+	//endregion
+}
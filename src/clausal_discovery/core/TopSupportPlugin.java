@@ -0,0 +1,222 @@
+package clausal_discovery.core;
+
+import clausal_discovery.validity.ValidatedClause;
+import version3.algorithm.Node;
+import version3.algorithm.Plugin;
+import version3.algorithm.Result;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The top support plugin keeps the k solutions with the highest support in a min-heap and raises the support that is
+ * required for new solutions as the heap fills up.
+ * Since support never decreases by refining a clause, a node can only lead to a better solution if it can still be
+ * refined (every clause can reach full support) or if it has a higher support than the worst solution in a full heap
+ * itself. Other nodes are not selected. Only solutions that have been added to the result (after their entailment
+ * tests) enter the heap. Internal nodes are therefore only rejected once the heap holds k solutions with full support,
+ * the threshold mostly saves the entailment tests of leaves and the search is not bounded much further than a search
+ * with a low support threshold.
+ * Solutions can become redundant when later solutions are found. The heap is updated incrementally from new solutions
+ * and a solution leaves the heap when a newer solution makes it redundant (e.g. by subsumption), the result itself is
+ * only pruned once at the end of the search. Solutions with the same support as the worst solution are still
+ * accepted, since they may replace a redundant solution.
+ *
+ * @author Samuel Kolb
+ */
+public class TopSupportPlugin implements Plugin<ValidatedClause> {
+
+	private static final Comparator<ValidatedClause> SUPPORT = Comparator.comparingInt(ValidatedClause::getSupportCount);
+
+	//region Variables
+
+	// IVAR k - The number of solutions to find
+
+	private final int k;
+
+	public int getK() {
+		return k;
+	}
+
+	// IVAR maximalDepth - The depth of the deepest nodes to be expanded
+
+	private final int maximalDepth;
+
+	// IVAR heap - The (at most k) solutions with the highest support, the solution with the lowest support first
+
+	private final PriorityQueue<ValidatedClause> heap;
+
+	// IVAR solutionCount - The number of solutions in the result when the heap was last updated
+
+	private int solutionCount = 0;
+
+	// IVAR redundancy - Whether a (newer) solution makes another solution redundant
+
+	private BiPredicate<ValidatedClause, ValidatedClause> redundancy = (solution, other) -> false;
+
+	/**
+	 * Sets the test that decides whether a solution makes another (older) solution redundant, it has to be cheap
+	 * @param redundancy	The test, by default no solution is redundant
+	 */
+	public void setRedundancy(BiPredicate<ValidatedClause, ValidatedClause> redundancy) {
+		this.redundancy = redundancy;
+	}
+
+	// IVAR redundant - The solutions that have been made redundant by newer solutions
+
+	private final Set<ValidatedClause> redundant = Collections.newSetFromMap(new IdentityHashMap<>());
+
+	// IVAR discardListener - Notified with the depth of every node that is not selected
+
+	private IntConsumer discardListener = depth -> {};
+
+	/**
+	 * Sets the listener that is notified when a node is not selected because it cannot improve the solutions
+	 * @param discardListener	The listener, receives the depth of the node
+	 */
+	public void setDiscardListener(IntConsumer discardListener) {
+		this.discardListener = discardListener;
+	}
+
+	//endregion
+
+	//region Construction
+
+	/**
+	 * Creates a new top support plugin
+	 * @param k				The number of solutions to find
+	 * @param maximalDepth	The depth of the deepest nodes to be expanded
+	 */
+	public TopSupportPlugin(int k, int maximalDepth) {
+		if(k < 1)
+			throw new IllegalArgumentException("k must be positive, was " + k);
+		this.k = k;
+		this.maximalDepth = maximalDepth;
+		this.heap = new PriorityQueue<>(k, SUPPORT);
+	}
+
+	//endregion
+
+	//region Public methods
+
+	/**
+	 * Returns the support count a new solution requires to improve the heap
+	 * @return	The support count of the worst solution if the heap is full, one otherwise
+	 */
+	public int getThreshold() {
+		return heap.size() < getK() ? 1 : heap.peek().getSupportCount();
+	}
+
+	/**
+	 * Returns whether the given clause would improve the current solutions
+	 * @param clause	The clause
+	 * @return	True iff the support count of the clause reaches the threshold
+	 */
+	public boolean accepts(ValidatedClause clause) {
+		return clause.getSupportCount() >= getThreshold();
+	}
+
+	/**
+	 * Returns the solutions in the heap
+	 * @return	A list of (at most k) solutions ordered by decreasing support
+	 */
+	public List<ValidatedClause> getSolutions() {
+		return select(new ArrayList<>(heap));
+	}
+
+	/**
+	 * Returns the (at most) k clauses with the highest support, clauses with equal support keep their order
+	 * @param clauses	The clauses
+	 * @return	A list of clauses ordered by decreasing support
+	 */
+	public List<ValidatedClause> select(List<ValidatedClause> clauses) {
+		return clauses.stream().sorted(SUPPORT.reversed()).limit(getK()).collect(Collectors.toList());
+	}
+
+	@Override
+	public void initialise(List<Node<ValidatedClause>> initialNodes, Result<ValidatedClause> result) {
+
+	}
+
+	@Override
+	public boolean nodeSelected(Node<ValidatedClause> node) {
+		int exampleCount = node.getValue().getLogicBase().getExamples().size();
+		boolean full = heap.size() == getK() && heap.peek().getSupportCount() == exampleCount;
+		if(!full && (node.getDepth() < maximalDepth || accepts(node.getValue())))
+			return true;
+		discardListener.accept(node.getDepth());
+		return false;
+	}
+
+	@Override
+	public void nodeProcessed(Node<ValidatedClause> node, Result<ValidatedClause> result) {
+		int count = result.getSolutionCount();
+		if(count == solutionCount)
+			return;
+		List<ValidatedClause> solutions = result.getSolutions();
+		boolean rebuild = count < solutionCount;
+		for(ValidatedClause solution : solutions.subList(Math.min(solutionCount, count), count)) {
+			for(ValidatedClause other : heap)
+				if(redundancy.test(solution, other)) {
+					redundant.add(other);
+					rebuild = true;
+				}
+			heap.removeIf(redundant::contains);
+			heap.add(solution);
+			if(heap.size() > getK())
+				heap.poll();
+		}
+		if(rebuild)
+			rebuild(solutions);
+		solutionCount = count;
+	}
+
+	@Override
+	public void nodeExpanded(Node<ValidatedClause> node, List<Node<ValidatedClause>> childNodes) {
+
+	}
+
+	@Override
+	public void searchComplete(Result<ValidatedClause> result) {
+
+	}
+
+	//endregion
+
+	//region Private methods
+
+	/**
+	 * Fills the heap with the best solutions that are not redundant, only these candidates are tested for redundancy
+	 * @param solutions	The solutions, in order of discovery
+	 */
+	private void rebuild(List<ValidatedClause> solutions) {
+		heap.clear();
+		List<Integer> indices = IntStream.range(0, solutions.size()).boxed()
+				.sorted(Comparator.comparing(solutions::get, SUPPORT.reversed())).collect(Collectors.toList());
+		for(int i = 0; i < indices.size() && heap.size() < getK(); i++) {
+			ValidatedClause solution = solutions.get(indices.get(i));
+			if(redundant.contains(solution) || isRedundant(solutions, indices.get(i)))
+				redundant.add(solution);
+			else
+				heap.add(solution);
+		}
+	}
+
+	private boolean isRedundant(List<ValidatedClause> solutions, int index) {
+		for(int i = index + 1; i < solutions.size(); i++)
+			if(redundancy.test(solutions.get(i), solutions.get(index)))
+				return true;
+		return false;
+	}
+
+	//endregion
+}
@@ -0,0 +1,28 @@
+package clausal_discovery.core;
+
+import version3.algorithm.Plugin;
+import version3.algorithm.Result;
+
+import java.util.List;
+
+/**
+ * A search over the tree spanned by an expansion operator, as used by clausal discovery
+ *
+ * @param <T>	The type of the node values
+ * @author Samuel Kolb
+ */
+public interface TreeSearch<T> {
+
+	/**
+	 * Adds a plugin, plugins are notified in the order they were added
+	 * @param plugin	The plugin
+	 */
+	void addPlugin(Plugin<T> plugin);
+
+	/**
+	 * Searches the tree spanned by the given initial values
+	 * @param initialValues	The values of the initial nodes
+	 * @return	The result containing the solutions found
+	 */
+	Result<T> search(List<T> initialValues);
+}
@@ -1,26 +1,41 @@
 package clausal_discovery.core;
 
+import cern.colt.bitvector.BitVector;
 import clausal_discovery.instance.InstanceList;
 import clausal_discovery.validity.ParallelValidityCalculator;
 import clausal_discovery.validity.ValidatedClause;
 import clausal_discovery.validity.ValidityCalculator;
 import idp.IdpExecutor;
 import log.Log;
+import logic.prover.SkolemProver;
 import logic.expression.formula.Clause;
 import logic.expression.formula.Formula;
+import logic.theory.EntailmentSession;
 import logic.theory.InlineTheory;
 import logic.theory.KnowledgeBase;
 import logic.theory.LogicExecutor;
+import logic.theory.Model;
 import logic.theory.Theory;
 import time.Stopwatch;
 import vector.Vector;
 import version3.algorithm.*;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -33,30 +48,37 @@ import java.util.stream.Collectors;
 public class VariableRefinement implements ExpansionOperator<ValidatedClause>, ResultPolicy<ValidatedClause>,
 		Plugin<ValidatedClause> {
 
-	private class EntailmentTestRunnable implements Runnable {
+	private class EntailmentTestCallable implements Callable<boolean[]> {
 
-		private final Result<ValidatedClause> result;
+		private final List<ValidatedClause> clauses;
 
-		private final Node<ValidatedClause> node;
+		private final List<ValidatedClause> candidates;
 
-		private EntailmentTestRunnable(Result<ValidatedClause> result, Node<ValidatedClause> node) {
-			this.result = result;
-			this.node = node;
+		private EntailmentTestCallable(List<ValidatedClause> clauses, List<ValidatedClause> candidates) {
+			this.clauses = clauses;
+			this.candidates = candidates;
 		}
 
 		@Override
-		public void run() {
-			Log.LOG.saveState()/*.off()/**/;
-			if(!entails(result.getSolutions(), node.getValue())) {
-				result.addNode(node);
-				Log.LOG.print("NEW      ");
-			} else {
-				Log.LOG.print("DENIED   ");
-			}
-			Log.LOG.printLine(node.getValue()).revert();
+		public boolean[] call() throws Exception {
+			return entailsSequentially(clauses, candidates);
+		}
+	}
+
+	private static class Verification {
+
+		private final List<Node<ValidatedClause>> nodes;
+
+		private final Future<boolean[]> entailed;
+
+		private Verification(List<Node<ValidatedClause>> nodes, Future<boolean[]> entailed) {
+			this.nodes = nodes;
+			this.entailed = entailed;
 		}
 	}
 
+	private static final int SESSION_CAPACITY = 8;
+
 	// region Variables
 
 	// IVAR instanceList - The instance list used for clause generation
@@ -79,6 +101,10 @@ public class VariableRefinement implements ExpansionOperator<ValidatedClause>, R
 
 	private final LogicExecutor executor;
 
+	// IVAR prover - The native prover used for entailment tests that do not require the executor
+
+	private final SkolemProver prover;
+
 	// IVAR backgroundTheories - The background theories provided to the search
 
 	private final Vector<Theory> backgroundTheories;
@@ -91,9 +117,50 @@ public class VariableRefinement implements ExpansionOperator<ValidatedClause>, R
 
 	private final ValidityCalculator validityCalculator;
 
-	// IVAR resultSet - The result set used for efficient subset tests
+	// IVAR resultIndex - The accepted clauses, indexed for efficient subset tests
+
+	private final SubsumptionIndex resultIndex = new SubsumptionIndex();
+
+	// IVAR countermodels - The countermodels used to refute entailment without calling the executor
+
+	private final CountermodelPool countermodels;
+
+	public CountermodelPool getCountermodels() {
+		return countermodels;
+	}
+
+	// IVAR relevanceFilter - The filter that removes premises that are irrelevant for entailment checks
+
+	private final RelevanceFilter relevanceFilter;
+
+	// IVAR entailmentStrategy - The strategy used for entailment tests that cannot be decided natively
+
+	private final EntailmentStrategy entailmentStrategy;
+
+	// IVAR sessions - Entailment sessions for the most recently used validities (and thus sets of premises)
+
+	private final Map<BitVector, EntailmentSession> sessions = new LinkedHashMap<BitVector, EntailmentSession>(
+			SESSION_CAPACITY, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<BitVector, EntailmentSession> eldest) {
+			if(size() <= SESSION_CAPACITY)
+				return false;
+			eldest.getValue().close();
+			return true;
+		}
+	};
+
+	// IVAR pending - Accepted candidates with equal length and validity whose entailment tests are deferred
 
-	private final Set<ValidatedClause> resultSet = Collections.newSetFromMap(new ConcurrentHashMap<>());
+	private final List<Node<ValidatedClause>> pending = new ArrayList<>();
+
+	// IVAR verifier - Executes the entailment tests of accepted candidates off the search thread
+
+	private final ExecutorService verifier;
+
+	// IVAR verifications - The submitted entailment tests in order of acceptance, their candidates are tentative
+
+	private final Deque<Verification> verifications = new ArrayDeque<>();
 
 	// IVAR excessTimer - A stopwatch that measures the excess time to finish entailment checks
 
@@ -107,6 +174,26 @@ public class VariableRefinement implements ExpansionOperator<ValidatedClause>, R
 
 	private final Predicate<ValidatedClause> validityAcceptance;
 
+	// IVAR pruningTimeLimit - The maximal time in milliseconds spent on a pruning pass
+
+	private long pruningTimeLimit = Long.MAX_VALUE;
+
+	public void setPruningTimeLimit(long pruningTimeLimit) {
+		this.pruningTimeLimit = pruningTimeLimit;
+	}
+
+	// IVAR pruningComplete - Whether the last pruning pass tested every clause before its time limit
+
+	private boolean pruningComplete = true;
+
+	public boolean isPruningComplete() {
+		return pruningComplete;
+	}
+
+	// IVAR prunedCount - The number of clauses in the result after the last pruning pass
+
+	private int prunedCount = 0;
+
 	// endregion
 
 	// region Construction
@@ -117,15 +204,37 @@ public class VariableRefinement implements ExpansionOperator<ValidatedClause>, R
 	 * @param list	    	The instance list
 	 * @param background	The background theories provided to the search
 	 * @param validityTest	The validity test
+	 * @param strategy		The strategy used for entailment tests that cannot be decided natively
+	 */
+	public VariableRefinement(LogicBase logicBase, InstanceList list, Vector<Theory> background,
+							  Predicate<ValidatedClause> validityTest, EntailmentStrategy strategy) {
+		this(logicBase, list, background, validityTest, strategy, IdpExecutor.get());
+	}
+
+	/**
+	 * Creates a new variable refinement operator
+	 * @param logicBase    	The logic base holding the vocabulary and examples
+	 * @param list	    	The instance list
+	 * @param background	The background theories provided to the search
+	 * @param validityTest	The validity test
+	 * @param strategy		The strategy used for entailment tests that cannot be decided natively
+	 * @param delegate		The executor used for validity tests and entailment tests that cannot be decided natively
 	 */
 	public VariableRefinement(LogicBase logicBase, InstanceList list, Vector<Theory> background,
-							  Predicate<ValidatedClause> validityTest) {
+							  Predicate<ValidatedClause> validityTest, EntailmentStrategy strategy,
+							  LogicExecutor delegate) {
 		this.backgroundTheories = background.grow(new InlineTheory(logicBase.getSymmetryFormulas()));
 		this.logicBase = logicBase;
-		this.executor = IdpExecutor.get();
+		this.prover = new SkolemProver(delegate);
+		this.executor = prover;
 		this.instanceList = list;
 		this.validityCalculator = new ParallelValidityCalculator(getLogicBase(), executor, background);
 		this.validityAcceptance = validityTest;
+		this.entailmentStrategy = strategy;
+		this.verifier = Executors.newFixedThreadPool(strategy == EntailmentStrategy.INCREMENTAL
+				? 1 : Runtime.getRuntime().availableProcessors());
+		this.countermodels = new CountermodelPool(logicBase, getBackgroundTheories());
+		this.relevanceFilter = new RelevanceFilter(logicBase.getVocabulary(), getBackgroundTheories());
 		Log.LOG.printLine("Instance list with " + getInstanceList().size() + " elements\n");
 	}
 
@@ -164,8 +273,11 @@ public class VariableRefinement implements ExpansionOperator<ValidatedClause>, R
 	public boolean processSolution(Result<ValidatedClause> result, Node<ValidatedClause> node) {
 		if(/**/subsetOccurs(node.getValue(), false) || /**/!this.validityAcceptance.test(node.getValue()))
 			return true;
-		new EntailmentTestRunnable(result, node).run();
-		resultSet.add(node.getValue());
+		reconcile(result, false);
+		if(!pending.isEmpty() && !canDefer(pending.get(0).getValue(), node.getValue()))
+			submitPending(result);
+		pending.add(node);
+		resultIndex.add(node.getValue());
 		return !node.getValue().coversAll();
 	}
 
@@ -173,10 +285,41 @@ public class VariableRefinement implements ExpansionOperator<ValidatedClause>, R
 	public void searchComplete(Result<ValidatedClause> result) {
 		validityCalculator.shutdown();
 		getExcessTimer().start();
-		prune(result);
+		flush(result);
+		verifier.shutdown();
+		sessions.values().forEach(EntailmentSession::close);
+		sessions.clear();
 		getExcessTimer().pause();
 	}
 
+	/**
+	 * Finishes the entailment tests of all accepted candidates, adds the candidates that are not entailed to the result
+	 * and prunes the result. Solutions that are subsumed by other solutions are removed first, without entailment tests.
+	 * Clauses that are pruned are entailed by the remaining clauses, so they can be removed before the search is
+	 * complete. If no clauses have been added since the last (complete) pruning pass, the result
+	 * is not pruned again.
+	 * @param result	The current result
+	 */
+	public void flush(Result<ValidatedClause> result) {
+		submitPending(result);
+		reconcile(result, true);
+		if(isPruningComplete() && result.getSolutionCount() == prunedCount)
+			return;
+		removeSubsumed(result);
+		prune(result);
+	}
+
+	/**
+	 * Returns whether the given clause subsumes the given solution and can act as its premise, in which case the
+	 * solution is redundant if both clauses are solutions
+	 * @param clause	The clause
+	 * @param solution	The potentially redundant solution
+	 * @return	True iff the clause can prune the solution and its literals are a subset of those of the solution
+	 */
+	public boolean subsumes(ValidatedClause clause, ValidatedClause solution) {
+		return canPrune(clause, solution) && clause.getClause().isSubsetOf(solution.getClause());
+	}
+
 	/**
 	 * Returns whether the given set of clauses entails the given clause
 	 * @param clauses	The set of clauses
@@ -184,22 +327,153 @@ public class VariableRefinement implements ExpansionOperator<ValidatedClause>, R
 	 * @return	True iff the set of clauses logically entails the given clause
 	 */
 	public boolean entails(List<ValidatedClause> clauses, ValidatedClause clause) {
-		return executor.entails(getProgram(clauses, clause), new InlineTheory(getClause(clause.getClause())));
+		return entailsSequentially(clauses, Collections.singletonList(clause))[0];
+	}
+
+	/**
+	 * Returns for every candidate whether it is entailed by the given set of clauses and the preceding candidates that
+	 * are not entailed. All candidates must have the same validity, so the same clauses act as premises for them.
+	 * Only premises that are relevant to the candidates are used and the countermodel pool is consulted first.
+	 * Candidates that are not refuted are decided by the native prover (adding its countermodels to the pool) or, if
+	 * that is not possible, by the executor according to the entailment strategy.
+	 * @param clauses		The set of clauses
+	 * @param candidates	The potentially entailed clauses, in order
+	 * @return	An array containing for every candidate whether it is entailed
+	 */
+	public boolean[] entailsSequentially(List<ValidatedClause> clauses, List<ValidatedClause> candidates) {
+		boolean[] entailed = new boolean[candidates.size()];
+		List<Formula> premises = getPremises(clauses, candidates.get(0));
+		BitVector validity = candidates.get(0).getValidity();
+		List<Clause> formulas = candidates.stream().map(ValidatedClause::getClause).map(this::getClause)
+				.collect(Collectors.toList());
+		int start = 0;
+		for(int i = 0; i < formulas.size(); i++) {
+			List<Formula> maximal = new ArrayList<>(premises);
+			maximal.addAll(formulas.subList(start, i));
+			if(countermodels.refutes(maximal, formulas.get(i))) {
+				decide(premises, formulas.subList(start, i), entailed, start, validity);
+				premises.add(formulas.get(i));
+				start = i + 1;
+			}
+		}
+		decide(premises, formulas.subList(start, formulas.size()), entailed, start, validity);
+		return entailed;
 	}
 
 	// endregion
 
 	// region Private methods
 
-	protected KnowledgeBase getProgram(List<ValidatedClause> clauses, ValidatedClause clause) {
-		List<Formula> formulas = clauses.stream()
+	private void decide(List<Formula> premises, List<Clause> candidates, boolean[] entailed, int offset,
+						BitVector validity) {
+		if(candidates.isEmpty())
+			return;
+		List<Formula> maximal = new ArrayList<>(premises);
+		maximal.addAll(candidates);
+		Set<logic.expression.formula.Predicate> relevant = new HashSet<>();
+		for(Clause candidate : candidates)
+			relevant.addAll(relevanceFilter.getRelevantPredicates(maximal, candidate));
+		Vector<Theory> background = relevanceFilter.filterBackground(getBackgroundTheories(), relevant);
+		KnowledgeBase program = getProgram(relevanceFilter.filterPremises(premises, relevant), background);
+		List<InlineTheory> theories = candidates.stream().map(InlineTheory::new).collect(Collectors.toList());
+		boolean decidable = theories.stream().allMatch(theory -> prover.canDecide(program, theory));
+		boolean[] results;
+		if(decidable)
+			results = proveSequentially(program, candidates);
+		else if(entailmentStrategy == EntailmentStrategy.INCREMENTAL)
+			results = entailsIncrementally(premises, theories, validity);
+		else
+			results = executor.entailsSequentially(program, theories);
+		for(int i = 0; i < candidates.size(); i++) {
+			entailed[offset + i] = results[i];
+			if(!results[i])
+				premises.add(candidates.get(i));
+		}
+	}
+
+	private boolean[] proveSequentially(KnowledgeBase program, List<Clause> candidates) {
+		boolean[] entailed = new boolean[candidates.size()];
+		for(int i = 0; i < candidates.size(); i++) {
+			Optional<Model> countermodel = prover.findCountermodel(program, candidates.get(i));
+			countermodel.ifPresent(countermodels::addCountermodel);
+			entailed[i] = !countermodel.isPresent();
+			if(!entailed[i])
+				program = program.extendTheory(new InlineTheory(candidates.get(i)));
+		}
+		return entailed;
+	}
+
+	private boolean[] entailsIncrementally(List<Formula> premises, List<InlineTheory> theories, BitVector validity) {
+		EntailmentSession session = sessions.computeIfAbsent(validity,
+				v -> executor.openSession(logicBase.getVocabulary(), getBackgroundTheories()));
+		session.setPremises(premises);
+		boolean[] entailed = new boolean[theories.size()];
+		for(int i = 0; i < theories.size(); i++) {
+			entailed[i] = session.entails(theories.get(i));
+			if(!entailed[i])
+				theories.get(i).getFormulas().forEach(session::addPremise);
+		}
+		return entailed;
+	}
+
+	private boolean canDefer(ValidatedClause first, ValidatedClause clause) {
+		return first.getClause().size() == clause.getClause().size() && first.getValidity().equals(clause.getValidity());
+	}
+
+	/**
+	 * Submits the entailment tests of the pending candidates.
+	 * The candidates are tested speculatively against the accepted clauses and all tentative candidates that precede
+	 * them. Every tentative candidate that turns out to be entailed is entailed by the accepted and tentative clauses
+	 * that can act as its premises, which are premises of the later candidates as well. Therefore, the speculative
+	 * results coincide with the results of testing all candidates sequentially.
+	 * @param result	The current result
+	 */
+	private void submitPending(Result<ValidatedClause> result) {
+		if(pending.isEmpty())
+			return;
+		List<ValidatedClause> clauses = new ArrayList<>(result.getSolutions());
+		for(Verification verification : verifications)
+			verification.nodes.forEach(node -> clauses.add(node.getValue()));
+		List<Node<ValidatedClause>> nodes = new ArrayList<>(pending);
+		List<ValidatedClause> candidates = nodes.stream().map(Node::getValue).collect(Collectors.toList());
+		verifications.add(new Verification(nodes, verifier.submit(new EntailmentTestCallable(clauses, candidates))));
+		pending.clear();
+	}
+
+	/**
+	 * Adds the candidates of finished entailment tests to the result, in order of acceptance
+	 * @param result	The result to add clauses to
+	 * @param wait		Whether to wait for all submitted tests to finish
+	 */
+	private void reconcile(Result<ValidatedClause> result, boolean wait) {
+		while(!verifications.isEmpty() && (wait || verifications.peek().entailed.isDone())) {
+			Verification verification = verifications.poll();
+			boolean[] entailed;
+			try {
+				entailed = verification.entailed.get();
+			} catch(InterruptedException | ExecutionException e) {
+				throw new IllegalStateException(e);
+			}
+			for(int i = 0; i < verification.nodes.size(); i++) {
+				if(!entailed[i])
+					result.addNode(verification.nodes.get(i));
+				Log.LOG.printLine((entailed[i] ? "DENIED   " : "NEW      ") + verification.nodes.get(i).getValue());
+			}
+		}
+	}
+
+	protected List<Formula> getPremises(List<ValidatedClause> clauses, ValidatedClause clause) {
+		return clauses.stream()
 				.filter(c -> canPrune(c, clause))
 				.map(ValidatedClause::getClause).map(this::getClause)
 				.collect(Collectors.toList());
+	}
+
+	protected KnowledgeBase getProgram(List<Formula> formulas, Vector<Theory> background) {
 		//formulas.addAll(getLogicBase().getSymmetryFormulas());
 		Vector<Theory> theories = new Vector<>(new InlineTheory(formulas));
 		//Vector<Theory> background = getBackgroundTheories().grow(new InlineTheory(getLogicBase().getSymmetryFormulas()));
-		return new KnowledgeBase(logicBase.getVocabulary(), theories, getBackgroundTheories(), new Vector<>());
+		return new KnowledgeBase(logicBase.getVocabulary(), theories, background, new Vector<>());
 	}
 
 	protected Clause getClause(StatusClause clause) {
@@ -207,13 +481,7 @@ public class VariableRefinement implements ExpansionOperator<ValidatedClause>, R
 	}
 
 	private List<ValidatedClause> getChildren(ValidatedClause validatedClause) {
-		StatusClause clause = validatedClause.getClause();
-		List<StatusClause> children = new ArrayList<>();
-		for(int i = clause.getIndex() + 1; i < getInstanceList().size(); i++)
-			clause.processIfRepresentative(getInstanceList().getInstance(i, !clause.hasHead())).ifPresent(children::add);
-		if(!clause.hasHead())
-			for(int i = 0; i < getInstanceList().size(); i++)
-				clause.processIfRepresentative(getInstanceList().getInstance(i, false)).ifPresent(children::add);
+		List<StatusClause> children = validatedClause.getClause().getRepresentativeChildren();
 		return children.stream().map(validityCalculator::getValidatedClause).collect(Collectors.toList());
 	}
 
@@ -228,7 +496,7 @@ public class VariableRefinement implements ExpansionOperator<ValidatedClause>, R
 	}
 
 	private boolean subsetOccurs(ValidatedClause statusClause, boolean pruneHard) {
-		for(ValidatedClause resultClause : resultSet)
+		for(ValidatedClause resultClause : resultIndex.getCandidates(statusClause.getClause()))
 			if((pruneHard ? resultClause.coversAll() : canPruneSoft(resultClause, statusClause))
 					&& resultClause.getClause().isSubsetOf(statusClause.getClause())) {
 				Log.LOG.formatLine("%s   %s (%s)", pruneHard ? "FILTER" : "REJECT", statusClause, resultClause);
@@ -237,13 +505,52 @@ public class VariableRefinement implements ExpansionOperator<ValidatedClause>, R
 		return false;
 	}
 
+	/**
+	 * Removes the solutions that are subsumed by another solution that can act as their premise.
+	 * Searches that do not visit subsets before their supersets (e.g. depth first searches) can accept a superset before
+	 * its subset is found, the subset filtering of new candidates cannot reject such a superset. Of two solutions with
+	 * the same literals, the later one is removed.
+	 * @param result	The result
+	 */
+	private void removeSubsumed(Result<ValidatedClause> result) {
+		Map<ValidatedClause, Integer> positions = new IdentityHashMap<>();
+		List<ValidatedClause> solutions = result.getSolutions();
+		for(int i = 0; i < solutions.size(); i++)
+			positions.put(solutions.get(i), i);
+		for(int i = solutions.size() - 1; i >= 0; i--) {
+			ValidatedClause solution = solutions.get(i);
+			for(ValidatedClause clause : resultIndex.getCandidates(solution.getClause())) {
+				Integer position = positions.get(clause);
+				if(position != null && position != i && subsumes(clause, solution)
+						&& (position < i || !solution.getClause().isSubsetOf(clause.getClause()))) {
+					Log.LOG.printLine("PRUNED   " + result.removeNode(i) + " (" + clause + ")");
+					break;
+				}
+			}
+		}
+	}
+
 	protected void prune(Result<ValidatedClause> result) {
-		pruneOne(result, 0);
+		long start = System.currentTimeMillis();
+		long deadline = pruningTimeLimit > Long.MAX_VALUE - start ? Long.MAX_VALUE : start + pruningTimeLimit;
+		this.pruningComplete = pruneOne(result, 0, deadline);
+		this.prunedCount = result.getSolutionCount();
 	}
 
-	protected void pruneOne(Result<ValidatedClause> result, int index) {
+	/**
+	 * Removes the clauses, starting at the given index, that are entailed by the other clauses in the result
+	 * @param result	The result
+	 * @param index		The index of the first clause to test
+	 * @param deadline	The time (in milliseconds) after which no more clauses are tested
+	 * @return	True iff all clauses have been tested before the deadline
+	 */
+	protected boolean pruneOne(Result<ValidatedClause> result, int index, long deadline) {
 		List<ValidatedClause> clauses = result.getSolutions();
-		for(int i = index; i < result.getSolutionCount() - 1; i++) {
+		for(int i = index; i < result.getSolutionCount(); i++) {
+			if(System.currentTimeMillis() >= deadline) {
+				Log.LOG.printLine("Pruning stopped after " + i + " of " + result.getSolutionCount() + " clauses");
+				return false;
+			}
 			List<ValidatedClause> list = new ArrayList<>(result.getSolutionCount() - 1);
 			for(int j = 0; j < result.getSolutionCount(); j++)
 				if(j != i)
@@ -251,10 +558,10 @@ public class VariableRefinement implements ExpansionOperator<ValidatedClause>, R
 			if(entails(list, clauses.get(i))) {
 				Node<ValidatedClause> pruned = result.removeNode(i);
 				Log.LOG.printLine("PRUNED   " + pruned);
-				pruneOne(result, i);
-				return;
+				return pruneOne(result, i, deadline);
 			}
 		}
+		return true;
 	}
 
 	// endregion
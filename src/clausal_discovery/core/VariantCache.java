@@ -0,0 +1,99 @@
+package clausal_discovery.core;
+
+import clausal_discovery.instance.Instance;
+import clausal_discovery.instance.InstanceList;
+import util.Numbers;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The variant cache holds the information on clause variants that is shared by all clauses grown from one root:
+ * the minimal valid variant of every canonical key, the variable permutations of every rank and, for every variable
+ * permutation, the index of every renamed instance.
+ *
+ * @author Samuel Kolb
+ */
+class VariantCache {
+
+	//region Variables
+
+	// IVAR instanceList - The instance list
+
+	private final InstanceList instanceList;
+
+	// IVAR minimalVariants - The minimal valid variant for every canonical key
+
+	private final Map<String, LiteralSet> minimalVariants = new ConcurrentHashMap<>();
+
+	public Map<String, LiteralSet> getMinimalVariants() {
+		return minimalVariants;
+	}
+
+	// IVAR permutations - The variable permutations for every rank
+
+	private final Map<Integer, List<Numbers.Permutation>> permutations = new ConcurrentHashMap<>();
+
+	// IVAR renamings - The index of every renamed instance for every permutation
+
+	private final Map<Numbers.Permutation, int[]> renamings = new ConcurrentHashMap<>();
+
+	//endregion
+
+	//region Construction
+
+	/**
+	 * Creates a new variant cache
+	 * @param instanceList	The instance list
+	 */
+	public VariantCache(InstanceList instanceList) {
+		this.instanceList = instanceList;
+	}
+
+	//endregion
+
+	//region Public methods
+
+	/**
+	 * Returns all permutations of the given number of variables
+	 * @param rank	The number of variables
+	 * @return	A list of permutations
+	 */
+	public List<Numbers.Permutation> getPermutations(int rank) {
+		return permutations.computeIfAbsent(rank, Numbers::getPermutations);
+	}
+
+	/**
+	 * Renames the instance with the given index
+	 * @param permutation	The permutation that maps every variable index to its new index
+	 * @param index			The index of an instance whose variables are all permuted by the given permutation
+	 * @return	The index of the renamed instance
+	 */
+	public int rename(Numbers.Permutation permutation, int index) {
+		int[] renaming = renamings.computeIfAbsent(permutation, p -> {
+			int[] indices = new int[instanceList.size()];
+			Arrays.fill(indices, -1);
+			return indices;
+		});
+		if(renaming[index] < 0)
+			renaming[index] = getIndex(permutation, index);
+		return renaming[index];
+	}
+
+	//endregion
+
+	//region Private methods
+
+	private int getIndex(Numbers.Permutation permutation, int index) {
+		Instance instance = instanceList.get(index);
+		int[] renamed = new Numbers.Permutation(instance.getVariables()).substitute(permutation.getArray()).getArray();
+		int renamedIndex = instanceList.getIndex(instance.getDefinition(), renamed);
+		if(renamedIndex < 0)
+			throw new IllegalArgumentException("Instance list does not contain " + instance + " renamed by " + permutation);
+		return renamedIndex;
+	}
+
+	//endregion
+}
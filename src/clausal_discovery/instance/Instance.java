@@ -8,6 +8,7 @@ import logic.expression.term.Term;
 import logic.expression.term.Variable;
 import vector.Vector;
 
+import java.util.Arrays;
 import java.util.Map;
 
 /**
@@ -18,7 +19,7 @@ import java.util.Map;
 public class Instance {
 
 	//region Variables
-	private PredicateDefinition definition;
+	private final PredicateDefinition definition;
 
 	public PredicateDefinition getDefinition() {
 		return definition;
@@ -28,18 +29,34 @@ public class Instance {
 		return getDefinition().getPredicate();
 	}
 
-	private Vector<Integer> variableIndices;
+	// IVAR variables - The variable indices (sorted for symmetric predicates)
+
+	private final int[] variables;
+
+	/**
+	 * Returns the variable indices of this instance
+	 * @return	The array of variable indices (must not be modified)
+	 */
+	public int[] getVariables() {
+		return variables;
+	}
+
+	private final Vector<Integer> variableIndices;
 
 	public Vector<Integer> getVariableIndices() {
 		return variableIndices;
 	}
 
-	private int max;
+	private final int max;
 
 	public int getMax() {
 		return max;
 	}
 
+	// IVAR hashCode - The precomputed hash code
+
+	private final int hashCode;
+
 	//endregion
 
 	//region Construction
@@ -50,12 +67,26 @@ public class Instance {
 	 * @param variableIndices   The variable indices
 	 */
 	public Instance(PredicateDefinition definition, Vector<Integer> variableIndices) {
-		assert definition.getPredicate().getArity() == variableIndices.size();
+		this(definition, toArray(variableIndices));
+	}
+
+	/**
+	 * Creates an instance
+	 * @param definition	The predicate definition of this instance
+	 * @param variables		The variable indices (the array is copied)
+	 */
+	public Instance(PredicateDefinition definition, int... variables) {
+		assert definition.getPredicate().getArity() == variables.length;
 		this.definition = definition;
-		this.variableIndices = definition.isSymmetric() ? variableIndices.sortedCopy() : variableIndices;
-		this.max = variableIndices.get(0);
-		for(int i = 1; i < variableIndices.size(); i++)
-			this.max = Math.max(this.max, variableIndices.get(i));
+		this.variables = variables.clone();
+		if(definition.isSymmetric())
+			Arrays.sort(this.variables);
+		this.variableIndices = Vector.create(this.variables);
+		int max = this.variables[0];
+		for(int i = 1; i < this.variables.length; i++)
+			max = Math.max(max, this.variables[i]);
+		this.max = max;
+		this.hashCode = 31 * getPredicate().hashCode() + Arrays.hashCode(this.variables);
 	}
 
 	//endregion
@@ -73,15 +104,14 @@ public class Instance {
 		if(o == null || getClass() != o.getClass()) return false;
 
 		Instance instance = (Instance) o;
-		return getPredicate().equals(instance.getPredicate()) && variableIndices.equals(instance.variableIndices);
+		return hashCode == instance.hashCode && Arrays.equals(variables, instance.variables)
+				&& (definition == instance.definition || getPredicate().equals(instance.getPredicate()));
 
 	}
 
 	@Override
 	public int hashCode() {
-		int result = getPredicate().hashCode();
-		result = 31 * result + variableIndices.hashCode();
-		return result;
+		return hashCode;
 	}
 
 	/**
@@ -90,9 +120,9 @@ public class Instance {
 	 * @return	An atom
 	 */
 	public Atom makeAtom(Map<Integer, Variable> variableMap) {
-		Term[] terms = new Term[getVariableIndices().size()];
-		for(int i = 0; i < getVariableIndices().size(); i++) {
-			Integer integer = getVariableIndices().get(i);
+		Term[] terms = new Term[variables.length];
+		for(int i = 0; i < variables.length; i++) {
+			Integer integer = variables[i];
 			if(!variableMap.containsKey(integer))
 				variableMap.put(integer, getVariable(i, integer));
 			else if(variableMap.get(integer).getType().isSuperTypeOf(getPredicate().getTypes().get(i)))
@@ -104,6 +134,13 @@ public class Instance {
 		return getPredicate().getInstance(terms);
 	}
 
+	private static int[] toArray(Vector<Integer> variableIndices) {
+		int[] variables = new int[variableIndices.size()];
+		for(int i = 0; i < variables.length; i++)
+			variables[i] = variableIndices.get(i);
+		return variables;
+	}
+
 	private Variable getVariable(int i, Integer integer) {
 		Type type = getPredicate().getTypes().get(i);
 		return new Variable(getPredicate().getTypes().get(i).getName() + (integer + 1), type);
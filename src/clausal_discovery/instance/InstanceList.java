@@ -1,14 +1,25 @@
 package clausal_discovery.instance;
 
-import association.HashPairing;
-import association.Pairing;
 import basic.StringUtil;
 import clausal_discovery.core.PredicateDefinition;
+import logic.bias.Type;
+import logic.bias.TypeRegistry;
+import logic.expression.formula.Predicate;
 import util.Numbers;
 import vector.Vector;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Created by samuelkolb on 12/04/15.
@@ -17,9 +28,44 @@ import java.util.List;
  */
 public class InstanceList {
 
-	// IVAR pairing - The mapping between indices and instances
+	// The number of variable choices times definitions above which instances are created in parallel
+	private static final int PARALLEL_THRESHOLD = 256;
 
-	private final Pairing<Integer, Instance> pairing;
+	// IVAR instances - The instances by index
+
+	private final Instance[] instances;
+
+	// IVAR bodyInstances, headInstances - The positioned instances (shared) by index
+
+	private final PositionedInstance[] bodyInstances;
+
+	private final PositionedInstance[] headInstances;
+
+	// IVAR typeRegistry, typeIds - The registry of the argument types and the argument type identifiers by index
+
+	private final TypeRegistry typeRegistry;
+
+	public TypeRegistry getTypeRegistry() {
+		return typeRegistry;
+	}
+
+	private final int[][] typeIds;
+
+	// IVAR base, tables - The index of every instance by predicate, at its variable tuple packed in the given base
+	// (-1 if there is no such instance), tables are looked up by definition (identity) first
+
+	private final int base;
+
+	private final Map<PredicateDefinition, int[]> definitionTables = new IdentityHashMap<>();
+
+	private final Map<Predicate, int[]> predicateTables = new HashMap<>();
+
+	// IVAR refinements, refinementSets - The indices of the instances that can extend a clause, for every rank and side
+	// (computed on demand, as sorted array and as set)
+
+	private final Map<Integer, int[]> refinements = new ConcurrentHashMap<>();
+
+	private final Map<Integer, BitSet> refinementSets = new ConcurrentHashMap<>();
 
 	/**
 	 * Creates a new instance list
@@ -27,7 +73,13 @@ public class InstanceList {
 	 * @param variables		The number of variables to be used
 	 */
 	public InstanceList(Vector<PredicateDefinition> predicates, int variables) {
-		this.pairing = getInstances(predicates, getMaximalVariables(variables, predicates));
+		this.instances = getInstances(predicates, getMaximalVariables(variables, predicates));
+		this.bodyInstances = getPositionedInstances(true);
+		this.headInstances = getPositionedInstances(false);
+		this.typeRegistry = getTypeRegistry(this.instances);
+		this.typeIds = findTypeIds();
+		this.base = getBase();
+		buildTables();
 	}
 
 	/**
@@ -35,9 +87,15 @@ public class InstanceList {
 	 * @param instances	The instances in order
 	 */
 	public InstanceList(Vector<Instance> instances) {
-		this.pairing = new HashPairing<>(false, false);
+		this.instances = new Instance[instances.size()];
 		for(int i = 0; i < instances.size(); i++)
-			this.pairing.associate(i, instances.get(i));
+			this.instances[i] = instances.get(i);
+		this.bodyInstances = getPositionedInstances(true);
+		this.headInstances = getPositionedInstances(false);
+		this.typeRegistry = getTypeRegistry(this.instances);
+		this.typeIds = findTypeIds();
+		this.base = getBase();
+		buildTables();
 	}
 
 	/**
@@ -46,7 +104,7 @@ public class InstanceList {
 	 * @return	An instance
 	 */
 	public Instance get(int index) {
-		return this.pairing.getValue(index);
+		return instances[index];
 	}
 
 	/**
@@ -54,7 +112,16 @@ public class InstanceList {
 	 * @return	The size of this instance list
 	 */
 	public int size() {
-		return this.pairing.size();
+		return instances.length;
+	}
+
+	/**
+	 * Returns the type identifiers (in the type registry of this list) of the arguments of an instance
+	 * @param index	The index of the instance
+	 * @return	An array containing the identifier of the type of every argument (do not modify)
+	 */
+	public int[] getTypeIds(int index) {
+		return typeIds[index];
 	}
 
 	/**
@@ -64,7 +131,7 @@ public class InstanceList {
 	 * @return	A positioned instance
 	 */
 	public PositionedInstance getInstance(int index, boolean inBody) {
-		return new PositionedInstance(this, inBody, index);
+		return inBody ? bodyInstances[index] : headInstances[index];
 	}
 
 	/**
@@ -73,29 +140,159 @@ public class InstanceList {
 	 * @return	The index of the instance
 	 */
 	public int getIndex(Instance instance) {
-		if(!this.pairing.containsValue(instance))
+		int index = getIndex(instance.getDefinition(), instance.getVariables());
+		if(index < 0)
 			throw new IllegalArgumentException("Instance list does not contain " + instance);
-		return this.pairing.getKey(instance);
+		return index;
 	}
 
-	private Pairing<Integer, Instance> getInstances(Vector<PredicateDefinition> definitions, int variables) {
-		Vector<InstanceSetPrototype> instanceSetPrototypes = InstanceSetPrototype.createInstanceSets(definitions);
-		List<Instance> instanceList = new ArrayList<>();
-		for(Numbers.Permutation choice : getChoices(variables, instanceSetPrototypes.length)) {
-			InstanceSetPrototype instanceSetPrototype = instanceSetPrototypes.get(choice.getDistinctCount() - 1);
-			instanceList.addAll(instanceSetPrototype.getInstances(choice.getArray()));
+	/**
+	 * Finds the index of the instance of the given definition and variables within this list
+	 * @param definition	The predicate definition
+	 * @param variables		The variable indices (in any order if the definition is symmetric)
+	 * @return	The index of the instance or -1 if this list does not contain it
+	 */
+	public int getIndex(PredicateDefinition definition, int[] variables) {
+		int[] table = definitionTables.get(definition);
+		if(table == null && (table = predicateTables.get(definition.getPredicate())) == null)
+			return -1;
+		for(int variable : variables)
+			if(variable < 0 || variable >= base)
+				return -1;
+		int key = getKey(variables);
+		return key < table.length ? table[key] : -1;
+	}
+
+	/**
+	 * Returns the indices of the instances that can extend a clause with the given number of variables.
+	 * These instances share a variable with the clause (unless the clause has no variables) and introduce new variables
+	 * in order (new variables can only be introduced by body instances).
+	 * @param rank		The number of variables of the clause
+	 * @param inBody	Whether the instances would be added to the body or the head
+	 * @return	The indices of the instances, in ascending order
+	 */
+	public int[] getRefinements(int rank, boolean inBody) {
+		return refinements.computeIfAbsent(2 * rank + (inBody ? 1 : 0), k -> getRefinementSet(rank, inBody).stream().toArray());
+	}
+
+	/**
+	 * Returns whether the instance with the given index can extend a clause with the given number of variables
+	 * @param rank		The number of variables of the clause
+	 * @param inBody	Whether the instance would be added to the body or the head
+	 * @param index		The index of the instance
+	 * @return	True iff the index is contained in the refinements for the given rank and side
+	 */
+	public boolean isRefinement(int rank, boolean inBody, int index) {
+		return getRefinementSet(rank, inBody).get(index);
+	}
+
+	private BitSet getRefinementSet(int rank, boolean inBody) {
+		return refinementSets.computeIfAbsent(2 * rank + (inBody ? 1 : 0), k -> findRefinements(rank, inBody));
+	}
+
+	private BitSet findRefinements(int rank, boolean inBody) {
+		BitSet indices = new BitSet(size());
+		for(int i = 0; i < size(); i++) {
+			int[] variables = get(i).getVariables();
+			if((rank == 0 || isConnected(rank, variables)) && introducesVariablesInOrder(rank, inBody, variables))
+				indices.set(i);
 		}
-		Pairing<Integer, Instance> pairing = new HashPairing<>(false, false);
-		for(int i = 0; i < instanceList.size(); i++)
-			pairing.put(i, instanceList.get(i));
-		return pairing;
+		return indices;
+	}
+
+	private static boolean isConnected(int rank, int[] variables) {
+		for(int variable : variables)
+			if(variable < rank)
+				return true;
+		return false;
+	}
+
+	private static boolean introducesVariablesInOrder(int rank, boolean inBody, int[] variables) {
+		int max = rank - 1;
+		for(int variable : variables)
+			if(inBody && variable == max + 1)
+				max = variable;
+			else if(variable > max)
+				return false;
+		return true;
+	}
+
+	private static TypeRegistry getTypeRegistry(Instance[] instances) {
+		Set<Type> types = new LinkedHashSet<>();
+		for(Instance instance : instances)
+			types.addAll(instance.getPredicate().getTypes());
+		return new TypeRegistry(types);
+	}
+
+	private int[][] findTypeIds() {
+		int[][] ids = new int[size()][];
+		for(int i = 0; i < size(); i++)
+			ids[i] = typeRegistry.getIds(get(i).getPredicate().getTypes());
+		return ids;
+	}
+
+	private int getBase() {
+		int max = 0;
+		for(int i = 0; i < size(); i++)
+			max = Math.max(max, get(i).getMax());
+		return max + 1;
+	}
+
+	private int getKey(int[] variables) {
+		int key = 0;
+		for(int variable : variables)
+			key = key * base + variable;
+		return key;
+	}
+
+	private void buildTables() {
+		for(int i = 0; i < size(); i++) {
+			Instance instance = get(i);
+			int arity = instance.getVariables().length;
+			int[] table = predicateTables.computeIfAbsent(instance.getPredicate(), p -> {
+				int[] indices = new int[(int) Math.pow(base, arity)];
+				Arrays.fill(indices, -1);
+				return indices;
+			});
+			definitionTables.putIfAbsent(instance.getDefinition(), table);
+			int[] variables = instance.getVariables();
+			if(instance.getDefinition().isSymmetric())
+				for(int[] permutation : Numbers.heapPermutations(arity)) {
+					int key = 0;
+					for(int position : permutation)
+						key = key * base + variables[position];
+					table[key] = i;
+				}
+			else
+				table[getKey(variables)] = i;
+		}
+	}
+
+	private Instance[] getInstances(Vector<PredicateDefinition> definitions, int variables) {
+		Vector<InstanceSetPrototype> instanceSetPrototypes = InstanceSetPrototype.createInstanceSets(definitions);
+		List<Numbers.Permutation> choices = getChoices(variables, instanceSetPrototypes.length);
+		Stream<Numbers.Permutation> stream = choices.size() * definitions.size() > PARALLEL_THRESHOLD
+				? choices.parallelStream() : choices.stream();
+		List<Instance> instanceList = stream
+				.map(choice -> instanceSetPrototypes.get(choice.getDistinctCount() - 1).getInstances(choice.getArray()))
+				.flatMap(List::stream)
+				.collect(Collectors.toList());
+		return instanceList.toArray(new Instance[instanceList.size()]);
+	}
+
+	private PositionedInstance[] getPositionedInstances(boolean inBody) {
+		PositionedInstance[] positionedInstances = new PositionedInstance[size()];
+		for(int i = 0; i < positionedInstances.length; i++)
+			positionedInstances[i] = new PositionedInstance(this, inBody, i);
+		return positionedInstances;
 	}
 
 	private List<Numbers.Permutation> getChoices(int variables, int maxArity) {
 		List<Numbers.Permutation> choices = new ArrayList<>();
 		for(int i = 0; i < maxArity; i++)
 			if(i + 1 <= variables)
-				choices.addAll(Numbers.getChoices(variables, i + 1));
+				for(int[] choice : Numbers.revolvingDoorChoices(variables, i + 1))
+					choices.add(new Numbers.Permutation(choice.clone()));
 		choices.sort(new ChoiceComparator());
 		return choices;
 	}
@@ -110,8 +307,8 @@ public class InstanceList {
 	@Override
 	public String toString() {
 		List<String> strings = new ArrayList<>();
-		for(Integer key : this.pairing.keySet())
-			strings.add(key + ": " + get(key));
+		for(int i = 0; i < size(); i++)
+			strings.add(i + ": " + get(i));
 		return StringUtil.join(", ", strings.toArray());
 	}
 }
@@ -2,7 +2,6 @@ package clausal_discovery.instance;
 
 import clausal_discovery.core.PredicateDefinition;
 import util.Numbers;
-import vector.Vector;
 import logic.expression.formula.Predicate;
 
 /**
@@ -25,7 +24,7 @@ public class InstancePrototype {
 
 	private Numbers.Permutation permutation;
 
-	private Numbers.Permutation getPermutation() {
+	Numbers.Permutation getPermutation() {
 		return permutation;
 	}
 
@@ -56,8 +55,7 @@ public class InstancePrototype {
 	 * @return  An instance containing the given indices
 	 */
 	public Instance instantiate(int[] indices) {
-		Vector<Integer> variableIndices = new Vector<>(getPermutation().substitute(indices).getIntegerArray());
-		return new Instance(getDefinition(), variableIndices);
+		return new Instance(getDefinition(), getPermutation().substitute(indices).getArray());
 	}
 
 	@Override
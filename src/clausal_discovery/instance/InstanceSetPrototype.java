@@ -2,12 +2,16 @@ package clausal_discovery.instance;
 
 import clausal_discovery.core.Environment;
 import clausal_discovery.core.PredicateDefinition;
+import logic.bias.Type;
+import logic.bias.TypeRegistry;
 import util.Numbers;
 import vector.Vector;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * An instance set prototype contains prototypes of the same rank
@@ -16,6 +20,8 @@ import java.util.List;
  */
 public class InstanceSetPrototype {
 
+	private static final ChoiceComparator CHOICE_COMPARATOR = new ChoiceComparator();
+
 	//region Variables
 	private final int rank;
 
@@ -67,14 +73,28 @@ public class InstanceSetPrototype {
 
 	public static InstanceSetPrototype createInstanceSet(Collection<PredicateDefinition> definitions, int rank) {
 		List<InstancePrototype> prototypes = new ArrayList<>();
+		Set<Type> types = new LinkedHashSet<>();
+		for(PredicateDefinition definition : definitions)
+			types.addAll(definition.getTypes());
+		Environment environment = new Environment(new TypeRegistry(types));
 		for(PredicateDefinition definition : definitions) {
-			List<Numbers.Permutation> permutations = Numbers.take(rank, definition.getArity());
-			for(Numbers.Permutation permutation : permutations)
-				if(new Environment().isValidInstance(definition, new Vector<>(permutation.getIntegerArray())))
-					if(!definition.isSymmetric() || permutation.isSorted())
-						prototypes.add(new InstancePrototype(definition, permutation));
+			if(definition.getArity() < rank)
+				continue;
+			for(int[] combination : Numbers.getCombinationArrays(rank, definition.getArity()))
+				for(int[] permutation : Numbers.permutations(combination))
+					if(environment.isValidInstance(definition, permutation))
+						if(!definition.isSymmetric() || isSorted(permutation))
+							prototypes.add(new InstancePrototype(definition, new Numbers.Permutation(permutation.clone())));
 		}
+		prototypes.sort((p1, p2) -> CHOICE_COMPARATOR.compare(p1.getPermutation(), p2.getPermutation()));
 		return new InstanceSetPrototype(new Vector<>(prototypes.toArray(new InstancePrototype[prototypes.size()])));
 	}
+
+	private static boolean isSorted(int[] array) {
+		for(int i = 1; i < array.length; i++)
+			if(array[i] < array[i - 1])
+				return false;
+		return true;
+	}
 	//endregion
 }
@@ -54,7 +54,7 @@ public class PositionedInstance {
 	 * 			| && return.isInBody() == inBody
 	 */
 	public PositionedInstance clone(boolean inBody) {
-		return new PositionedInstance(getInstanceList(), inBody, getIndex());
+		return getInstanceList().getInstance(getIndex(), inBody);
 	}
 
 	@Override
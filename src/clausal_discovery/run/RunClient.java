@@ -45,13 +45,13 @@ public class RunClient {
 		}
 
 		IdpExecutor executor = IdpExecutor.get();
-		double time = round(executor.entailmentStopwatch.stop());
+		double time = round(executor.getEntailmentTime());
 
 		Log.LOG.newLine().printLine("Selected " + configuration.getCountingPlugin().getSelectedCount() + " nodes");
 		Log.LOG.printLine("Processed " + configuration.getCountingPlugin().getProcessedCount() + " nodes");
 		Log.LOG.printLine("Expanded " + configuration.getCountingPlugin().getExpandedCount() + " nodes");
 
-		Log.LOG.newLine().printLine(executor.entailmentCount + " entailment checks took " + time + "s.");
+		Log.LOG.newLine().printLine(executor.getEntailmentCount() + " entailment checks took " + time + "s.");
 		Log.LOG.printLine("Pruning time " + round(clausalDiscovery.getExcessTime()) + "s.");
 
 		return clauses;
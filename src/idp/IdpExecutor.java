@@ -4,16 +4,21 @@ import basic.StringUtil;
 import cern.colt.bitvector.BitMatrix;
 import idp.program.EntailsProgram;
 import idp.program.IdpProgram;
+import idp.program.SequentialEntailsProgram;
 import idp.program.ValidityProgram;
 import log.Log;
+import logic.theory.EntailmentSession;
 import logic.theory.InlineTheory;
 import logic.theory.KnowledgeBase;
 import logic.theory.LogicExecutor;
-import time.Stopwatch;
+import logic.theory.Theory;
+import logic.theory.Vocabulary;
 import vector.Vector;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Created by samuelkolb on 11/11/14.
@@ -35,11 +40,63 @@ public class IdpExecutor implements LogicExecutor {
 		return executor;
 	}
 
-	public final Stopwatch entailmentStopwatch = new Stopwatch();
+	// IVAR entailmentTime - The time (in nanoseconds) spent on entailment checks, summed over all threads
 
-	public int entailmentCount = 0;
+	private final AtomicLong entailmentTime = new AtomicLong();
 
-	public int noEntailmentCount = 0;
+	/**
+	 * Returns the time spent on entailment checks, concurrent checks all count
+	 * @return	The time in seconds
+	 */
+	public double getEntailmentTime() {
+		return entailmentTime.get() / 1e9;
+	}
+
+	// IVAR entailmentCount - The number of entailment checks
+
+	private final AtomicInteger entailmentCount = new AtomicInteger();
+
+	public int getEntailmentCount() {
+		return entailmentCount.get();
+	}
+
+	// IVAR noEntailmentCount - The number of entailment checks that found no entailment
+
+	private final AtomicInteger noEntailmentCount = new AtomicInteger();
+
+	public int getNoEntailmentCount() {
+		return noEntailmentCount.get();
+	}
+
+	// IVAR callCount - The number of programs and session commands executed by IDP
+
+	private final AtomicLong callCount = new AtomicLong();
+
+	public long getCallCount() {
+		return callCount.get();
+	}
+
+	void countCall() {
+		callCount.incrementAndGet();
+	}
+
+	/**
+	 * Adds the time since the given start time to the entailment time
+	 * @param start	The start time (as given by System.nanoTime())
+	 */
+	void addEntailmentTime(long start) {
+		entailmentTime.addAndGet(System.nanoTime() - start);
+	}
+
+	/**
+	 * Counts an entailment check
+	 * @param entailed	The result of the check
+	 */
+	void countEntailment(boolean entailed) {
+		entailmentCount.incrementAndGet();
+		if(!entailed)
+			noEntailmentCount.incrementAndGet();
+	}
 
 	// IVAR fileManager - The file manager used for temporary files
 
@@ -51,6 +108,10 @@ public class IdpExecutor implements LogicExecutor {
 
 	private final IdpProgramPrinter printer = new IdpProgramPrinter.Cached();
 
+	IdpProgramPrinter getPrinter() {
+		return printer;
+	}
+
 	//endregion
 
 	//region Construction
@@ -78,15 +139,38 @@ public class IdpExecutor implements LogicExecutor {
 
 	@Override
 	public boolean entails(KnowledgeBase knowledgeBase, InlineTheory theory) {
-		entailmentStopwatch.start();
+		long start = System.nanoTime();
 		boolean test = executeTest(new EntailsProgram(knowledgeBase, printer, theory));
-		entailmentStopwatch.pause();
-		entailmentCount++;
-		if(!test)
-			noEntailmentCount++;
+		addEntailmentTime(start);
+		countEntailment(test);
 		return test;
 	}
 
+	@Override
+	public boolean[] entailsSequentially(KnowledgeBase knowledgeBase, List<InlineTheory> theories) {
+		if(theories.isEmpty())
+			return new boolean[0];
+		long start = System.nanoTime();
+		IdpProgram program = new SequentialEntailsProgram(knowledgeBase, printer, theories);
+		String[] lines = executeSafe(program).trim().split("\n");
+		addEntailmentTime(start);
+		if(lines.length != theories.size()) {
+			Log.LOG.printTitle("Program:").printLine(getDebugString(program));
+			throw new IllegalStateException("Expected " + theories.size() + " results, got " + lines.length);
+		}
+		boolean[] entailed = new boolean[theories.size()];
+		for(int i = 0; i < lines.length; i++) {
+			entailed[i] = getBoolean(lines[i].trim());
+			countEntailment(entailed[i]);
+		}
+		return entailed;
+	}
+
+	@Override
+	public EntailmentSession openSession(Vocabulary vocabulary, Vector<Theory> background) {
+		return new IdpSession(this, vocabulary, background);
+	}
+
 	private boolean executeTest(IdpProgram idpProgram) throws IllegalStateException {
 		String string = executeSafe(idpProgram).trim();
 		try {
@@ -139,6 +223,7 @@ public class IdpExecutor implements LogicExecutor {
 	 * @return	The output of idp
 	 */
 	public String execute(IdpProgram program) {
+		countCall();
 		return IDP.execute(program.print());
 	}
 
@@ -0,0 +1,261 @@
+package idp;
+
+import logic.expression.formula.Formula;
+import logic.theory.EntailmentSession;
+import logic.theory.InlineTheory;
+import logic.theory.Theory;
+import logic.theory.Vocabulary;
+import util.Path;
+import vector.Vector;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An IDP session keeps an interactive IDP process alive, in which the vocabulary, background theories and premises
+ * are loaded once. Premises are added as separate theories and merged into the premise theory, only removing a premise
+ * requires the premise theory to be merged anew (without parsing the premises again).
+ * Commands are buffered until the next entailment test. Every batch ends by printing an end marker and the answer is
+ * printed with a result marker, so echoed commands and other output are ignored. Tested theories and removed premises
+ * are released (set to nil) so the Lua state does not grow with the number of tests.
+ *
+ * @author Samuel Kolb
+ */
+public class IdpSession implements EntailmentSession {
+
+	/**
+	 * Keeps track of the commands and entailment checks of a session
+	 */
+	interface Statistics {
+
+		/**
+		 * Counts a batch of commands sent to IDP
+		 */
+		void countCall();
+
+		/**
+		 * Counts an entailment check
+		 * @param start		The start time of the check (as given by System.nanoTime())
+		 * @param entailed	The result of the check
+		 */
+		void countEntailment(long start, boolean entailed);
+	}
+
+	static final String END_MARKER = "%END%";
+
+	static final String RESULT_MARKER = "%RESULT%";
+
+	private static final String BASE_THEORY = "base";
+
+	private static final String PREMISE_THEORY = "t";
+
+	//region Variables
+
+	// IVAR printer - The printer used for vocabularies and theories
+
+	private final IdpProgramPrinter printer;
+
+	// IVAR statistics - Keeps track of the commands and entailment checks
+
+	private final Statistics statistics;
+
+	// IVAR process - The interactive IDP process
+
+	private final Process process;
+
+	private final BufferedWriter input;
+
+	private final BufferedReader output;
+
+	// IVAR premises - The current premises and the names of the theories that contain them
+
+	private final Map<Formula, String> premises = new LinkedHashMap<>();
+
+	@Override
+	public List<Formula> getPremises() {
+		return new ArrayList<>(premises.keySet());
+	}
+
+	// IVAR commands - The commands that have not been sent yet
+
+	private final StringBuilder commands = new StringBuilder();
+
+	// IVAR theoryCount - The number of theories defined so far (used for naming)
+
+	private int theoryCount = 0;
+
+	// IVAR released - The names of removed premise theories that have not been released yet
+
+	private final List<String> released = new ArrayList<>();
+
+	// IVAR merge - Whether the premise theory has to be merged anew
+
+	private boolean merge = false;
+
+	//endregion
+
+	//region Construction
+
+	/**
+	 * Starts a new IDP session
+	 * @param executor		The executor that keeps track of entailment statistics
+	 * @param vocabulary	The vocabulary of the premises
+	 * @param background	The background theories
+	 */
+	IdpSession(IdpExecutor executor, Vocabulary vocabulary, Vector<Theory> background) {
+		this(executor.getPrinter(), new Statistics() {
+			@Override
+			public void countCall() {
+				executor.countCall();
+			}
+
+			@Override
+			public void countEntailment(long start, boolean entailed) {
+				executor.addEntailmentTime(start);
+				executor.countEntailment(entailed);
+			}
+		}, startProcess(), vocabulary, background);
+	}
+
+	/**
+	 * Creates a new IDP session on the given process
+	 * @param printer		The printer used for vocabularies and theories
+	 * @param statistics	Keeps track of the commands and entailment checks
+	 * @param process		The interactive IDP process
+	 * @param vocabulary	The vocabulary of the premises
+	 * @param background	The background theories
+	 */
+	IdpSession(IdpProgramPrinter printer, Statistics statistics, Process process, Vocabulary vocabulary,
+			   Vector<Theory> background) {
+		this.printer = printer;
+		this.statistics = statistics;
+		this.process = process;
+		this.input = new BufferedWriter(new OutputStreamWriter(process.getOutputStream()));
+		this.output = new BufferedReader(new InputStreamReader(process.getInputStream()));
+		String vocabularyName = IdpProgramPrinter.VOCABULARY_NAME;
+		String theory = IdpProgramPrinter.THEORY_PREFIX + 0;
+		commands.append(printer.printVocabulary(vocabulary, vocabularyName));
+		commands.append(printer.printTheory(new InlineTheory(), theory, vocabularyName));
+		for(int i = 0; i < background.size(); i++) {
+			String name = IdpProgramPrinter.BACKGROUND_PREFIX + i;
+			commands.append(printer.printTheory(background.get(i), name, vocabularyName));
+			theory = String.format("merge(%s, %s)", theory, name);
+		}
+		commands.append(String.format("%s = %s\n%s = %s\n", BASE_THEORY, theory, PREMISE_THEORY, BASE_THEORY));
+	}
+
+	//endregion
+
+	//region Public methods
+
+	@Override
+	public void addPremise(Formula premise) {
+		String name = "P" + theoryCount++;
+		premises.put(premise, name);
+		commands.append(printer.printTheory(new InlineTheory(premise), name, IdpProgramPrinter.VOCABULARY_NAME));
+		if(!merge)
+			commands.append(String.format("%s = merge(%s, %s)\n", PREMISE_THEORY, PREMISE_THEORY, name));
+	}
+
+	@Override
+	public void removePremise(Formula premise) {
+		String name = premises.remove(premise);
+		if(name != null) {
+			released.add(name);
+			merge = true;
+		}
+	}
+
+	@Override
+	public boolean entails(InlineTheory theory) {
+		long start = System.nanoTime();
+		String name = "C" + theoryCount++;
+		commands.append(printer.printTheory(theory, name, IdpProgramPrinter.VOCABULARY_NAME));
+		if(merge) {
+			commands.append(String.format("%s = %s\n", PREMISE_THEORY, BASE_THEORY));
+			for(String premise : premises.values())
+				commands.append(String.format("%s = merge(%s, %s)\n", PREMISE_THEORY, PREMISE_THEORY, premise));
+			for(String premise : released)
+				commands.append(String.format("%s = nil\n", premise));
+			released.clear();
+			merge = false;
+		}
+		commands.append(String.format("if entails(%s, %s) then %s else %s end\n", PREMISE_THEORY, name,
+				printMarked(RESULT_MARKER, "YES"), printMarked(RESULT_MARKER, "NO")));
+		commands.append(String.format("%s = nil\n", name));
+		boolean entailed = getResult(execute());
+		statistics.countEntailment(start, entailed);
+		return entailed;
+	}
+
+	@Override
+	public void close() {
+		try {
+			input.close();
+		} catch(IOException ignored) {
+		}
+		process.destroy();
+	}
+
+	//endregion
+
+	//region Private methods
+
+	private static Process startProcess() {
+		try {
+			return new ProcessBuilder(Path.IDP.getFullPath(), "-i").redirectErrorStream(true).start();
+		} catch(IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Returns a command that prints the given marker followed by the given text. The marker and the text are
+	 * concatenated by IDP, so an echo of the command never ends with (or contains) the printed line.
+	 * @param marker	The marker
+	 * @param text		The text
+	 * @return	A print command
+	 */
+	private static String printMarked(String marker, String text) {
+		return String.format("print(\"%s\" .. \"%s\")", marker, text);
+	}
+
+	private List<String> execute() {
+		List<String> lines = new ArrayList<>();
+		statistics.countCall();
+		try {
+			commands.append(printMarked(END_MARKER, "")).append('\n');
+			input.write(commands.toString());
+			input.flush();
+			commands.setLength(0);
+			String line;
+			while((line = output.readLine()) != null) {
+				if(line.endsWith(END_MARKER))
+					return lines;
+				lines.add(line);
+			}
+		} catch(IOException e) {
+			throw new IllegalStateException(e);
+		}
+		throw new IllegalStateException("IDP session terminated: " + String.join("\n", lines));
+	}
+
+	private boolean getResult(List<String> lines) {
+		for(String line : lines) {
+			if(line.trim().endsWith(RESULT_MARKER + "YES"))
+				return true;
+			if(line.trim().endsWith(RESULT_MARKER + "NO"))
+				return false;
+		}
+		throw new IllegalStateException("Incorrect output: " + String.join("\n", lines));
+	}
+
+	//endregion
+}
@@ -0,0 +1,58 @@
+package idp.program;
+
+import idp.IdpProgramPrinter;
+import logic.theory.KnowledgeBase;
+import logic.theory.Theory;
+
+import java.util.List;
+
+/**
+ * Represents a program that checks a sequence of theories for entailment in a single run.
+ * Every theory that is not entailed is added to the premises before the next theory is tested, the program prints one
+ * line (YES or NO) per theory.
+ *
+ * @author Samuel Kolb
+ */
+public class SequentialEntailsProgram extends IdpProgram {
+
+	//region Variables
+	private final List<? extends Theory> theories;
+	//endregion
+
+	//region Construction
+
+	/**
+	 * Constructs a new sequential entails program
+	 * @param program	The logic program containing vocabulary and (premise) theory
+	 * @param printer	The program printer
+	 * @param theories	The theories that have to be checked, in order
+	 */
+	public SequentialEntailsProgram(KnowledgeBase program, IdpProgramPrinter printer, List<? extends Theory> theories) {
+		super(program, printer);
+		if(getKnowledgeBase().getTheories().size() != 1)
+			throw new IllegalArgumentException("Knowledge base should contains exactly one theory");
+		this.theories = theories;
+	}
+
+	//endregion
+
+	//region Public methods
+
+	@Override
+	public String print() {
+		StringBuilder builder = new StringBuilder();
+		printProgram(builder);
+		for(int i = 0; i < theories.size(); i++)
+			builder.append(getPrinter().printTheory(theories.get(i), "C" + i, "V"));
+
+		StringBuilder procedure = new StringBuilder();
+		procedure.append("t = ").append(mergeBackground("T0")).append("\n");
+		for(int i = 0; i < theories.size(); i++)
+			procedure.append(String.format("if entails(t, C%d) then\n\tprint(\"YES\")\nelse\n\tprint(\"NO\")\n"
+					+ "\tt = %s\nend\n", i, merge("t", "C" + i)));
+		builder.append(new Procedure(procedure.toString()).print());
+		return builder.toString();
+	}
+
+	//endregion
+}
@@ -1,6 +1,8 @@
 package logic.bias;
 
+import java.util.BitSet;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Created by samuelkolb on 22/10/14.
@@ -34,8 +36,18 @@ public class Type {
 	}
 
 	//region Variables
+	private static final AtomicInteger TYPE_COUNT = new AtomicInteger();
+
 	public static final Type GENERIC = new GenericType();
 
+	// IVAR id - The unique (interned) identifier of this type
+
+	private final int id;
+
+	public int getId() {
+		return id;
+	}
+
 	private final String name;
 
 	public String getName() {
@@ -58,6 +70,10 @@ public class Type {
 		return parent.get();
 	}
 
+	// IVAR ancestors - The identifiers of this type and all of its ancestors
+
+	private final BitSet ancestors;
+
 	//endregion
 
 	//region Construction
@@ -75,6 +91,9 @@ public class Type {
 	private Type(String name, Optional<Type> parent) {
 		this.name = name;
 		this.parent = parent;
+		this.id = TYPE_COUNT.getAndIncrement();
+		this.ancestors = parent.isPresent() ? (BitSet) parent.get().ancestors.clone() : new BitSet();
+		this.ancestors.set(id);
 	}
 
 	//endregion
@@ -96,7 +115,16 @@ public class Type {
 	 * @return	True if the given type is a subtype of this type
 	 */
 	public boolean isSuperTypeOf(Type type) {
-		return type.equals(this) || type.hasParent() && isSuperTypeOf(type.getParent());
+		return type.ancestors.get(id);
+	}
+
+	/**
+	 * Determines whether this type is a super type or a subtype of the given type
+	 * @param type	The other type
+	 * @return	True iff one of the types is a super type of the other type
+	 */
+	public boolean isCompatibleWith(Type type) {
+		return isSuperTypeOf(type) || type.isSuperTypeOf(this);
 	}
 
 	@Override
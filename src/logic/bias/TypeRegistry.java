@@ -0,0 +1,159 @@
+package logic.bias;
+
+import vector.Vector;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The type registry assigns dense identifiers (0 to size - 1) to a closed set of types (all types and their ancestors)
+ * and precomputes their ancestors and the compatibility of every pair of types.
+ * Environments store the dense identifiers of variable types and narrow them using the precomputed ancestors.
+ *
+ * @author Samuel Kolb
+ */
+public class TypeRegistry {
+
+	//region Variables
+
+	// IVAR types - The registered types by identifier
+
+	private final List<Type> types = new ArrayList<>();
+
+	// IVAR ids - The identifier of every registered type
+
+	private final Map<Type, Integer> ids = new IdentityHashMap<>();
+
+	// IVAR ancestors - The identifiers of the ancestors (including the type itself) of every type
+
+	private final BitSet[] ancestors;
+
+	// IVAR compatibility - Whether two types are compatible (one is a super type of the other)
+
+	private final boolean[][] compatibility;
+
+	//endregion
+
+	//region Construction
+
+	/**
+	 * Creates a new type registry
+	 * @param types	The types to register, their ancestors are registered as well
+	 */
+	public TypeRegistry(Collection<Type> types) {
+		for(Type type : types)
+			register(type);
+		this.ancestors = new BitSet[size()];
+		for(int i = 0; i < size(); i++) {
+			ancestors[i] = new BitSet(size());
+			for(int j = 0; j < size(); j++)
+				if(getType(j).isSuperTypeOf(getType(i)))
+					ancestors[i].set(j);
+		}
+		this.compatibility = new boolean[size()][size()];
+		for(int i = 0; i < size(); i++)
+			for(int j = 0; j < size(); j++)
+				compatibility[i][j] = isSuperTypeOf(i, j) || isSuperTypeOf(j, i);
+	}
+
+	//endregion
+
+	//region Public methods
+
+	/**
+	 * Returns the number of registered types
+	 * @return	The number of types
+	 */
+	public int size() {
+		return types.size();
+	}
+
+	/**
+	 * Returns the identifier of the given type
+	 * @param type	A registered type
+	 * @return	The identifier of the type
+	 */
+	public int getId(Type type) {
+		Integer id = ids.get(type);
+		if(id == null)
+			throw new IllegalArgumentException("Type not registered: " + type);
+		return id;
+	}
+
+	/**
+	 * Returns the identifiers of the given types
+	 * @param types	Registered types
+	 * @return	An array containing the identifier of every type, in order
+	 */
+	public int[] getIds(Vector<Type> types) {
+		int[] array = new int[types.size()];
+		for(int i = 0; i < array.length; i++)
+			array[i] = getId(types.get(i));
+		return array;
+	}
+
+	/**
+	 * Returns the type with the given identifier
+	 * @param id	The identifier
+	 * @return	The registered type
+	 */
+	public Type getType(int id) {
+		return types.get(id);
+	}
+
+	/**
+	 * Returns whether the given type is registered
+	 * @param type	The type
+	 * @return	True iff the type has an identifier in this registry
+	 */
+	public boolean contains(Type type) {
+		return ids.containsKey(type);
+	}
+
+	/**
+	 * Determines whether one type is a super type of another type
+	 * @param superType	The identifier of the potential super type
+	 * @param subType	The identifier of the potential subtype
+	 * @return	True iff the first type is a super type of (or equal to) the second type
+	 */
+	public boolean isSuperTypeOf(int superType, int subType) {
+		return ancestors[subType].get(superType);
+	}
+
+	/**
+	 * Determines whether two types are compatible
+	 * @param type1	The identifier of the first type
+	 * @param type2	The identifier of the second type
+	 * @return	True iff one type is a super type of the other type
+	 */
+	public boolean isCompatible(int type1, int type2) {
+		return compatibility[type1][type2];
+	}
+
+	/**
+	 * Returns the compatibility matrix, indexed by type identifiers
+	 * @return	A matrix of which the entry (i, j) is true iff the types i and j are compatible (do not modify)
+	 */
+	public boolean[][] getCompatibility() {
+		return compatibility;
+	}
+
+	//endregion
+
+	//region Private methods
+
+	private void register(Type type) {
+		if(ids.containsKey(type))
+			return;
+		if(type.hasParent())
+			register(type.getParent());
+		ids.put(type, types.size());
+		types.add(type);
+	}
+
+	//endregion
+}
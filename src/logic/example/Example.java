@@ -7,10 +7,13 @@ import logic.bias.Type;
 import logic.expression.formula.Predicate;
 import logic.expression.formula.PredicateInstance;
 import logic.expression.term.Constant;
+import logic.theory.Model;
 import logic.theory.Structure;
 import logic.theory.StructureBuilder;
 import vector.Vector;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 
@@ -43,6 +46,10 @@ public class Example {
 
 	private final Vector<PredicateInstance> instances;
 
+	public Vector<PredicateInstance> getInstances() {
+		return instances;
+	}
+
 	// IVAR isPositive - Whether this is a positive example or not (if not it is a negative example)
 
 	private final boolean isPositive;
@@ -90,6 +97,18 @@ public class Example {
 		return builder.create();
 	}
 
+	/**
+	 * Returns the model described by this example, interpreting all predicates that are not calculated
+	 * @return	A model containing the constants and instances of this example
+	 */
+	public Model getModel() {
+		List<Predicate> predicates = new ArrayList<>();
+		for(PredicateDefinition definition : getSetup().getVocabulary().getDefinitions())
+			if(!definition.isCalculated())
+				predicates.add(definition.getPredicate());
+		return new Model(getSetup().getConstants(), predicates, getInstances());
+	}
+
 	private void buildTypes(StructureBuilder builder) {
 		Association<Type, Constant> typeAssociation = new ListAssociation<>(false, false);
 		buildConstants(typeAssociation);
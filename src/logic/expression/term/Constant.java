@@ -25,6 +25,14 @@ public class Constant extends NamedTerm {
 		this("C@" + counter.getAndIncrement());
 	}
 
+	/**
+	 * Create a new constant with a unique name and the given type
+	 * @param type	The type of the constant
+	 */
+	public Constant(Type type) {
+		this("C@" + counter.getAndIncrement(), type);
+	}
+
 	/**
 	 * Creates a new constant with the given name
 	 * @param name	The name of the constant
@@ -0,0 +1,100 @@
+package logic.expression.visitor;
+
+import logic.expression.Expression;
+import logic.expression.formula.*;
+import logic.expression.term.Constant;
+import logic.expression.term.Variable;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Collects the predicates that occur in an expression (infix predicates such as (in)equality are ignored)
+ *
+ * @author Samuel Kolb
+ */
+public class ExpressionPredicateFinder extends ExpressionVisitor {
+
+	//region Variables
+	private final Set<Predicate> predicates;
+	//endregion
+
+	//region Construction
+
+	public ExpressionPredicateFinder() {
+		this.predicates = new HashSet<>();
+	}
+
+	//endregion
+
+	//region Public methods
+
+	public static Set<Predicate> findPredicates(Expression expression) {
+		ExpressionPredicateFinder finder = new ExpressionPredicateFinder();
+		expression.accept(finder);
+		return finder.predicates;
+	}
+
+	@Override
+	public void visit(And and) {
+		visitComposite(and);
+	}
+
+	@Override
+	public void visit(Constant constant) {
+
+	}
+
+	@Override
+	public void visit(Clause clause) {
+		clause.getBody().accept(this);
+		clause.getHead().accept(this);
+	}
+
+	@Override
+	public void visit(Equivalence equivalence) {
+		visitComposite(equivalence);
+	}
+
+	@Override
+	public void visit(Implication implication) {
+		visitComposite(implication);
+	}
+
+	@Override
+	public void visit(LogicalValue logicalValue) {
+
+	}
+
+	@Override
+	public void visit(Not not) {
+		not.getElement().accept(this);
+	}
+
+	@Override
+	public void visit(Or or) {
+		visitComposite(or);
+	}
+
+	@Override
+	public void visit(PredicateInstance instance) {
+		if(!(instance.getPredicate() instanceof InfixPredicate))
+			this.predicates.add(instance.getPredicate());
+	}
+
+	@Override
+	public void visit(InfixPredicateInstance instance) {
+
+	}
+
+	@Override
+	public void visit(Variable variable) {
+
+	}
+
+	private void visitComposite(CompositeFormula compositeFormula) {
+		for(int i = 0; i < compositeFormula.getElementCount(); i++)
+			compositeFormula.getElement(i).accept(this);
+	}
+	//endregion
+}
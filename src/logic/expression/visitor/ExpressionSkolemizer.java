@@ -55,7 +55,7 @@ public class ExpressionSkolemizer {
 		if(term instanceof Variable) {
 			Variable variable = (Variable) term;
 			if(!substitutions.containsKey(variable))
-				substitutions.put(variable, new Constant());
+				substitutions.put(variable, new Constant(variable.getType()));
 			return substitutions.get(variable);
 		}
 		return term;
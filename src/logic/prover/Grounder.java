@@ -0,0 +1,224 @@
+package logic.prover;
+
+import logic.bias.Type;
+import logic.expression.formula.Atom;
+import logic.expression.formula.Clause;
+import logic.expression.formula.InfixPredicate;
+import logic.expression.formula.Predicate;
+import logic.expression.formula.PredicateInstance;
+import logic.expression.term.Constant;
+import logic.expression.term.Term;
+import logic.expression.term.Variable;
+import logic.theory.Model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The grounder instantiates function-free clauses over a finite set of typed constants and adds the resulting ground
+ * clauses to a SAT solver. Every ground atom corresponds to a SAT variable.
+ * A variable of type T ranges over the constants whose type is a subtype of T.
+ *
+ * @author Samuel Kolb
+ */
+public class Grounder {
+
+	private static final String EQUALITY = "=";
+
+	//region Variables
+
+	// IVAR solver - The SAT solver that receives the ground clauses
+
+	private final SatSolver solver;
+
+	public SatSolver getSolver() {
+		return solver;
+	}
+
+	// IVAR constants - The domain constants
+
+	private final List<Constant> constants;
+
+	// IVAR atoms - The SAT variable of every ground atom
+
+	private final Map<PredicateInstance, Integer> atoms = new HashMap<>();
+
+	// IVAR fixed - The ground atoms whose value is fixed
+
+	private final Map<PredicateInstance, Boolean> fixed = new HashMap<>();
+
+	// IVAR domains - Cache for the domain constants of every type
+
+	private final Map<Type, List<Constant>> domains = new HashMap<>();
+
+	//endregion
+
+	//region Construction
+
+	/**
+	 * Creates a new grounder
+	 * @param constants	The domain constants
+	 * @param solver	The SAT solver to add clauses to
+	 */
+	public Grounder(Collection<Constant> constants, SatSolver solver) {
+		this.constants = new ArrayList<>(constants);
+		this.solver = solver;
+	}
+
+	//endregion
+
+	//region Public methods
+
+	/**
+	 * Fixes the value of the given ground atom
+	 * @param atom	The ground atom
+	 * @param value	The value of the atom
+	 */
+	public void fix(PredicateInstance atom, boolean value) {
+		Boolean previous = fixed.put(atom, value);
+		if(previous != null && previous != value)
+			solver.addClause();
+		int variable = getVariable(atom);
+		solver.addClause(value ? variable : -variable);
+	}
+
+	/**
+	 * Adds all ground instances of the given clause to the solver
+	 * @param clause	The clause (containing only predicate instances and (in)equalities)
+	 */
+	public void ground(Clause clause) {
+		List<Variable> variables = new ArrayList<>();
+		for(Atom atom : clause.getBodyAtoms())
+			addVariables((PredicateInstance) atom, variables);
+		for(Atom atom : clause.getHeadAtoms())
+			addVariables((PredicateInstance) atom, variables);
+		ground(clause, variables, 0, new HashMap<>());
+	}
+
+	/**
+	 * Returns the model described by the solution of the solver (after a successful call to solve)
+	 * @param predicates	The predicates to be interpreted by the model
+	 * @return	A model whose true atoms are the ground atoms that are true in the solution
+	 */
+	public Model getModel(Collection<Predicate> predicates) {
+		List<PredicateInstance> trueAtoms = new ArrayList<>();
+		for(Map.Entry<PredicateInstance, Integer> entry : atoms.entrySet())
+			if(solver.getValue(entry.getValue()))
+				trueAtoms.add(entry.getKey());
+		List<Predicate> interpreted = new ArrayList<>(predicates);
+		for(PredicateInstance atom : trueAtoms)
+			if(!interpreted.contains(atom.getPredicate()))
+				interpreted.add(atom.getPredicate());
+		return new Model(constants, interpreted, trueAtoms);
+	}
+
+	//endregion
+
+	//region Private methods
+
+	private int getVariable(PredicateInstance atom) {
+		Integer variable = atoms.get(atom);
+		if(variable == null) {
+			variable = solver.newVariable();
+			atoms.put(atom, variable);
+		}
+		return variable;
+	}
+
+	private List<Constant> getDomain(Type type) {
+		return domains.computeIfAbsent(type, t -> {
+			List<Constant> domain = new ArrayList<>();
+			for(Constant constant : constants)
+				if(t.isSuperTypeOf(constant.getType()))
+					domain.add(constant);
+			return domain;
+		});
+	}
+
+	private static void addVariables(PredicateInstance instance, List<Variable> variables) {
+		for(Term term : instance.getTerms())
+			if(term instanceof Variable && !variables.contains(term))
+				variables.add((Variable) term);
+	}
+
+	private void ground(Clause clause, List<Variable> variables, int index, Map<Variable, Constant> assignment) {
+		if(index < variables.size()) {
+			Variable variable = variables.get(index);
+			for(Constant constant : getDomain(variable.getType())) {
+				assignment.put(variable, constant);
+				if(!isSatisfiedByTests(clause, assignment))
+					ground(clause, variables, index + 1, assignment);
+			}
+			assignment.remove(variable);
+			return;
+		}
+		List<Integer> literals = new ArrayList<>();
+		for(Atom atom : clause.getBodyAtoms())
+			if(!addLiteral((PredicateInstance) atom, assignment, false, literals))
+				return;
+		for(Atom atom : clause.getHeadAtoms())
+			if(!addLiteral((PredicateInstance) atom, assignment, true, literals))
+				return;
+		int[] array = new int[literals.size()];
+		for(int i = 0; i < array.length; i++)
+			array[i] = literals.get(i);
+		solver.addClause(array);
+	}
+
+	private boolean isSatisfiedByTests(Clause clause, Map<Variable, Constant> assignment) {
+		for(Atom atom : clause.getBodyAtoms()) {
+			PredicateInstance instance = (PredicateInstance) atom;
+			if(isInfix(instance) && isBound(instance, assignment) && !test(instance, assignment))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Adds the literal for the given atom
+	 * @return	False iff the ground clause is satisfied and can be discarded
+	 */
+	private boolean addLiteral(PredicateInstance atom, Map<Variable, Constant> assignment, boolean positive,
+							   List<Integer> literals) {
+		if(isInfix(atom))
+			return test(atom, assignment) != positive;
+		PredicateInstance groundAtom = atom.instance(getTerms(atom, assignment));
+		Boolean value = fixed.get(groundAtom);
+		if(value != null)
+			return value != positive;
+		int variable = getVariable(groundAtom);
+		literals.add(positive ? variable : -variable);
+		return true;
+	}
+
+	private static boolean isInfix(PredicateInstance instance) {
+		return instance.getPredicate() instanceof InfixPredicate;
+	}
+
+	private static boolean isBound(PredicateInstance instance, Map<Variable, Constant> assignment) {
+		for(Term term : instance.getTerms())
+			if(term instanceof Variable && !assignment.containsKey(term))
+				return false;
+		return true;
+	}
+
+	private static boolean test(PredicateInstance instance, Map<Variable, Constant> assignment) {
+		Term[] terms = getTerms(instance, assignment);
+		boolean equal = terms[0].equals(terms[1]);
+		return equal == instance.getPredicate().getName().equals(EQUALITY);
+	}
+
+	private static Term[] getTerms(PredicateInstance instance, Map<Variable, Constant> assignment) {
+		Term[] terms = new Term[instance.getTerms().size()];
+		for(int i = 0; i < terms.length; i++) {
+			Term term = instance.getTerm(i);
+			terms[i] = term instanceof Variable ? assignment.get(term) : term;
+		}
+		return terms;
+	}
+
+	//endregion
+}
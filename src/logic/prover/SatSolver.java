@@ -0,0 +1,360 @@
+package logic.prover;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A conflict-driven clause learning SAT solver.
+ * Variables are numbered from 1, literals are non-zero integers where negative values denote negated variables.
+ * Uses two watched literals, first-UIP learning, activity-based branching with phase saving and restarts.
+ *
+ * @author Samuel Kolb
+ */
+public class SatSolver {
+
+	private static class IntList {
+
+		private int[] elements = new int[4];
+
+		private int size = 0;
+
+		private void add(int element) {
+			if(size == elements.length)
+				elements = Arrays.copyOf(elements, size * 2);
+			elements[size++] = element;
+		}
+	}
+
+	private static final int NO_REASON = -1;
+
+	private static final byte TRUE = 1;
+
+	private static final byte FALSE = -1;
+
+	private static final byte UNASSIGNED = 0;
+
+	//region Variables
+
+	// IVAR variableCount - The number of variables
+
+	private int variableCount = 0;
+
+	public int getVariableCount() {
+		return variableCount;
+	}
+
+	// IVAR clauses - The clauses (original and learned) in internal literal encoding
+
+	private final List<int[]> clauses = new ArrayList<>();
+
+	// IVAR watches - For every literal, the clauses that watch it
+
+	private IntList[] watches = new IntList[2];
+
+	// IVAR values - The value of every literal
+
+	private byte[] values = new byte[2];
+
+	// IVAR levels, reasons - The decision level and reason clause of every variable
+
+	private int[] levels = new int[1];
+
+	private int[] reasons = new int[1];
+
+	// IVAR activity, phases - Branching heuristic state of every variable
+
+	private double[] activity = new double[1];
+
+	private boolean[] phases = new boolean[1];
+
+	private double increment = 1;
+
+	// IVAR trail - The assigned literals in order of assignment, with the start index of every decision level
+
+	private int[] trail = new int[1];
+
+	private int trailSize = 0;
+
+	private final IntList levelStarts = new IntList();
+
+	private int propagated = 0;
+
+	// IVAR inconsistent - Whether the empty clause was derived
+
+	private boolean inconsistent = false;
+
+	// IVAR conflictCount - The number of conflicts encountered
+
+	private long conflictCount = 0;
+
+	public long getConflictCount() {
+		return conflictCount;
+	}
+
+	//endregion
+
+	//region Public methods
+
+	/**
+	 * Creates a new variable
+	 * @return	The (positive) number of the new variable
+	 */
+	public int newVariable() {
+		int variable = ++variableCount;
+		if(variable >= levels.length) {
+			int capacity = levels.length * 2;
+			watches = Arrays.copyOf(watches, capacity * 2);
+			values = Arrays.copyOf(values, capacity * 2);
+			levels = Arrays.copyOf(levels, capacity);
+			reasons = Arrays.copyOf(reasons, capacity);
+			activity = Arrays.copyOf(activity, capacity);
+			phases = Arrays.copyOf(phases, capacity);
+			trail = Arrays.copyOf(trail, capacity);
+		}
+		watches[2 * variable] = new IntList();
+		watches[2 * variable + 1] = new IntList();
+		return variable;
+	}
+
+	/**
+	 * Adds a clause, all variables must have been created already
+	 * @param literals	The literals of the clause
+	 * @return	False iff the solver became trivially inconsistent
+	 */
+	public boolean addClause(int... literals) {
+		if(inconsistent)
+			return false;
+		backtrack(0);
+		int[] clause = new int[literals.length];
+		int size = 0;
+		for(int literal : literals) {
+			int internal = toInternal(literal);
+			if(values[internal] == TRUE || contains(clause, size, internal ^ 1))
+				return true;
+			if(values[internal] == UNASSIGNED && !contains(clause, size, internal))
+				clause[size++] = internal;
+		}
+		if(size == 0) {
+			inconsistent = true;
+			return false;
+		}
+		if(size == 1) {
+			assign(clause[0], NO_REASON);
+			if(propagate() != NO_REASON)
+				inconsistent = true;
+			return !inconsistent;
+		}
+		attach(Arrays.copyOf(clause, size));
+		return true;
+	}
+
+	/**
+	 * Searches a satisfying assignment
+	 * @return	True iff the clauses are satisfiable
+	 */
+	public boolean solve() {
+		if(inconsistent)
+			return false;
+		backtrack(0);
+		long restartLimit = 100;
+		long conflicts = 0;
+		while(true) {
+			int conflict = propagate();
+			if(conflict != NO_REASON) {
+				conflictCount++;
+				conflicts++;
+				if(getLevel() == 0) {
+					inconsistent = true;
+					return false;
+				}
+				learn(conflict);
+				increment *= 1 / 0.95;
+				if(conflicts >= restartLimit) {
+					backtrack(0);
+					conflicts = 0;
+					restartLimit = restartLimit * 3 / 2;
+				}
+			} else {
+				int variable = selectVariable();
+				if(variable == 0)
+					return true;
+				levelStarts.add(trailSize);
+				assign(2 * variable + (phases[variable] ? 0 : 1), NO_REASON);
+			}
+		}
+	}
+
+	/**
+	 * Returns the value of the given variable in the satisfying assignment found by the last call to solve
+	 * @param variable	The variable
+	 * @return	True iff the variable is true (unassigned variables are false)
+	 */
+	public boolean getValue(int variable) {
+		return values[2 * variable] == TRUE;
+	}
+
+	//endregion
+
+	//region Private methods
+
+	private static int toInternal(int literal) {
+		if(literal == 0)
+			throw new IllegalArgumentException("Literals must be non-zero");
+		return literal > 0 ? 2 * literal : -2 * literal + 1;
+	}
+
+	private static boolean contains(int[] array, int size, int element) {
+		for(int i = 0; i < size; i++)
+			if(array[i] == element)
+				return true;
+		return false;
+	}
+
+	private int getLevel() {
+		return levelStarts.size;
+	}
+
+	private int attach(int[] clause) {
+		int index = clauses.size();
+		clauses.add(clause);
+		watches[clause[0]].add(index);
+		watches[clause[1]].add(index);
+		return index;
+	}
+
+	private void assign(int literal, int reason) {
+		int variable = literal >> 1;
+		values[literal] = TRUE;
+		values[literal ^ 1] = FALSE;
+		levels[variable] = getLevel();
+		reasons[variable] = reason;
+		trail[trailSize++] = literal;
+	}
+
+	private int propagate() {
+		while(propagated < trailSize) {
+			int falseLiteral = trail[propagated++] ^ 1;
+			IntList watchList = watches[falseLiteral];
+			int kept = 0;
+			for(int i = 0; i < watchList.size; i++) {
+				int index = watchList.elements[i];
+				int[] clause = clauses.get(index);
+				if(clause[0] == falseLiteral) {
+					clause[0] = clause[1];
+					clause[1] = falseLiteral;
+				}
+				if(values[clause[0]] == TRUE) {
+					watchList.elements[kept++] = index;
+					continue;
+				}
+				boolean moved = false;
+				for(int k = 2; k < clause.length; k++)
+					if(values[clause[k]] != FALSE) {
+						clause[1] = clause[k];
+						clause[k] = falseLiteral;
+						watches[clause[1]].add(index);
+						moved = true;
+						break;
+					}
+				if(moved)
+					continue;
+				watchList.elements[kept++] = index;
+				if(values[clause[0]] == FALSE) {
+					while(++i < watchList.size)
+						watchList.elements[kept++] = watchList.elements[i];
+					watchList.size = kept;
+					propagated = trailSize;
+					return index;
+				}
+				assign(clause[0], index);
+			}
+			watchList.size = kept;
+		}
+		return NO_REASON;
+	}
+
+	private void learn(int conflict) {
+		boolean[] seen = new boolean[variableCount + 1];
+		IntList learned = new IntList();
+		learned.add(0);
+		int counter = 0;
+		int literal = -1;
+		int index = trailSize - 1;
+		int reason = conflict;
+		do {
+			int[] clause = clauses.get(reason);
+			for(int j = literal == -1 ? 0 : 1; j < clause.length; j++) {
+				int variable = clause[j] >> 1;
+				if(!seen[variable] && levels[variable] > 0) {
+					bump(variable);
+					seen[variable] = true;
+					if(levels[variable] >= getLevel())
+						counter++;
+					else
+						learned.add(clause[j]);
+				}
+			}
+			while(!seen[trail[index] >> 1])
+				index--;
+			literal = trail[index--];
+			reason = reasons[literal >> 1];
+			seen[literal >> 1] = false;
+			counter--;
+		} while(counter > 0);
+		learned.elements[0] = literal ^ 1;
+		int[] clause = Arrays.copyOf(learned.elements, learned.size);
+		int backtrackLevel = 0;
+		if(clause.length > 1) {
+			int maximum = 1;
+			for(int j = 2; j < clause.length; j++)
+				if(levels[clause[j] >> 1] > levels[clause[maximum] >> 1])
+					maximum = j;
+			int swap = clause[1];
+			clause[1] = clause[maximum];
+			clause[maximum] = swap;
+			backtrackLevel = levels[clause[1] >> 1];
+		}
+		backtrack(backtrackLevel);
+		if(clause.length == 1)
+			assign(clause[0], NO_REASON);
+		else
+			assign(clause[0], attach(clause));
+	}
+
+	private void backtrack(int level) {
+		if(getLevel() <= level)
+			return;
+		int start = levelStarts.elements[level];
+		for(int i = trailSize - 1; i >= start; i--) {
+			int literal = trail[i];
+			int variable = literal >> 1;
+			phases[variable] = (literal & 1) == 0;
+			values[literal] = UNASSIGNED;
+			values[literal ^ 1] = UNASSIGNED;
+			reasons[variable] = NO_REASON;
+		}
+		trailSize = start;
+		propagated = start;
+		levelStarts.size = level;
+	}
+
+	private void bump(int variable) {
+		activity[variable] += increment;
+		if(activity[variable] > 1e100) {
+			for(int i = 1; i <= variableCount; i++)
+				activity[i] *= 1e-100;
+			increment *= 1e-100;
+		}
+	}
+
+	private int selectVariable() {
+		int best = 0;
+		for(int variable = 1; variable <= variableCount; variable++)
+			if(values[2 * variable] == UNASSIGNED && (best == 0 || activity[variable] > activity[best]))
+				best = variable;
+		return best;
+	}
+
+	//endregion
+}
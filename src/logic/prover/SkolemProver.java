@@ -0,0 +1,325 @@
+package logic.prover;
+
+import cern.colt.bitvector.BitMatrix;
+import clausal_discovery.core.PredicateDefinition;
+import logic.bias.Type;
+import logic.expression.formula.Atom;
+import logic.expression.formula.Clause;
+import logic.expression.formula.Formula;
+import logic.expression.formula.InfixPredicate;
+import logic.expression.formula.Predicate;
+import logic.expression.formula.PredicateInstance;
+import logic.expression.term.Constant;
+import logic.expression.term.Term;
+import logic.expression.term.Variable;
+import logic.expression.visitor.ExpressionSkolemizer;
+import logic.expression.visitor.ExpressionVariableFinder;
+import logic.theory.EntailmentSession;
+import logic.theory.FileTheory;
+import logic.theory.InlineTheory;
+import logic.theory.KnowledgeBase;
+import logic.theory.LogicExecutor;
+import logic.theory.Model;
+import logic.theory.Theory;
+import logic.theory.Vocabulary;
+import vector.Vector;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The Skolem prover decides entailment between universally quantified, function-free clauses natively.
+ * The negation of a clause is skolemized, after which the premises are grounded over the finite set of Skolem
+ * constants and one witness constant for every premise type without Skolem constants (types are non-empty).
+ * The premises entail the clause iff the resulting propositional problem is unsatisfiable, every solution describes a
+ * countermodel.
+ * Validity tests and programs that cannot be decided natively (e.g. using file theories) are passed on to a delegate.
+ *
+ * @author Samuel Kolb
+ */
+public class SkolemProver implements LogicExecutor {
+
+	private class Session implements EntailmentSession {
+
+		private final Vocabulary vocabulary;
+
+		private final Vector<Theory> background;
+
+		private final List<Formula> premises = new ArrayList<>();
+
+		private EntailmentSession delegateSession;
+
+		private Session(Vocabulary vocabulary, Vector<Theory> background) {
+			this.vocabulary = vocabulary;
+			this.background = background;
+		}
+
+		@Override
+		public List<Formula> getPremises() {
+			return new ArrayList<>(premises);
+		}
+
+		@Override
+		public void addPremise(Formula premise) {
+			premises.add(premise);
+			if(delegateSession != null)
+				delegateSession.addPremise(premise);
+		}
+
+		@Override
+		public void removePremise(Formula premise) {
+			premises.remove(premise);
+			if(delegateSession != null)
+				delegateSession.removePremise(premise);
+		}
+
+		@Override
+		public boolean entails(InlineTheory theory) {
+			Vector<Theory> theories = new Vector<>(new InlineTheory(premises));
+			KnowledgeBase program = new KnowledgeBase(vocabulary, theories, background, new Vector<>());
+			if(canDecide(program, theory))
+				return SkolemProver.this.entails(program, theory);
+			if(delegateSession == null) {
+				delegateSession = getDelegate().openSession(vocabulary, background);
+				delegateSession.setPremises(premises);
+			}
+			return delegateSession.entails(theory);
+		}
+
+		@Override
+		public void close() {
+			if(delegateSession != null)
+				delegateSession.close();
+		}
+	}
+
+	//region Variables
+
+	// IVAR delegate - The executor used for validity tests and programs that cannot be decided natively
+
+	private final LogicExecutor delegate;
+
+	public LogicExecutor getDelegate() {
+		return delegate;
+	}
+
+	//endregion
+
+	//region Construction
+
+	/**
+	 * Creates a new Skolem prover
+	 * @param delegate	The executor used for validity tests and programs that cannot be decided natively
+	 */
+	public SkolemProver(LogicExecutor delegate) {
+		this.delegate = delegate;
+	}
+
+	//endregion
+
+	//region Public methods
+
+	@Override
+	public BitMatrix testValidityTheories(KnowledgeBase knowledgeBase) {
+		return getDelegate().testValidityTheories(knowledgeBase);
+	}
+
+	@Override
+	public boolean entails(KnowledgeBase program, InlineTheory theory) {
+		if(!canDecide(program, theory))
+			return getDelegate().entails(program, theory);
+		for(Formula formula : theory.getFormulas())
+			if(findCountermodel(program, (Clause) formula).isPresent())
+				return false;
+		return true;
+	}
+
+	@Override
+	public boolean[] entailsSequentially(KnowledgeBase program, List<InlineTheory> theories) {
+		for(InlineTheory theory : theories)
+			if(!canDecide(program, theory))
+				return getDelegate().entailsSequentially(program, theories);
+		return LogicExecutor.super.entailsSequentially(program, theories);
+	}
+
+	/**
+	 * Opens a session that decides entailment natively where possible and otherwise uses a session of the delegate
+	 * @param vocabulary	The vocabulary of the premises
+	 * @param background	The background theories
+	 * @return	A new entailment session without premises
+	 */
+	@Override
+	public EntailmentSession openSession(Vocabulary vocabulary, Vector<Theory> background) {
+		return new Session(vocabulary, background);
+	}
+
+	/**
+	 * Returns whether entailment of the given theory by the given program can be decided natively.
+	 * This requires all theories to be inline theories of function-free clauses without constants or built-in types.
+	 * Moreover, the tested clauses must apply object identity (contain inequalities between all compatible variables).
+	 * @param program	The program containing the premises
+	 * @param theory	The theory to be tested
+	 * @return	True iff the entailment can be decided by this prover
+	 */
+	public boolean canDecide(KnowledgeBase program, InlineTheory theory) {
+		for(Theory premises : program.getTheories())
+			if(!isClausal(premises))
+				return false;
+		for(Theory background : program.getBackgroundTheories())
+			if(!isClausal(background))
+				return false;
+		if(!isClausal(theory))
+			return false;
+		for(Formula formula : theory.getFormulas())
+			if(!appliesObjectIdentity((Clause) formula))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Searches a countermodel, a model of the program that falsifies the given clause
+	 * @param program	The program containing the premises (<code>canDecide</code> must hold)
+	 * @param clause	The clause
+	 * @return	A countermodel or nothing if the program entails the clause
+	 */
+	public Optional<Model> findCountermodel(KnowledgeBase program, Clause clause) {
+		Map<Variable, Constant> skolemConstants = new HashMap<>();
+		Clause negation = new ExpressionSkolemizer().skolemize(clause, skolemConstants);
+		List<Formula> premises = new ArrayList<>();
+		for(Theory theory : program.getTheories())
+			premises.addAll(getFormulas(theory));
+		for(Theory theory : program.getBackgroundTheories())
+			premises.addAll(getFormulas(theory));
+		List<Constant> constants = new ArrayList<>(skolemConstants.values());
+		addWitnesses(premises, constants);
+		Grounder grounder = new Grounder(constants, new SatSolver());
+		for(Atom atom : negation.getBodyAtoms())
+			if(!isInfix(atom))
+				grounder.fix((PredicateInstance) atom, true);
+		for(Atom atom : negation.getHeadAtoms())
+			if(!isInfix(atom))
+				grounder.fix((PredicateInstance) atom, false);
+		for(Formula formula : premises)
+			grounder.ground((Clause) formula);
+		if(!grounder.getSolver().solve())
+			return Optional.empty();
+		List<Predicate> predicates = new ArrayList<>();
+		for(PredicateDefinition definition : program.getVocabulary().getDefinitions())
+			predicates.add(definition.getPredicate());
+		return Optional.of(grounder.getModel(predicates));
+	}
+
+	//endregion
+
+	//region Private methods
+
+	/**
+	 * Adds a fresh constant for every type of a premise variable whose domain would otherwise be empty.
+	 * Types are assumed to be non-empty, without these witnesses the premises over such a type would be grounded
+	 * vacuously (producing spurious countermodels).
+	 * @param premises	The premises
+	 * @param constants	The domain constants (Skolem constants), witnesses are added to this list
+	 */
+	private static void addWitnesses(List<Formula> premises, List<Constant> constants) {
+		for(Formula premise : premises)
+			for(Variable variable : ExpressionVariableFinder.findVariables(premise))
+				if(!hasConstant(variable.getType(), constants))
+					constants.add(new Constant(variable.getType()));
+	}
+
+	private static boolean hasConstant(Type type, List<Constant> constants) {
+		for(Constant constant : constants)
+			if(type.isSuperTypeOf(constant.getType()))
+				return true;
+		return false;
+	}
+
+	private static boolean isInfix(Atom atom) {
+		return ((PredicateInstance) atom).getPredicate() instanceof InfixPredicate;
+	}
+
+	private static List<Formula> getFormulas(Theory theory) {
+		return theory.accept(new Theory.Visitor<List<Formula>>() {
+			@Override
+			public List<Formula> visit(InlineTheory inlineTheory) {
+				return inlineTheory.getFormulas();
+			}
+
+			@Override
+			public List<Formula> visit(FileTheory fileTheory) {
+				throw new IllegalArgumentException("File theories cannot be grounded");
+			}
+		});
+	}
+
+	private static boolean isClausal(Theory theory) {
+		return theory.accept(new Theory.Visitor<Boolean>() {
+			@Override
+			public Boolean visit(InlineTheory inlineTheory) {
+				for(Formula formula : inlineTheory.getFormulas())
+					if(!isClausal(formula))
+						return false;
+				return true;
+			}
+
+			@Override
+			public Boolean visit(FileTheory fileTheory) {
+				return false;
+			}
+		});
+	}
+
+	private static boolean isClausal(Formula formula) {
+		if(!(formula instanceof Clause))
+			return false;
+		Clause clause = (Clause) formula;
+		for(Atom atom : clause.getBodyAtoms())
+			if(!isClausal(atom))
+				return false;
+		for(Atom atom : clause.getHeadAtoms())
+			if(!isClausal(atom))
+				return false;
+		return true;
+	}
+
+	private static boolean appliesObjectIdentity(Clause clause) {
+		List<Variable> variables = new ArrayList<>(ExpressionVariableFinder.findVariables(clause));
+		for(int i = 0; i < variables.size(); i++)
+			for(int j = i + 1; j < variables.size(); j++) {
+				Variable first = variables.get(i);
+				Variable second = variables.get(j);
+				if(first.getType().isCompatibleWith(second.getType()) && !containsInequality(clause, first, second))
+					return false;
+			}
+		return true;
+	}
+
+	private static boolean containsInequality(Clause clause, Variable first, Variable second) {
+		for(Atom atom : clause.getBodyAtoms()) {
+			PredicateInstance instance = (PredicateInstance) atom;
+			if(instance.getPredicate() instanceof InfixPredicate && instance.getPredicate().getName().equals("~=")
+					&& (instance.getTerm(0).equals(first) && instance.getTerm(1).equals(second)
+					|| instance.getTerm(0).equals(second) && instance.getTerm(1).equals(first)))
+				return true;
+		}
+		return false;
+	}
+
+	private static boolean isClausal(Atom atom) {
+		if(!(atom instanceof PredicateInstance))
+			return false;
+		PredicateInstance instance = (PredicateInstance) atom;
+		if(instance.getPredicate() instanceof InfixPredicate
+				&& !instance.getPredicate().getName().equals("~=") && !instance.getPredicate().getName().equals("="))
+			return false;
+		for(Term term : instance.getTerms())
+			if(!(term instanceof Variable) || term.getType().isBuiltIn())
+				return false;
+		return true;
+	}
+
+	//endregion
+}
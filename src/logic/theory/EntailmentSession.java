@@ -0,0 +1,56 @@
+package logic.theory;
+
+import logic.expression.formula.Formula;
+
+import java.util.List;
+
+/**
+ * An entailment session holds a premise theory that changes incrementally and tests theories for entailment by it.
+ * Sessions keep their vocabulary and background theories for their entire lifetime and have to be closed after use.
+ *
+ * @author Samuel Kolb
+ */
+public interface EntailmentSession extends AutoCloseable {
+
+	/**
+	 * Returns the current premises
+	 * @return	The premise formulas in the order in which they were added
+	 */
+	List<Formula> getPremises();
+
+	/**
+	 * Adds a premise to the premise theory
+	 * @param premise	The premise formula
+	 */
+	void addPremise(Formula premise);
+
+	/**
+	 * Removes a premise from the premise theory
+	 * @param premise	The premise formula (must have been added before)
+	 */
+	void removePremise(Formula premise);
+
+	/**
+	 * Returns whether the premises and background theories of this session entail the given theory
+	 * @param theory	The theory that should be tested
+	 * @return	True iff the given theory is entailed
+	 */
+	boolean entails(InlineTheory theory);
+
+	/**
+	 * Updates the premises to the given formulas, only adding and removing the formulas that differ
+	 * @param premises	The new premises
+	 */
+	default void setPremises(List<Formula> premises) {
+		for(Formula premise : getPremises())
+			if(!premises.contains(premise))
+				removePremise(premise);
+		List<Formula> current = getPremises();
+		for(Formula premise : premises)
+			if(!current.contains(premise))
+				addPremise(premise);
+	}
+
+	@Override
+	void close();
+}
@@ -1,7 +1,11 @@
 package logic.theory;
 
+import logic.expression.formula.Formula;
 import vector.Vector;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * A generic logic program consists of a vocabulary, a theory and multiple structures
  *
@@ -57,4 +61,18 @@ public class KnowledgeBase {
 		this.backgroundTheories = backgroundTheories;
 		this.structures = structures;
 	}
+
+	/**
+	 * Creates a new knowledge base in which the formulas of the given theory are added to the (single, inline) theory
+	 * @param theory	The theory whose formulas to add
+	 * @return	A new knowledge base with the same vocabulary, background theories and structures
+	 */
+	public KnowledgeBase extendTheory(InlineTheory theory) {
+		if(getTheories().size() != 1 || !(getTheories().get(0) instanceof InlineTheory))
+			throw new IllegalStateException("Knowledge base should contain exactly one inline theory");
+		List<Formula> formulas = new ArrayList<>(((InlineTheory) getTheories().get(0)).getFormulas());
+		formulas.addAll(theory.getFormulas());
+		Theory extended = new InlineTheory(formulas);
+		return new KnowledgeBase(getVocabulary(), new Vector<>(extended), getBackgroundTheories(), getStructures());
+	}
 }
@@ -1,6 +1,9 @@
 package logic.theory;
 
 import cern.colt.bitvector.BitMatrix;
+import vector.Vector;
+
+import java.util.List;
 
 /**
  * The logic executor abstracts the necessary (external) logical operations from the system in use
@@ -35,4 +38,31 @@ public interface LogicExecutor {
 	 * @return	True iff the given program entails the given clause
 	 */
 	boolean entails(KnowledgeBase program, InlineTheory theory);
+
+	/**
+	 * Returns for every theory in the given sequence whether it is entailed by the given program.
+	 * Every theory that is not entailed is added to the premises before the next theory is tested.
+	 * @param program	The program containing the (single, inline) premise theory
+	 * @param theories	The theories that should be tested, in order
+	 * @return	An array containing for every theory whether it was entailed
+	 */
+	default boolean[] entailsSequentially(KnowledgeBase program, List<InlineTheory> theories) {
+		boolean[] entailed = new boolean[theories.size()];
+		for(int i = 0; i < theories.size(); i++) {
+			entailed[i] = entails(program, theories.get(i));
+			if(!entailed[i])
+				program = program.extendTheory(theories.get(i));
+		}
+		return entailed;
+	}
+
+	/**
+	 * Opens a session for incremental entailment tests
+	 * @param vocabulary	The vocabulary of the premises
+	 * @param background	The background theories
+	 * @return	A new entailment session without premises
+	 */
+	default EntailmentSession openSession(Vocabulary vocabulary, Vector<Theory> background) {
+		return new ProgramSession(this, vocabulary, background);
+	}
 }
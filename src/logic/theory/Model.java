@@ -0,0 +1,344 @@
+package logic.theory;
+
+import logic.bias.Type;
+import logic.expression.formula.Atom;
+import logic.expression.formula.Clause;
+import logic.expression.formula.Formula;
+import logic.expression.formula.InfixPredicate;
+import logic.expression.formula.Predicate;
+import logic.expression.formula.PredicateInstance;
+import logic.expression.term.Constant;
+import logic.expression.term.Term;
+import logic.expression.term.Variable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A model is a finite, two-valued interpretation: a set of typed domain constants together with the ground atoms that
+ * are true for the predicates it defines (all other atoms of these predicates are false).
+ * Function-free clauses can be evaluated natively against a model, without calling an external solver.
+ *
+ * @author Samuel Kolb
+ */
+public class Model {
+
+	private static final String INEQUALITY = "~=";
+
+	private static final String EQUALITY = "=";
+
+	//region Variables
+
+	// IVAR constants - The domain constants of this model
+
+	private final List<Constant> constants;
+
+	public List<Constant> getConstants() {
+		return constants;
+	}
+
+	// IVAR predicates - The predicates whose interpretation is given by this model
+
+	private final Set<Predicate> predicates;
+
+	public Set<Predicate> getPredicates() {
+		return predicates;
+	}
+
+	// IVAR facts - The true ground atoms, grouped by predicate
+
+	private final Map<Predicate, List<Constant[]>> facts = new HashMap<>();
+
+	private final Map<Predicate, Set<List<Constant>>> factSets = new HashMap<>();
+
+	// IVAR domains - Cache for the domain constants of every type
+
+	private final Map<Type, List<Constant>> domains = new ConcurrentHashMap<>();
+
+	// IVAR evaluations - Cache for the truth values of evaluated formulas
+
+	private final Map<Formula, Boolean> evaluations = new ConcurrentHashMap<>();
+
+	//endregion
+
+	//region Construction
+
+	/**
+	 * Creates a new model
+	 * @param constants		The domain constants
+	 * @param predicates	The predicates that are interpreted by this model
+	 * @param atoms			The true ground atoms (their predicates must be interpreted by this model)
+	 */
+	public Model(Collection<Constant> constants, Collection<Predicate> predicates, Collection<PredicateInstance> atoms) {
+		this.constants = Collections.unmodifiableList(new ArrayList<>(constants));
+		this.predicates = Collections.unmodifiableSet(new HashSet<>(predicates));
+		for(PredicateInstance atom : atoms) {
+			if(!this.predicates.contains(atom.getPredicate()))
+				throw new IllegalArgumentException("Atom " + atom + " is not interpreted by this model");
+			Constant[] tuple = getTuple(atom);
+			if(factSets.computeIfAbsent(atom.getPredicate(), p -> new HashSet<>()).add(Arrays.asList(tuple)))
+				facts.computeIfAbsent(atom.getPredicate(), p -> new ArrayList<>()).add(tuple);
+		}
+	}
+
+	//endregion
+
+	//region Public methods
+
+	/**
+	 * Returns the true ground atoms of this model
+	 * @return	A list of ground predicate instances
+	 */
+	public List<PredicateInstance> getAtoms() {
+		List<PredicateInstance> atoms = new ArrayList<>();
+		for(Map.Entry<Predicate, List<Constant[]>> entry : facts.entrySet())
+			for(Constant[] tuple : entry.getValue())
+				atoms.add(new PredicateInstance(entry.getKey(), tuple));
+		return atoms;
+	}
+
+	/**
+	 * Returns whether the given atom is true in this model
+	 * @param atom	The ground atom (its predicate must be interpreted by this model)
+	 * @return	True iff the atom is true in this model
+	 */
+	public boolean isTrue(PredicateInstance atom) {
+		return isTrue(atom.getPredicate(), getTuple(atom));
+	}
+
+	/**
+	 * Returns whether the given formula can be evaluated natively by this model.
+	 * Only clauses consisting of (in)equalities and predicates interpreted by this model can be evaluated.
+	 * @param formula	The formula
+	 * @return	True iff {@link #satisfies(Formula)} can be called for the given formula
+	 */
+	public boolean canEvaluate(Formula formula) {
+		if(!(formula instanceof Clause))
+			return false;
+		Clause clause = (Clause) formula;
+		for(Atom atom : clause.getBodyAtoms())
+			if(!canEvaluate(atom))
+				return false;
+		for(Atom atom : clause.getHeadAtoms())
+			if(!canEvaluate(atom))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Returns whether all given formulas can be evaluated natively by this model
+	 * @param formulas	The formulas
+	 * @return	True iff every formula can be evaluated
+	 */
+	public boolean canEvaluate(Collection<? extends Formula> formulas) {
+		for(Formula formula : formulas)
+			if(!canEvaluate(formula))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Returns whether this model satisfies the given clause (variables are universally quantified over their type)
+	 * @param formula	The clause, <code>canEvaluate(formula)</code> must hold
+	 * @return	True iff the clause is true in this model
+	 */
+	public boolean satisfies(Formula formula) {
+		Boolean value = evaluations.get(formula);
+		if(value == null) {
+			if(!canEvaluate(formula))
+				throw new IllegalArgumentException("Cannot evaluate " + formula);
+			value = !findViolation((Clause) formula).isPresent();
+			evaluations.put(formula, value);
+		}
+		return value;
+	}
+
+	/**
+	 * Returns whether this model satisfies all given clauses
+	 * @param formulas	The clauses, all of which must be evaluable
+	 * @return	True iff every clause is true in this model
+	 */
+	public boolean satisfiesAll(Collection<? extends Formula> formulas) {
+		for(Formula formula : formulas)
+			if(!satisfies(formula))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Searches an assignment of the variables of the given clause that makes its body true and its head false
+	 * @param clause	The clause, <code>canEvaluate(clause)</code> must hold
+	 * @return	The violating assignment or nothing if the clause is true in this model
+	 */
+	public Optional<Map<Variable, Constant>> findViolation(Clause clause) {
+		List<PredicateInstance> body = new ArrayList<>();
+		List<PredicateInstance> tests = new ArrayList<>();
+		for(Atom atom : clause.getBodyAtoms())
+			(isInfix((PredicateInstance) atom) ? tests : body).add((PredicateInstance) atom);
+		List<Variable> variables = new ArrayList<>();
+		for(Atom atom : clause.getBodyAtoms())
+			addVariables((PredicateInstance) atom, variables);
+		for(Atom atom : clause.getHeadAtoms())
+			addVariables((PredicateInstance) atom, variables);
+		List<PredicateInstance> head = new ArrayList<>();
+		for(Atom atom : clause.getHeadAtoms())
+			head.add((PredicateInstance) atom);
+		Map<Variable, Constant> binding = new HashMap<>();
+		if(findViolation(body, 0, variables, tests, head, binding))
+			return Optional.of(binding);
+		return Optional.empty();
+	}
+
+	/**
+	 * Creates a new model that extends this one with the given true atoms
+	 * @param atoms	The additional atoms
+	 * @return	A new model
+	 */
+	public Model extend(Collection<PredicateInstance> atoms) {
+		List<PredicateInstance> union = getAtoms();
+		union.addAll(atoms);
+		return new Model(getConstants(), getPredicates(), union);
+	}
+
+	/**
+	 * Returns the constants of this model that belong to the given type
+	 * @param type	The type
+	 * @return	A list of constants
+	 */
+	public List<Constant> getDomain(Type type) {
+		return domains.computeIfAbsent(type, t -> {
+			List<Constant> domain = new ArrayList<>();
+			for(Constant constant : getConstants())
+				if(t.isSuperTypeOf(constant.getType()))
+					domain.add(constant);
+			return domain;
+		});
+	}
+
+	@Override
+	public String toString() {
+		return "Model" + getAtoms();
+	}
+
+	//endregion
+
+	//region Private methods
+
+	private boolean canEvaluate(Atom atom) {
+		if(!(atom instanceof PredicateInstance))
+			return false;
+		PredicateInstance instance = (PredicateInstance) atom;
+		if(!isInfix(instance) && !getPredicates().contains(instance.getPredicate()))
+			return false;
+		for(Term term : instance.getTerms())
+			if(term instanceof Variable ? term.getType().isBuiltIn() : !getConstants().contains(term))
+				return false;
+		return true;
+	}
+
+	private boolean isInfix(PredicateInstance instance) {
+		Predicate predicate = instance.getPredicate();
+		return predicate instanceof InfixPredicate
+				&& (predicate.getName().equals(INEQUALITY) || predicate.getName().equals(EQUALITY));
+	}
+
+	private void addVariables(PredicateInstance instance, List<Variable> variables) {
+		for(Term term : instance.getTerms())
+			if(term instanceof Variable && !variables.contains(term))
+				variables.add((Variable) term);
+	}
+
+	private boolean findViolation(List<PredicateInstance> body, int index, List<Variable> variables,
+								  List<PredicateInstance> tests, List<PredicateInstance> head,
+								  Map<Variable, Constant> binding) {
+		if(index < body.size()) {
+			PredicateInstance atom = body.get(index);
+			for(Constant[] tuple : facts.getOrDefault(atom.getPredicate(), Collections.emptyList())) {
+				List<Variable> bound = new ArrayList<>();
+				if(unify(atom, tuple, binding, bound)
+						&& findViolation(body, index + 1, variables, tests, head, binding))
+					return true;
+				bound.forEach(binding::remove);
+			}
+			return false;
+		}
+		for(Variable variable : variables)
+			if(!binding.containsKey(variable)) {
+				for(Constant constant : getDomain(variable.getType())) {
+					binding.put(variable, constant);
+					if(findViolation(body, index, variables, tests, head, binding))
+						return true;
+				}
+				binding.remove(variable);
+				return false;
+			}
+		for(PredicateInstance test : tests)
+			if(testFails(test, binding))
+				return false;
+		for(PredicateInstance atom : head)
+			if(isInfix(atom) ? !testFails(atom, binding) : isTrue(atom.getPredicate(), getTuple(atom, binding)))
+				return false;
+		return true;
+	}
+
+	private boolean testFails(PredicateInstance test, Map<Variable, Constant> binding) {
+		boolean equal = getConstant(test.getTerm(0), binding).equals(getConstant(test.getTerm(1), binding));
+		return equal != test.getPredicate().getName().equals(EQUALITY);
+	}
+
+	private boolean unify(PredicateInstance atom, Constant[] tuple, Map<Variable, Constant> binding,
+						  List<Variable> bound) {
+		for(int i = 0; i < tuple.length; i++) {
+			Term term = atom.getTerm(i);
+			if(term instanceof Variable) {
+				Constant constant = binding.get(term);
+				if(constant == null) {
+					if(!term.getType().isSuperTypeOf(tuple[i].getType()))
+						return false;
+					binding.put((Variable) term, tuple[i]);
+					bound.add((Variable) term);
+				} else if(!constant.equals(tuple[i]))
+					return false;
+			} else if(!term.equals(tuple[i]))
+				return false;
+		}
+		return true;
+	}
+
+	private boolean isTrue(Predicate predicate, Constant[] tuple) {
+		Set<List<Constant>> set = factSets.get(predicate);
+		return set != null && set.contains(Arrays.asList(tuple));
+	}
+
+	private Constant getConstant(Term term, Map<Variable, Constant> binding) {
+		return term instanceof Variable ? binding.get(term) : (Constant) term;
+	}
+
+	private Constant[] getTuple(PredicateInstance atom) {
+		Constant[] tuple = new Constant[atom.getTerms().size()];
+		for(int i = 0; i < tuple.length; i++)
+			if(atom.getTerm(i) instanceof Constant)
+				tuple[i] = (Constant) atom.getTerm(i);
+			else
+				throw new IllegalArgumentException("Atom " + atom + " is not ground");
+		return tuple;
+	}
+
+	private Constant[] getTuple(PredicateInstance atom, Map<Variable, Constant> binding) {
+		Constant[] tuple = new Constant[atom.getTerms().size()];
+		for(int i = 0; i < tuple.length; i++)
+			tuple[i] = getConstant(atom.getTerm(i), binding);
+		return tuple;
+	}
+
+	//endregion
+}
@@ -0,0 +1,82 @@
+package logic.theory;
+
+import logic.expression.formula.Formula;
+import vector.Vector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A program session builds a new knowledge base for every entailment test and passes it to a logic executor.
+ * It is used by executors that do not support incremental entailment tests.
+ *
+ * @author Samuel Kolb
+ */
+public class ProgramSession implements EntailmentSession {
+
+	//region Variables
+
+	// IVAR executor - The executor used for entailment tests
+
+	private final LogicExecutor executor;
+
+	// IVAR vocabulary - The vocabulary of the premises
+
+	private final Vocabulary vocabulary;
+
+	// IVAR background - The background theories
+
+	private final Vector<Theory> background;
+
+	// IVAR premises - The current premises
+
+	private final List<Formula> premises = new ArrayList<>();
+
+	@Override
+	public List<Formula> getPremises() {
+		return new ArrayList<>(premises);
+	}
+
+	//endregion
+
+	//region Construction
+
+	/**
+	 * Creates a new program session
+	 * @param executor		The executor used for entailment tests
+	 * @param vocabulary	The vocabulary of the premises
+	 * @param background	The background theories
+	 */
+	public ProgramSession(LogicExecutor executor, Vocabulary vocabulary, Vector<Theory> background) {
+		this.executor = executor;
+		this.vocabulary = vocabulary;
+		this.background = background;
+	}
+
+	//endregion
+
+	//region Public methods
+
+	@Override
+	public void addPremise(Formula premise) {
+		premises.add(premise);
+	}
+
+	@Override
+	public void removePremise(Formula premise) {
+		premises.remove(premise);
+	}
+
+	@Override
+	public boolean entails(InlineTheory theory) {
+		Vector<Theory> theories = new Vector<>(new InlineTheory(premises));
+		return executor.entails(new KnowledgeBase(vocabulary, theories, background, new Vector<>()), theory);
+	}
+
+	@Override
+	public void close() {
+
+	}
+
+	//endregion
+}
@@ -79,9 +79,10 @@ public class Knowledge implements LogicBase {
 				variableMap.put(index, new Variable(type.getName() + index, type));
 			}
 			Instance body = new Instance(definition, variableIndices);
-			List<Numbers.Permutation> permutations = Numbers.getPermutations(predicate.getArity());
-			for(int i = 1; i < permutations.size(); i++) {
-				Instance head = new Instance(definition, new Vector<>(permutations.get(i).getIntegerArray()));
+			Iterator<int[]> permutations = Numbers.heapPermutations(predicate.getArity()).iterator();
+			permutations.next();
+			while(permutations.hasNext()) {
+				Instance head = new Instance(definition, permutations.next());
 				formulas.add(Clause.horn(head.makeAtom(variableMap), body.makeAtom(variableMap)));
 			}
 		}
@@ -3,6 +3,7 @@ package util;
 import basic.ArrayUtil;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Created by samuelkolb on 20/02/15.
@@ -98,6 +99,13 @@ public class Numbers {
 		}
 	}
 
+	// The largest n for which permutation tables are memoized
+	private static final int MEMOIZE_LIMIT = 7;
+
+	private static final Map<Integer, List<Permutation>> PERMUTATION_TABLES = new ConcurrentHashMap<>();
+
+	private static final Map<Long, List<Permutation>> CHOICE_TABLES = new ConcurrentHashMap<>();
+
 	public static List<Permutation> take(int pool, int length) {
 		if(length < pool)
 			throw new UnsupportedOperationException("Length has to be at least as large as the pool size");
@@ -132,8 +140,18 @@ public class Numbers {
 		}
 	}
 
+	/**
+	 * Returns all choices of length elements from the numbers 0 to pool - 1, in lexicographic order
+	 * Tables for small pools are memoized and must not be modified.
+	 * @param pool		The number of elements to choose from
+	 * @param length	The number of elements to choose
+	 * @return	An (unmodifiable) list of sorted choices
+	 */
 	public static List<Permutation> getChoices(int pool, int length) {
-		return convert(getChoiceArrays(pool, length));
+		if(pool > MEMOIZE_LIMIT)
+			return convert(getChoiceArrays(pool, length));
+		return CHOICE_TABLES.computeIfAbsent(((long) pool << 32) | length,
+				k -> Collections.unmodifiableList(convert(getChoiceArrays(pool, length))));
 	}
 
 	public static List<int[]> getChoiceArrays(int pool, int length) {
@@ -155,17 +173,29 @@ public class Numbers {
 		}
 	}
 
+	/**
+	 * Returns the distinct permutations of the given elements (which may contain duplicates), in lexicographic order
+	 * @param elements	The elements to permute
+	 * @return	A list of distinct permutations
+	 */
 	public static List<Permutation> getPermutations(int[] elements) {
-		// TODO sort and skip equal elements
-		List<Permutation> originalPermutations = getPermutations(elements.length);
-		Set<Permutation> permutations = new HashSet<>();
-		for(Permutation permutation : originalPermutations)
-			permutations.add(permutation.substitute(elements));
-		return new ArrayList<>(permutations);
+		List<Permutation> permutations = new ArrayList<>();
+		for(int[] permutation : permutations(elements))
+			permutations.add(new Permutation(permutation.clone()));
+		return permutations;
 	}
 
+	/**
+	 * Returns all permutations of the numbers 0 to n - 1, in lexicographic order
+	 * Tables for small n are memoized and must not be modified.
+	 * @param n	The number of elements
+	 * @return	An (unmodifiable) list of permutations
+	 */
 	public static List<Permutation> getPermutations(int n) {
-		return convert(getPermutationArrays(n));
+		if(n > MEMOIZE_LIMIT)
+			return convert(getPermutationArrays(n));
+		return PERMUTATION_TABLES.computeIfAbsent(n,
+				k -> Collections.unmodifiableList(convert(getPermutationArrays(n))));
 	}
 
 	public static List<int[]> getPermutationArrays(int n) {
@@ -173,10 +203,177 @@ public class Numbers {
 		if(capacity > Integer.MAX_VALUE)
 			throw new IllegalArgumentException("n (" +  n + ") is too large");
 		List<int[]> permutations = new ArrayList<>((int) capacity);
-		addPermutations(new int[]{}, range(n - 1), permutations);
+		if(n > 0)
+			for(int[] permutation : permutations(range(n - 1)))
+				permutations.add(permutation.clone());
 		return permutations;
 	}
 
+	/**
+	 * Lazily generates the distinct permutations of the given elements (which may contain duplicates) in lexicographic
+	 * order. The iterator updates and returns the same array for every permutation.
+	 * @param elements	The elements to permute (not modified)
+	 * @return	An iterable over the distinct permutations
+	 */
+	public static Iterable<int[]> permutations(int[] elements) {
+		return () -> new Iterator<int[]>() {
+
+			private final int[] array = sorted(elements);
+
+			private boolean ready = true;
+
+			@Override
+			public boolean hasNext() {
+				if(!ready)
+					ready = nextPermutation(array);
+				return ready;
+			}
+
+			@Override
+			public int[] next() {
+				if(!hasNext())
+					throw new NoSuchElementException();
+				ready = false;
+				return array;
+			}
+		};
+	}
+
+	/**
+	 * Lazily generates the permutations of the numbers 0 to n - 1 using Heap's algorithm: every permutation is obtained
+	 * from the previous one by a single swap. The iterator updates and returns the same array for every permutation.
+	 * @param n	The number of elements
+	 * @return	An iterable over all n! permutations (starting with the identity), or no permutations if n is 0
+	 */
+	public static Iterable<int[]> heapPermutations(int n) {
+		return () -> new Iterator<int[]>() {
+
+			private final int[] array = n > 0 ? range(n - 1) : new int[0];
+
+			private final int[] counters = new int[n];
+
+			private boolean ready = n > 0;
+
+			private boolean done = n == 0;
+
+			@Override
+			public boolean hasNext() {
+				if(!ready && !done) {
+					int i = 1;
+					while(i < n && counters[i] >= i)
+						counters[i++] = 0;
+					if(i < n) {
+						swap(array, i % 2 == 0 ? 0 : counters[i], i);
+						counters[i]++;
+						ready = true;
+					} else {
+						done = true;
+					}
+				}
+				return ready;
+			}
+
+			@Override
+			public int[] next() {
+				if(!hasNext())
+					throw new NoSuchElementException();
+				ready = false;
+				return array;
+			}
+		};
+	}
+
+	/**
+	 * Lazily generates the choices of length elements from the numbers 0 to pool - 1 in revolving-door order (Knuth's
+	 * algorithm R): every choice is obtained from the previous one by replacing a single element.
+	 * The iterator updates and returns the same (sorted) array for every choice.
+	 * @param pool		The number of elements to choose from
+	 * @param length	The number of elements to choose
+	 * @return	An iterable over all choices
+	 */
+	public static Iterable<int[]> revolvingDoorChoices(int pool, int length) {
+		if(length > pool)
+			throw new UnsupportedOperationException("Length cannot exceed pool size");
+		return () -> new Iterator<int[]>() {
+
+			// c[1..length] holds the choice, c[length + 1] the sentinel pool
+			private final int[] c = new int[length + 2];
+
+			private final int[] choice = new int[length];
+
+			private boolean ready = true;
+
+			private boolean done = false;
+
+			{
+				for(int j = 1; j <= length; j++)
+					c[j] = j - 1;
+				c[length + 1] = pool;
+				System.arraycopy(c, 1, choice, 0, length);
+			}
+
+			@Override
+			public boolean hasNext() {
+				if(!ready && !done) {
+					if(advance()) {
+						System.arraycopy(c, 1, choice, 0, length);
+						ready = true;
+					} else {
+						done = true;
+					}
+				}
+				return ready;
+			}
+
+			@Override
+			public int[] next() {
+				if(!hasNext())
+					throw new NoSuchElementException();
+				ready = false;
+				return choice;
+			}
+
+			private boolean advance() {
+				if(length == 0)
+					return false;
+				boolean decrease;
+				if(length % 2 == 1) {
+					if(c[1] + 1 < c[2]) {
+						c[1]++;
+						return true;
+					}
+					decrease = true;
+				} else {
+					if(c[1] > 0) {
+						c[1]--;
+						return true;
+					}
+					decrease = false;
+				}
+				int j = 2;
+				while(j <= length) {
+					if(decrease) {
+						if(c[j] >= j) {
+							c[j] = c[j - 1];
+							c[j - 1] = j - 2;
+							return true;
+						}
+						if(++j > length)
+							return false;
+					}
+					if(c[j] + 1 < c[j + 1]) {
+						c[j - 1] = c[j];
+						c[j]++;
+						return true;
+					}
+					j++;
+					decrease = true;
+				}
+				return false;
+			}
+		};
+	}
+
 	public static void main(String[] args) {
 		Set<int[]> permutations = new HashSet<>();
 		addPermutations(new int[]{}, new int[]{1, 1, 2}, permutations);
@@ -196,6 +393,33 @@ public class Numbers {
 		}
 	}
 
+	private static int[] sorted(int[] elements) {
+		int[] array = elements.clone();
+		Arrays.sort(array);
+		return array;
+	}
+
+	private static boolean nextPermutation(int[] array) {
+		int i = array.length - 2;
+		while(i >= 0 && array[i] >= array[i + 1])
+			i--;
+		if(i < 0)
+			return false;
+		int j = array.length - 1;
+		while(array[j] <= array[i])
+			j--;
+		swap(array, i, j);
+		for(int k = i + 1, l = array.length - 1; k < l; k++, l--)
+			swap(array, k, l);
+		return true;
+	}
+
+	private static void swap(int[] array, int i, int j) {
+		int temp = array[i];
+		array[i] = array[j];
+		array[j] = temp;
+	}
+
 	private static int[] newPrefix(int[] prefix, int number) {
 		int[] newPrefix = new int[prefix.length + 1];
 		System.arraycopy(prefix, 0, newPrefix, 0, prefix.length);
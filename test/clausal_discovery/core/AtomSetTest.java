@@ -0,0 +1,160 @@
+package clausal_discovery.core;
+
+import clausal_discovery.instance.InstanceList;
+import logic.expression.formula.Predicate;
+import org.junit.Test;
+import vector.Vector;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests atom sets and literal sets against bit sets, around the sizes at which the inline words are full.
+ *
+ * @author Samuel Kolb
+ */
+public class AtomSetTest {
+
+	private static final int[] SIZES = {63, 64, 65, 127, 128, 129, 200};
+
+	@Test
+	public void testBitSet() {
+		Random random = new Random(0);
+		for(int size : SIZES) {
+			InstanceList list = getInstanceList(size);
+			for(int i = 0; i < 50; i++) {
+				BitSet expected = new BitSet();
+				AtomSet atomSet = new AtomSet(list);
+				for(int index : getIndices(size, random)) {
+					AtomSet previous = atomSet;
+					atomSet = atomSet.add(index);
+					assertFalse(previous.contains(index));
+					expected.set(index);
+					assertEquals(expected, atomSet.toBitSet());
+				}
+				assertEquals(expected.cardinality(), atomSet.size());
+				assertEquals(expected.length() - 1, atomSet.lastIndex());
+				for(int index = 0; index < size; index++)
+					assertEquals(expected.get(index), atomSet.contains(index));
+				List<Integer> indices = new ArrayList<>();
+				atomSet.forEach(indices::add);
+				assertEquals(expected.stream().boxed().collect(Collectors.toList()), indices);
+			}
+		}
+	}
+
+	@Test
+	public void testBoundaries() {
+		for(int size : SIZES) {
+			InstanceList list = getInstanceList(size);
+			AtomSet empty = new AtomSet(list);
+			for(int index : new int[]{0, 63, 64, 127, 128, size - 1}) {
+				if(index >= size)
+					continue;
+				AtomSet atomSet = empty.add(index);
+				assertTrue(atomSet.contains(index));
+				assertFalse(empty.contains(index));
+				assertEquals(1, atomSet.size());
+				assertEquals(index, atomSet.lastIndex());
+				assertSame(atomSet, atomSet.add(index));
+				assertEquals(atomSet, empty.add(index));
+				assertEquals(atomSet.hashCode(), empty.add(index).hashCode());
+				assertNotEquals(empty, atomSet);
+			}
+			try {
+				empty.add(size);
+				fail();
+			} catch(IllegalArgumentException e) {
+				// Expected
+			}
+		}
+	}
+
+	@Test
+	public void testValueEquality() {
+		Random random = new Random(1);
+		for(int size : SIZES) {
+			InstanceList list = getInstanceList(size);
+			for(int i = 0; i < 50; i++) {
+				List<Integer> indices = getIndices(size, random);
+				AtomSet atomSet = add(new AtomSet(list), indices);
+				Collections.shuffle(indices, random);
+				AtomSet shuffled = add(new AtomSet(list), indices);
+				assertNotSame(atomSet, shuffled);
+				assertEquals(atomSet, shuffled);
+				assertEquals(atomSet.hashCode(), shuffled.hashCode());
+				assertEquals(0, atomSet.compareTo(shuffled));
+
+				AtomSet other = add(new AtomSet(list), getIndices(size, random));
+				assertEquals(atomSet.toBitSet().equals(other.toBitSet()), atomSet.equals(other));
+				assertEquals(atomSet.equals(other), atomSet.compareTo(other) == 0);
+				assertEquals(-Integer.signum(atomSet.compareTo(other)), Integer.signum(other.compareTo(atomSet)));
+				BitSet difference = atomSet.toBitSet();
+				difference.andNot(other.toBitSet());
+				assertEquals(difference.isEmpty(), atomSet.isSubsetOf(other));
+			}
+		}
+	}
+
+	@Test
+	public void testLiteralSet() {
+		Random random = new Random(2);
+		for(int size : SIZES) {
+			InstanceList list = getInstanceList(size);
+			for(int i = 0; i < 50; i++) {
+				List<Integer> body = getIndices(size, random);
+				List<Integer> head = getIndices(size, random);
+				LiteralSet literalSet = add(add(new LiteralSet(list), body, true), head, false);
+				Collections.shuffle(body, random);
+				LiteralSet shuffled = add(add(new LiteralSet(list), head, false), body, true);
+				assertEquals(literalSet, shuffled);
+				assertEquals(literalSet.hashCode(), shuffled.hashCode());
+				assertEquals(body.size() + head.size(), literalSet.size());
+				assertTrue(literalSet.isSubsetOf(shuffled));
+				if(!body.isEmpty()) {
+					LiteralSet swapped = add(new LiteralSet(list), body, false);
+					assertNotEquals(add(new LiteralSet(list), body, true), swapped);
+				}
+			}
+		}
+	}
+
+	private static InstanceList getInstanceList(int size) {
+		PredicateDefinition[] definitions = new PredicateDefinition[size];
+		for(int i = 0; i < size; i++)
+			definitions[i] = new PredicateDefinition(new Predicate("p" + i, 1));
+		InstanceList list = new InstanceList(new Vector<>(definitions), 1);
+		assertEquals(size, list.size());
+		return list;
+	}
+
+	private static List<Integer> getIndices(int size, Random random) {
+		List<Integer> indices = new ArrayList<>();
+		int count = random.nextInt(12);
+		for(int i = 0; i < count; i++) {
+			int index = random.nextInt(4) == 0 ? 64 * random.nextInt(size / 64 + 1) - random.nextInt(2)
+					: random.nextInt(size);
+			if(index >= 0 && index < size && !indices.contains(index))
+				indices.add(index);
+		}
+		return indices;
+	}
+
+	private static AtomSet add(AtomSet atomSet, List<Integer> indices) {
+		for(int index : indices)
+			atomSet = atomSet.add(index);
+		return atomSet;
+	}
+
+	private static LiteralSet add(LiteralSet literalSet, List<Integer> indices, boolean inBody) {
+		for(int index : indices)
+			literalSet = literalSet.add(index, inBody);
+		return literalSet;
+	}
+}
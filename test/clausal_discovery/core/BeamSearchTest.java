@@ -0,0 +1,65 @@
+package clausal_discovery.core;
+
+import org.junit.Test;
+import version3.algorithm.ExpansionOperator;
+import version3.algorithm.ResultPolicy;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToDoubleBiFunction;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the selection of the beam search.
+ *
+ * @author Samuel Kolb
+ */
+public class BeamSearchTest {
+
+	private static final Map<String, List<String>> TREE = new HashMap<>();
+
+	static {
+		TREE.put("", Arrays.asList("a", "b", "c"));
+		TREE.put("a", Arrays.asList("aa", "ab"));
+		TREE.put("b", Arrays.asList("ba", "bb"));
+		TREE.put("c", Collections.singletonList("ca"));
+	}
+
+	private static final ExpansionOperator<String> EXPANSION =
+			node -> TREE.getOrDefault(node.getValue(), Collections.emptyList());
+
+	private static final ResultPolicy<String> SOLUTIONS = (result, node) -> {
+		result.addNode(node);
+		return true;
+	};
+
+	@Test
+	public void testTies() {
+		for(int i = 0; i < 10; i++)
+			assertEquals(Arrays.asList("", "a", "b", "c", "aa", "ab", "ba"), search((parent, child) -> 0, 3, 3));
+	}
+
+	@Test
+	public void testDiversity() {
+		assertEquals(Arrays.asList("", "a", "b", "c", "aa", "ba", "ca"), search((parent, child) -> 0, 3, 1));
+		assertEquals(Arrays.asList("", "a", "b", "c", "ab", "bb", "aa"),
+				search((parent, child) -> child.endsWith("b") ? 1 : 0, 3, 2));
+	}
+
+	@Test
+	public void testHeuristic() {
+		assertEquals(Arrays.asList("", "b", "c", "bb", "ca"),
+				search((parent, child) -> child.charAt(0) + (child.endsWith("b") ? 1 : 0), 2, 2));
+	}
+
+	private static List<String> search(ToDoubleBiFunction<String, String> heuristic, int width, int diversity) {
+		BeamSearch<String> search = new BeamSearch<>(EXPANSION, SOLUTIONS, 2, Function.identity(), heuristic, width,
+				diversity);
+		return search.search(Collections.singletonList("")).getSolutions();
+	}
+}
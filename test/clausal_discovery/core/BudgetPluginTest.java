@@ -0,0 +1,104 @@
+package clausal_discovery.core;
+
+import org.junit.Test;
+import version3.algorithm.ExpansionOperator;
+import version3.algorithm.ResultPolicy;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the budget plugin and the depth up to which it reports a search to be covered.
+ *
+ * @author Samuel Kolb
+ */
+public class BudgetPluginTest {
+
+	private static final Map<String, List<String>> TREE = new HashMap<>();
+
+	static {
+		TREE.put("", Arrays.asList("a", "b", "c"));
+		TREE.put("a", Arrays.asList("aa", "ab"));
+		TREE.put("b", Arrays.asList("ba", "bb"));
+		TREE.put("c", Collections.singletonList("ca"));
+	}
+
+	private static final ExpansionOperator<String> EXPANSION =
+			node -> TREE.getOrDefault(node.getValue(), Collections.emptyList());
+
+	private static final ResultPolicy<String> SOLUTIONS = (result, node) -> {
+		result.addNode(node);
+		return true;
+	};
+
+	@Test
+	public void testCompleteSearch() {
+		BudgetPlugin<String> budget = new BudgetPlugin<>(SearchBudget.UNLIMITED, () -> 0);
+		ParallelBreadthFirstSearch<String> search =
+				new ParallelBreadthFirstSearch<>(EXPANSION, SOLUTIONS, 2, Function.identity(), 1);
+		search.addPlugin(budget);
+		assertEquals(9, search.search(Collections.singletonList("")).getSolutionCount());
+		SearchReport report = budget.getReport(2, true);
+		assertTrue(report.isComplete());
+		assertEquals(2, report.getCoveredDepth());
+		assertEquals(9, report.getNodeCount());
+	}
+
+	@Test
+	public void testBeamDiscards() {
+		BudgetPlugin<String> budget = new BudgetPlugin<>(SearchBudget.UNLIMITED, () -> 0);
+		BeamSearch<String> search = new BeamSearch<>(EXPANSION, SOLUTIONS, 2, Function.identity(),
+				(parent, child) -> -child.charAt(child.length() - 1), 2, 2);
+		search.setDiscardListener(budget::nodeDiscarded);
+		search.addPlugin(budget);
+		assertEquals(Arrays.asList("", "a", "b", "aa", "ba"), search.search(Collections.singletonList("")).getSolutions());
+		SearchReport report = budget.getReport(2, true);
+		assertTrue(report.isComplete());
+		assertEquals(0, report.getCoveredDepth());
+	}
+
+	@Test
+	public void testNodeLimit() {
+		BudgetPlugin<String> budget = new BudgetPlugin<>(SearchBudget.UNLIMITED.setNodeLimit(3), () -> 0);
+		assertEquals(Arrays.asList("", "a", "b"), search(budget, SOLUTIONS));
+		SearchReport report = budget.getReport(2, true);
+		assertEquals(Optional.of(SearchBudget.Limit.NODES), report.getExhausted());
+		assertFalse(report.isComplete());
+		assertEquals(0, report.getCoveredDepth());
+		assertEquals(3, report.getNodeCount());
+
+		budget = new BudgetPlugin<>(SearchBudget.UNLIMITED.setNodeLimit(4), () -> 0);
+		assertEquals(Arrays.asList("", "a", "b", "c"), search(budget, SOLUTIONS));
+		assertEquals(1, budget.getReport(2, true).getCoveredDepth());
+	}
+
+	@Test
+	public void testCallLimit() {
+		AtomicLong calls = new AtomicLong(5);
+		BudgetPlugin<String> budget = new BudgetPlugin<>(SearchBudget.UNLIMITED.setCallLimit(2), calls::get);
+		ResultPolicy<String> policy = (result, node) -> {
+			calls.incrementAndGet();
+			return SOLUTIONS.processSolution(result, node);
+		};
+		assertEquals(Arrays.asList("", "a"), search(budget, policy));
+		SearchReport report = budget.getReport(2, true);
+		assertEquals(Optional.of(SearchBudget.Limit.IDP_CALLS), report.getExhausted());
+		assertEquals(0, report.getCoveredDepth());
+		assertEquals(2, report.getCallCount());
+	}
+
+	private static List<String> search(BudgetPlugin<String> budget, ResultPolicy<String> policy) {
+		ParallelBreadthFirstSearch<String> search =
+				new ParallelBreadthFirstSearch<>(EXPANSION, policy, 2, Function.identity(), 1);
+		search.addPlugin(budget);
+		return search.search(Collections.singletonList("")).getSolutions();
+	}
+}
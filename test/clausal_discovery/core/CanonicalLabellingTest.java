@@ -0,0 +1,102 @@
+package clausal_discovery.core;
+
+import clausal_discovery.instance.InstanceList;
+import clausal_discovery.instance.PositionedInstance;
+import logic.expression.formula.Predicate;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import util.Numbers;
+import vector.Vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the canonical keys of clauses against a brute force enumeration of their variants.
+ *
+ * @author Samuel Kolb
+ */
+public class CanonicalLabellingTest {
+
+	private static final int VARIABLES = 3;
+
+	private static PredicateDefinition unary;
+
+	private static PredicateDefinition symmetric;
+
+	private static InstanceList list;
+
+	@BeforeClass
+	public static void before() {
+		unary = new PredicateDefinition(new Predicate("q", 1));
+		PredicateDefinition binary = new PredicateDefinition(new Predicate("b", 2));
+		symmetric = new PredicateDefinition(new Predicate("n", 2), true, false);
+		PredicateDefinition symmetricTernary = new PredicateDefinition(new Predicate("s", 3), true, false);
+		list = new InstanceList(new Vector<>(unary, binary, symmetric, symmetricTernary), VARIABLES);
+	}
+
+	@Test
+	public void testSymmetricRenaming() {
+		List<PositionedInstance> clause1 = Arrays.asList(literal(symmetric, true, 0, 1), literal(unary, true, 1));
+		List<PositionedInstance> clause2 = Arrays.asList(literal(symmetric, true, 0, 1), literal(unary, true, 0));
+		assertEquals(CanonicalLabelling.getKey(clause1, 2), CanonicalLabelling.getKey(clause2, 2));
+	}
+
+	@Test
+	public void testRandomClauses() {
+		Random random = new Random(0);
+		List<List<PositionedInstance>> clauses = new ArrayList<>();
+		for(int i = 0; i < 400; i++) {
+			Set<PositionedInstance> clause = new HashSet<>();
+			int size = 1 + random.nextInt(4);
+			while(clause.size() < size)
+				clause.add(list.getInstance(random.nextInt(list.size()), random.nextInt(4) > 0));
+			clauses.add(new ArrayList<>(clause));
+		}
+		List<String> keys = new ArrayList<>();
+		for(List<PositionedInstance> clause : clauses)
+			keys.add(CanonicalLabelling.getKey(clause, VARIABLES));
+		for(int i = 0; i < clauses.size(); i++)
+			for(int j = i; j < clauses.size(); j++)
+				assertEquals(clauses.get(i) + " " + clauses.get(j), isVariant(clauses.get(i), clauses.get(j)),
+						keys.get(i).equals(keys.get(j)));
+	}
+
+	/**
+	 * Returns whether the second clause can be obtained by renaming the variables of the first clause
+	 * @param clause1	The literals of the first clause
+	 * @param clause2	The literals of the second clause
+	 * @return	True iff some permutation of the variables maps the literals of one clause onto those of the other
+	 */
+	static boolean isVariant(List<PositionedInstance> clause1, List<PositionedInstance> clause2) {
+		Set<String> literals2 = getLiterals(clause2, new Numbers.Permutation(Numbers.range(VARIABLES - 1)));
+		for(Numbers.Permutation permutation : Numbers.getPermutations(VARIABLES))
+			if(getLiterals(clause1, permutation).equals(literals2))
+				return true;
+		return false;
+	}
+
+	private static Set<String> getLiterals(List<PositionedInstance> clause, Numbers.Permutation permutation) {
+		Set<String> literals = new HashSet<>();
+		for(PositionedInstance literal : clause) {
+			int[] variables = literal.getInstance().getVariables().clone();
+			for(int i = 0; i < variables.length; i++)
+				variables[i] = permutation.getArray()[variables[i]];
+			if(literal.getInstance().getDefinition().isSymmetric())
+				Arrays.sort(variables);
+			literals.add((literal.isInBody() ? "~" : "") + literal.getInstance().getPredicate().getName()
+					+ Arrays.toString(variables));
+		}
+		return literals;
+	}
+
+	private static PositionedInstance literal(PredicateDefinition definition, boolean inBody, int... variables) {
+		return list.getInstance(list.getIndex(definition, variables), inBody);
+	}
+}
@@ -0,0 +1,89 @@
+package clausal_discovery.core;
+
+import clausal_discovery.instance.InstanceList;
+import clausal_discovery.instance.PositionedInstance;
+import logic.expression.formula.Predicate;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import vector.Vector;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the clause matcher, in particular for symmetric predicates whose arguments are stored in sorted order.
+ *
+ * @author Samuel Kolb
+ */
+public class ClauseMatcherTest {
+
+	private static PredicateDefinition unary;
+
+	private static PredicateDefinition binary;
+
+	private static PredicateDefinition symmetric;
+
+	private static PredicateDefinition symmetricTernary;
+
+	private static InstanceList list;
+
+	@BeforeClass
+	public static void before() {
+		unary = new PredicateDefinition(new Predicate("q", 1));
+		binary = new PredicateDefinition(new Predicate("b", 2));
+		symmetric = new PredicateDefinition(new Predicate("n", 2), true, false);
+		symmetricTernary = new PredicateDefinition(new Predicate("s", 3), true, false);
+		list = new InstanceList(new Vector<>(unary, binary, symmetric, symmetricTernary), 3);
+	}
+
+	@Test
+	public void testSymmetricRenaming() {
+		ClauseMatcher subset = matcher(2, body(symmetric, 0, 1), body(unary, 1));
+		ClauseMatcher superset = matcher(2, body(symmetric, 0, 1), body(unary, 0));
+		assertTrue(subset.isSubsetOf(superset));
+		assertTrue(superset.isSubsetOf(subset));
+	}
+
+	@Test
+	public void testSymmetricTernaryRenaming() {
+		ClauseMatcher subset = matcher(3, body(symmetricTernary, 0, 1, 2), head(unary, 2));
+		ClauseMatcher superset = matcher(3, body(symmetricTernary, 0, 1, 2), body(binary, 1, 2), head(unary, 0));
+		assertTrue(subset.isSubsetOf(superset));
+		assertFalse(superset.isSubsetOf(subset));
+	}
+
+	@Test
+	public void testAsymmetricRenaming() {
+		ClauseMatcher subset = matcher(2, body(binary, 0, 1), body(unary, 1));
+		ClauseMatcher superset = matcher(2, body(binary, 0, 1), body(unary, 0));
+		assertFalse(subset.isSubsetOf(superset));
+	}
+
+	@Test
+	public void testObjectIdentity() {
+		ClauseMatcher subset = matcher(2, body(symmetric, 0, 1));
+		ClauseMatcher superset = matcher(1, body(symmetric, 0, 0));
+		assertFalse(subset.isSubsetOf(superset));
+		assertFalse(superset.isSubsetOf(subset));
+	}
+
+	@Test
+	public void testSide() {
+		ClauseMatcher subset = matcher(2, body(symmetric, 0, 1));
+		ClauseMatcher superset = matcher(2, head(symmetric, 0, 1), body(unary, 0));
+		assertFalse(subset.isSubsetOf(superset));
+	}
+
+	private static ClauseMatcher matcher(int variableCount, PositionedInstance... literals) {
+		return new ClauseMatcher(Arrays.asList(literals), variableCount);
+	}
+
+	private static PositionedInstance body(PredicateDefinition definition, int... variables) {
+		return list.getInstance(list.getIndex(definition, variables), true);
+	}
+
+	private static PositionedInstance head(PredicateDefinition definition, int... variables) {
+		return list.getInstance(list.getIndex(definition, variables), false);
+	}
+}
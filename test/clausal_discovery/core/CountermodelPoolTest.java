@@ -0,0 +1,88 @@
+package clausal_discovery.core;
+
+import logic.bias.Type;
+import logic.example.Example;
+import logic.example.Setup;
+import logic.expression.formula.Clause;
+import logic.expression.formula.Formula;
+import logic.expression.formula.InfixPredicate;
+import logic.expression.formula.Predicate;
+import logic.expression.term.Constant;
+import logic.expression.term.Variable;
+import logic.theory.FileTheory;
+import logic.theory.InlineTheory;
+import logic.theory.Theory;
+import org.junit.Test;
+import vector.Vector;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the countermodel pool, in particular which examples are used as seeds.
+ *
+ * @author Samuel Kolb
+ */
+public class CountermodelPoolTest {
+
+	private static final InfixPredicate INEQUALITY = new InfixPredicate("~=");
+
+	private final Type type = new Type("t");
+
+	private final Predicate p = new Predicate("p", type);
+
+	private final Predicate e = new Predicate("e", type, type);
+
+	private final Predicate q = new Predicate("q", type);
+
+	private final Variable x = new Variable("X", type);
+
+	private final Variable y = new Variable("Y", type);
+
+	private final LogicBase logicBase;
+
+	public CountermodelPoolTest() {
+		Constant a = new Constant("a", type);
+		Constant b = new Constant("b", type);
+		Setup setup = new Setup(new Vector<>(type), new Vector<>(new PredicateDefinition(p),
+				new PredicateDefinition(e)), new Vector<>(a, b));
+		Example example = new Example("example", setup, new Vector<>(p.getInstance(a), e.getInstance(a, b)), true);
+		logicBase = new StubLogicBase(new Vector<>(example));
+	}
+
+	@Test
+	public void testRefutes() {
+		CountermodelPool pool = new CountermodelPool(logicBase, new Vector<>());
+		assertEquals(1, pool.size());
+		Clause clause = Clause.horn(p.getInstance(y), e.getInstance(x, y));
+		assertTrue(pool.refutes(Collections.emptyList(), clause));
+		List<Formula> premises = Collections.singletonList(Clause.horn(p.getInstance(x), e.getInstance(x, y)));
+		assertTrue(pool.refutes(premises, clause));
+		assertFalse(pool.refutes(premises, Clause.horn(p.getInstance(x), e.getInstance(x, y))));
+		List<Formula> violated = Collections.singletonList(
+				Clause.condition(e.getInstance(x, y), INEQUALITY.getInstance(x, y)));
+		assertFalse(pool.refutes(violated, clause));
+		assertEquals(2, pool.getRefutationCount());
+	}
+
+	@Test
+	public void testInlineBackground() {
+		Theory satisfied = new InlineTheory(Clause.horn(p.getInstance(x), e.getInstance(x, y)));
+		assertEquals(1, new CountermodelPool(logicBase, new Vector<>(satisfied)).size());
+		Theory violated = new InlineTheory(Clause.condition(e.getInstance(x, y), INEQUALITY.getInstance(x, y)));
+		assertEquals(0, new CountermodelPool(logicBase, new Vector<>(satisfied, violated)).size());
+		Theory unknown = new InlineTheory(Clause.horn(q.getInstance(x), p.getInstance(x)));
+		assertEquals(0, new CountermodelPool(logicBase, new Vector<>(unknown)).size());
+	}
+
+	@Test
+	public void testFileBackground() {
+		Theory file = new FileTheory(new File("background.idp"));
+		CountermodelPool pool = new CountermodelPool(logicBase, new Vector<>(file));
+		assertEquals(0, pool.size());
+		assertFalse(pool.refutes(Collections.emptyList(), Clause.horn(p.getInstance(y), e.getInstance(x, y))));
+	}
+}
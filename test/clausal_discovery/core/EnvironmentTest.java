@@ -0,0 +1,86 @@
+package clausal_discovery.core;
+
+import clausal_discovery.instance.Instance;
+import logic.bias.Type;
+import logic.bias.TypeRegistry;
+import logic.expression.formula.Predicate;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that environments narrow the types of variables without changing the environments they were derived from.
+ *
+ * @author Samuel Kolb
+ */
+public class EnvironmentTest {
+
+	private static final Type ANIMAL = new Type("animal");
+
+	private static final Type DOG = ANIMAL.getSubtype("dog");
+
+	private static final Type CAT = ANIMAL.getSubtype("cat");
+
+	private static final TypeRegistry REGISTRY = new TypeRegistry(Arrays.asList(DOG, CAT));
+
+	private static final PredicateDefinition ANIMAL_P = new PredicateDefinition(new Predicate("animal", ANIMAL));
+
+	private static final PredicateDefinition DOG_P = new PredicateDefinition(new Predicate("dog", DOG));
+
+	private static final PredicateDefinition CAT_P = new PredicateDefinition(new Predicate("cat", CAT));
+
+	private static final PredicateDefinition OWNS = new PredicateDefinition(new Predicate("owns", DOG, CAT));
+
+	@Test
+	public void testShared() {
+		Environment empty = new Environment(REGISTRY);
+		Environment animal = empty.addInstance(new Instance(ANIMAL_P, 0));
+		assertNotSame(empty, animal);
+		assertSame(animal, animal.addInstance(new Instance(ANIMAL_P, 0)));
+		Environment dog = animal.addInstance(new Instance(DOG_P, 0));
+		assertSame(dog, dog.addInstance(new Instance(ANIMAL_P, 0)));
+		assertSame(dog, dog.addInstance(new Instance(DOG_P, 0)));
+	}
+
+	@Test
+	public void testCopyOnWrite() {
+		Environment animal = new Environment(REGISTRY).addInstance(new Instance(ANIMAL_P, 0));
+		Environment dog = animal.addInstance(new Instance(DOG_P, 0));
+		Environment cat = animal.addInstance(new Instance(CAT_P, 0));
+
+		assertTrue(animal.isValidInstance(new Instance(DOG_P, 0)));
+		assertTrue(animal.isValidInstance(new Instance(CAT_P, 0)));
+		assertTrue(dog.isValidInstance(new Instance(DOG_P, 0)));
+		assertFalse(dog.isValidInstance(new Instance(CAT_P, 0)));
+		assertTrue(cat.isValidInstance(new Instance(CAT_P, 0)));
+		assertFalse(cat.isValidInstance(new Instance(DOG_P, 0)));
+
+		Environment owner = dog.addInstance(new Instance(OWNS, 0, 3));
+		assertTrue(owner.isValidInstance(new Instance(CAT_P, 3)));
+		assertFalse(owner.isValidInstance(new Instance(DOG_P, 3)));
+		assertTrue(owner.isValidInstance(new Instance(DOG_P, 2)));
+		assertTrue(dog.isValidInstance(new Instance(DOG_P, 3)));
+	}
+
+	@Test
+	public void testRepeatedVariables() {
+		Environment empty = new Environment(REGISTRY);
+		assertFalse(empty.isValidInstance(new Instance(OWNS, 1, 1)));
+		assertTrue(empty.isValidInstance(new Instance(OWNS, 1, 2)));
+		assertFalse(empty.addInstance(new Instance(CAT_P, 1)).isValidInstance(new Instance(OWNS, 1, 2)));
+	}
+
+	@Test
+	public void testIncompatible() {
+		Environment dog = new Environment(REGISTRY).addInstance(new Instance(DOG_P, 0));
+		try {
+			dog.addInstance(new Instance(CAT_P, 0));
+			fail();
+		} catch(IllegalStateException e) {
+			// Expected
+		}
+		assertTrue(dog.isValidInstance(new Instance(DOG_P, 0)));
+	}
+}
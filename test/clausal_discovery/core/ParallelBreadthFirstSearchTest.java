@@ -0,0 +1,31 @@
+package clausal_discovery.core;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the parallel breadth first search against a sequential breadth first search on pseudo-random trees.
+ *
+ * @author Samuel Kolb
+ */
+public class ParallelBreadthFirstSearchTest {
+
+	private static final int DEPTH = 5;
+
+	@Test
+	public void testSequentialOrder() {
+		for(int seed = 0; seed < 20; seed++) {
+			StubTree tree = new StubTree(4, seed);
+			List<String> expected = tree.searchSequentially("", DEPTH);
+			for(int parallelism : new int[]{1, 4}) {
+				ParallelBreadthFirstSearch<String> search =
+						new ParallelBreadthFirstSearch<>(tree, tree, DEPTH, StubTree::getKey, parallelism);
+				assertEquals(expected, search.search(Collections.singletonList("")).getSolutions());
+			}
+		}
+	}
+}
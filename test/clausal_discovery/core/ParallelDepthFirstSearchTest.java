@@ -0,0 +1,33 @@
+package clausal_discovery.core;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the parallel depth first search against the breadth first search on pseudo-random trees.
+ *
+ * @author Samuel Kolb
+ */
+public class ParallelDepthFirstSearchTest {
+
+	private static final int DEPTH = 5;
+
+	@Test
+	public void testBreadthFirst() {
+		for(int seed = 0; seed < 20; seed++) {
+			StubTree tree = new StubTree(3, seed);
+			ParallelBreadthFirstSearch<String> breadthFirst =
+					new ParallelBreadthFirstSearch<>(tree, tree, DEPTH, value -> value, 4);
+			List<String> expected = breadthFirst.search(Collections.singletonList("")).getSolutions();
+			ParallelDepthFirstSearch<String> depthFirst = new ParallelDepthFirstSearch<>(tree, tree, DEPTH, 4);
+			List<String> solutions = depthFirst.search(Collections.singletonList("")).getSolutions();
+			assertEquals(expected.size(), solutions.size());
+			assertEquals(new HashSet<>(expected), new HashSet<>(solutions));
+		}
+	}
+}
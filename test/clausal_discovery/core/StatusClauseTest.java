@@ -0,0 +1,102 @@
+package clausal_discovery.core;
+
+import clausal_discovery.instance.InstanceComparator;
+import clausal_discovery.instance.InstanceList;
+import clausal_discovery.instance.PositionedInstance;
+import logic.expression.formula.Predicate;
+import org.junit.Test;
+import util.Numbers;
+import vector.Vector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the representativeness checks of status clauses against a brute force enumeration of their variants.
+ *
+ * @author Samuel Kolb
+ */
+public class StatusClauseTest {
+
+	private static final int VARIABLES = 3;
+
+	private static final int LENGTH = 3;
+
+	@Test
+	public void testRepresentative() {
+		PredicateDefinition unary = new PredicateDefinition(new Predicate("q", 1));
+		PredicateDefinition binary = new PredicateDefinition(new Predicate("b", 2));
+		PredicateDefinition symmetric = new PredicateDefinition(new Predicate("n", 2), true, false);
+		testRepresentative(new InstanceList(new Vector<>(unary, binary, symmetric), VARIABLES));
+	}
+
+	@Test
+	public void testRepresentativeSymmetric() {
+		PredicateDefinition symmetric = new PredicateDefinition(new Predicate("n", 2), true, false);
+		PredicateDefinition symmetricTernary = new PredicateDefinition(new Predicate("s", 3), true, false);
+		testRepresentative(new InstanceList(new Vector<>(symmetric, symmetricTernary), VARIABLES));
+	}
+
+	/**
+	 * Tests both representativeness checks for all valid clauses up to the maximal length
+	 * @param list	The instance list
+	 */
+	private void testRepresentative(InstanceList list) {
+		List<StatusClause> level = new ArrayList<>();
+		level.add(new StatusClause(list));
+		int representatives = 0;
+		for(int length = 1; length <= LENGTH; length++) {
+			List<StatusClause> next = new ArrayList<>();
+			for(StatusClause parent : level) {
+				List<StatusClause> children = new ArrayList<>();
+				for(PositionedInstance instance : parent.getExtensions()) {
+					Optional<StatusClause> clause = parent.addIfValid(instance);
+					if(!clause.isPresent())
+						continue;
+					boolean expected = isRepresentative(list, clause.get());
+					assertEquals(clause.get().toString(), expected, clause.get().isRepresentative());
+					assertEquals(clause.get().toString(), expected, clause.get().isRepresentative(parent, instance));
+					next.add(clause.get());
+					if(expected)
+						children.add(clause.get());
+				}
+				assertEquals(children, parent.getRepresentativeChildren());
+				representatives += children.size();
+			}
+			level = next;
+		}
+		assertTrue(representatives > 0);
+	}
+
+	/**
+	 * Returns whether the given clause is smaller than or equal to every valid clause obtained by renaming its variables
+	 * @param list		The instance list
+	 * @param clause	The clause
+	 * @return	True iff the clause is a representative of its variants
+	 */
+	private static boolean isRepresentative(InstanceList list, StatusClause clause) {
+		List<PositionedInstance> literals = new ArrayList<>();
+		literals.addAll(clause.getLiteralSet().getBody().getInstances(true));
+		literals.addAll(clause.getLiteralSet().getHead().getInstances(false));
+		for(Numbers.Permutation permutation : Numbers.getPermutations(clause.getRank())) {
+			List<PositionedInstance> renamed = new ArrayList<>();
+			for(PositionedInstance literal : literals) {
+				int[] variables = literal.getInstance().getVariables().clone();
+				for(int i = 0; i < variables.length; i++)
+					variables[i] = permutation.getArray()[variables[i]];
+				renamed.add(list.getInstance(list.getIndex(literal.getInstance().getDefinition(), variables),
+						literal.isInBody()));
+			}
+			renamed.sort(new InstanceComparator());
+			Optional<StatusClause> variant = Optional.of(new StatusClause(list));
+			for(int i = 0; i < renamed.size() && variant.isPresent(); i++)
+				variant = variant.get().addIfValid(renamed.get(i));
+			if(variant.isPresent() && variant.get().getLiteralSet().compareTo(clause.getLiteralSet()) < 0)
+				return false;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,107 @@
+package clausal_discovery.core;
+
+import cern.colt.bitvector.BitVector;
+import clausal_discovery.instance.InstanceList;
+import clausal_discovery.validity.ValidatedClause;
+import logic.example.Example;
+import logic.expression.formula.Formula;
+import logic.expression.formula.Predicate;
+import logic.theory.Vocabulary;
+import pair.TypePair;
+import vector.Vector;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A logic base that only provides examples (possibly empty ones) and optionally a vocabulary, used to create clauses with
+ * given validity values.
+ *
+ * @author Samuel Kolb
+ */
+class StubLogicBase implements LogicBase {
+
+	private final Vector<Example> examples;
+
+	private final Vocabulary vocabulary;
+
+	private final InstanceList instanceList =
+			new InstanceList(new Vector<>(new PredicateDefinition(new Predicate("p", 1))), 1);
+
+	/**
+	 * Creates a new stub logic base
+	 * @param exampleCount	The number of examples
+	 */
+	StubLogicBase(int exampleCount) {
+		this(new Vector<>(new Example[exampleCount]));
+	}
+
+	/**
+	 * Creates a new stub logic base
+	 * @param examples	The examples
+	 */
+	StubLogicBase(Vector<Example> examples) {
+		this(examples, null);
+	}
+
+	/**
+	 * Creates a new stub logic base
+	 * @param exampleCount	The number of examples
+	 * @param vocabulary	The vocabulary
+	 */
+	StubLogicBase(int exampleCount, Vocabulary vocabulary) {
+		this(new Vector<>(new Example[exampleCount]), vocabulary);
+	}
+
+	private StubLogicBase(Vector<Example> examples, Vocabulary vocabulary) {
+		this.examples = examples;
+		this.vocabulary = vocabulary;
+	}
+
+	/**
+	 * Creates a (new, empty) clause that is valid on the given examples
+	 * @param examples	The indices of the examples
+	 * @return	A validated clause
+	 */
+	ValidatedClause clause(int... examples) {
+		BitVector validity = new BitVector(getExamples().size());
+		for(int example : examples)
+			validity.set(example);
+		return new ValidatedClause(this, new StatusClause(instanceList), validity);
+	}
+
+	@Override
+	public Vocabulary getVocabulary() {
+		return vocabulary;
+	}
+
+	@Override
+	public Vector<Example> getExamples() {
+		return examples;
+	}
+
+	@Override
+	public Vector<PredicateDefinition> getSearchPredicates() {
+		return new Vector<>();
+	}
+
+	@Override
+	public List<Formula> getSymmetryFormulas() {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public List<LogicBase> split() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public LogicBase filterExamples(java.util.function.Predicate<Example> predicate) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public TypePair<LogicBase> split(double fraction) {
+		throw new UnsupportedOperationException();
+	}
+}
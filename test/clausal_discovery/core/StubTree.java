@@ -0,0 +1,106 @@
+package clausal_discovery.core;
+
+import version3.algorithm.ExpansionOperator;
+import version3.algorithm.Node;
+import version3.algorithm.Result;
+import version3.algorithm.ResultPolicy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A pseudo-random search tree over strings, the children of a node append a letter to its value. Different paths can
+ * lead to values with the same letters, which have the same key.
+ * The result policy accepts and prunes nodes based on their value only, independent of the order of the search.
+ *
+ * @author Samuel Kolb
+ */
+class StubTree implements ExpansionOperator<String>, ResultPolicy<String> {
+
+	private final int branching;
+
+	private final int seed;
+
+	/**
+	 * Creates a new stub tree
+	 * @param branching	The maximal number of children of a node (every node has at least one child)
+	 * @param seed		The seed that determines the shape of the tree and the solutions
+	 */
+	StubTree(int branching, int seed) {
+		this.branching = branching;
+		this.seed = seed;
+	}
+
+	@Override
+	public List<String> expandNode(Node<String> node) {
+		List<String> children = new ArrayList<>();
+		int count = 1 + hash(node.getValue(), 0) % branching;
+		int offset = hash(node.getValue(), 1);
+		for(int i = 0; i < count; i++)
+			children.add(node.getValue() + (char) ('a' + (offset + i) % branching));
+		return children;
+	}
+
+	@Override
+	public boolean processSolution(Result<String> result, Node<String> node) {
+		if(isSolution(node.getValue()))
+			result.addNode(node);
+		return hash(node.getValue(), -1) % 5 != 0;
+	}
+
+	/**
+	 * Returns whether the given value is a solution
+	 * @param value	The value
+	 * @return	True iff the result policy adds nodes with the given value to the result
+	 */
+	boolean isSolution(String value) {
+		return hash(value, -2) % 3 == 0;
+	}
+
+	/**
+	 * Returns the key of the given value, values with the same letters have the same key
+	 * @param value	The value
+	 * @return	The sorted letters of the value
+	 */
+	static String getKey(String value) {
+		char[] letters = value.toCharArray();
+		Arrays.sort(letters);
+		return new String(letters);
+	}
+
+	/**
+	 * Returns the values of the solutions that a sequential breadth first search finds, in order
+	 * @param root			The value of the root
+	 * @param maximalDepth	The maximal depth
+	 * @return	The values of the solutions
+	 */
+	List<String> searchSequentially(String root, int maximalDepth) {
+		List<String> solutions = new ArrayList<>();
+		List<String> level = new ArrayList<>(Arrays.asList(root));
+		for(int depth = 0; !level.isEmpty(); depth++) {
+			List<String> next = new ArrayList<>();
+			Set<String> keys = new HashSet<>();
+			for(String value : level) {
+				if(isSolution(value))
+					solutions.add(value);
+				if(hash(value, -1) % 5 == 0 || depth >= maximalDepth)
+					continue;
+				for(String child : expandNode(new SearchNode<>(value, depth)))
+					if(keys.add(getKey(child)))
+						next.add(child);
+			}
+			level = next;
+		}
+		return solutions;
+	}
+
+	private int hash(String value, int salt) {
+		int hash = value.hashCode() * 31 + salt;
+		hash = hash * 0x9E3779B9 + seed;
+		hash ^= hash >>> 16;
+		return hash & Integer.MAX_VALUE;
+	}
+}
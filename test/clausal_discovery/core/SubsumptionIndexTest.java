@@ -0,0 +1,97 @@
+package clausal_discovery.core;
+
+import cern.colt.bitvector.BitVector;
+import clausal_discovery.instance.InstanceList;
+import clausal_discovery.instance.PositionedInstance;
+import clausal_discovery.validity.ValidatedClause;
+import logic.expression.formula.Predicate;
+import org.junit.Test;
+import vector.Vector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the subsumption index against a linear scan over all indexed clauses.
+ *
+ * @author Samuel Kolb
+ */
+public class SubsumptionIndexTest {
+
+	@Test
+	public void testCandidates() {
+		PredicateDefinition unary = new PredicateDefinition(new Predicate("q", 1));
+		PredicateDefinition binary = new PredicateDefinition(new Predicate("b", 2));
+		PredicateDefinition symmetric = new PredicateDefinition(new Predicate("n", 2), true, false);
+		InstanceList list = new InstanceList(new Vector<>(unary, binary, symmetric), 3);
+		LogicBase logicBase = new StubLogicBase(1);
+		List<List<StatusClause>> levels = getClauses(list, 3);
+
+		SubsumptionIndex index = new SubsumptionIndex();
+		List<ValidatedClause> indexed = new ArrayList<>();
+		for(StatusClause clause : levels.get(1))
+			indexed.add(new ValidatedClause(logicBase, clause, new BitVector(1)));
+		for(StatusClause clause : levels.get(2))
+			indexed.add(new ValidatedClause(logicBase, clause, new BitVector(1)));
+		indexed.forEach(index::add);
+		assertEquals(indexed.size(), index.size());
+
+		int subsets = 0;
+		for(List<StatusClause> level : levels)
+			for(StatusClause clause : level) {
+				List<ValidatedClause> candidates = index.getCandidates(clause);
+				for(ValidatedClause validatedClause : indexed) {
+					boolean contained = isContained(getFeatures(validatedClause.getClause()), getFeatures(clause));
+					assertEquals(validatedClause.getClause() + " " + clause, contained,
+							candidates.contains(validatedClause));
+					if(validatedClause.getClause().isSubsetOf(clause)) {
+						assertTrue(candidates.contains(validatedClause));
+						subsets++;
+					}
+				}
+			}
+		assertTrue(subsets > 0);
+	}
+
+	/**
+	 * Returns all valid clauses up to the given length, by length
+	 * @param list		The instance list
+	 * @param length	The maximal length
+	 * @return	A list containing the clauses of every length (starting from length 0)
+	 */
+	private static List<List<StatusClause>> getClauses(InstanceList list, int length) {
+		List<List<StatusClause>> levels = new ArrayList<>();
+		levels.add(Collections.singletonList(new StatusClause(list)));
+		for(int i = 1; i <= length; i++) {
+			List<StatusClause> level = new ArrayList<>();
+			for(StatusClause parent : levels.get(i - 1))
+				for(PositionedInstance instance : parent.getExtensions()) {
+					Optional<StatusClause> clause = parent.addIfValid(instance);
+					clause.ifPresent(level::add);
+				}
+			levels.add(level);
+		}
+		return levels;
+	}
+
+	private static List<String> getFeatures(StatusClause clause) {
+		List<String> features = new ArrayList<>();
+		for(PositionedInstance instance : clause.getLiteralSet().getBody().getInstances(true))
+			features.add("~" + instance.getInstance().getPredicate().getName());
+		for(PositionedInstance instance : clause.getLiteralSet().getHead().getInstances(false))
+			features.add(instance.getInstance().getPredicate().getName());
+		return features;
+	}
+
+	private static boolean isContained(List<String> features, List<String> superFeatures) {
+		List<String> remaining = new ArrayList<>(superFeatures);
+		for(String feature : features)
+			if(!remaining.remove(feature))
+				return false;
+		return true;
+	}
+}
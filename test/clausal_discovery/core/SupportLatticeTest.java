@@ -0,0 +1,94 @@
+package clausal_discovery.core;
+
+import clausal_discovery.validity.ValidatedClause;
+import org.junit.Test;
+import version3.algorithm.ResultPolicy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the support lattice against separate searches for every support level on pseudo-random trees of clauses.
+ * As in the variable refinement, a clause is rejected if an accepted ancestor has the same validity and accepted
+ * clauses that hold on all examples are not refined.
+ *
+ * @author Samuel Kolb
+ */
+public class SupportLatticeTest {
+
+	private static final int EXAMPLES = 8;
+
+	private static final int DEPTH = 3;
+
+	private static final double[] SUPPORTS = {0.9, 0.75, 0.5, 0.3};
+
+	@Test
+	public void testLevels() {
+		for(int seed = 0; seed < 20; seed++) {
+			Map<ValidatedClause, List<ValidatedClause>> children = new IdentityHashMap<>();
+			Map<ValidatedClause, ValidatedClause> parents = new IdentityHashMap<>();
+			StubLogicBase logicBase = new StubLogicBase(EXAMPLES);
+			ValidatedClause root = logicBase.clause();
+			generate(logicBase, root, 0, new Random(seed), children, parents);
+
+			SupportLattice lattice = new SupportLattice(EXAMPLES, SUPPORTS,
+					search(root, children, parents, 0.3));
+			assertEquals(5, lattice.getSupports().size());
+			for(double support : lattice.getSupports())
+				assertEquals(search(root, children, parents, support), lattice.getConstraints(support));
+		}
+	}
+
+	@Test
+	public void testGetLevels() {
+		assertArrayEquals(new double[]{1, 0.8, 0.5}, SupportLattice.getLevels(new double[]{0.5, 0.8, 0.5}), 0);
+		assertArrayEquals(new double[]{1, 0.5}, SupportLattice.getLevels(new double[]{1, 0.5}), 0);
+	}
+
+	private static void generate(StubLogicBase logicBase, ValidatedClause clause, int depth, Random random,
+								 Map<ValidatedClause, List<ValidatedClause>> children,
+								 Map<ValidatedClause, ValidatedClause> parents) {
+		if(depth == DEPTH)
+			return;
+		List<ValidatedClause> list = new ArrayList<>();
+		int count = 1 + random.nextInt(3);
+		for(int i = 0; i < count; i++) {
+			List<Integer> examples = new ArrayList<>();
+			for(int example = 0; example < EXAMPLES; example++)
+				if(clause.getValidity().get(example) || random.nextInt(3) == 0)
+					examples.add(example);
+			ValidatedClause child = logicBase.clause(examples.stream().mapToInt(Integer::intValue).toArray());
+			parents.put(child, clause);
+			list.add(child);
+			generate(logicBase, child, depth + 1, random, children, parents);
+		}
+		children.put(clause, list);
+	}
+
+	private static List<ValidatedClause> search(ValidatedClause root,
+												Map<ValidatedClause, List<ValidatedClause>> children,
+												Map<ValidatedClause, ValidatedClause> parents, double support) {
+		int count = (int) Math.ceil(EXAMPLES * support);
+		ResultPolicy<ValidatedClause> policy = (result, node) -> {
+			ValidatedClause clause = node.getValue();
+			for(ValidatedClause ancestor = parents.get(clause); ancestor != null; ancestor = parents.get(ancestor))
+				if(result.getSolutions().contains(ancestor) && ancestor.getValidity().equals(clause.getValidity()))
+					return true;
+			if(clause.getSupportCount() < count)
+				return true;
+			result.addNode(node);
+			return !clause.coversAll();
+		};
+		ParallelBreadthFirstSearch<ValidatedClause> search = new ParallelBreadthFirstSearch<>(
+				node -> children.getOrDefault(node.getValue(), Collections.emptyList()), policy, DEPTH,
+				Function.identity(), 1);
+		return search.search(Collections.singletonList(root)).getSolutions();
+	}
+}
@@ -0,0 +1,68 @@
+package clausal_discovery.core;
+
+import clausal_discovery.validity.ValidatedClause;
+import org.junit.Test;
+import version3.algorithm.Result;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the top support plugin on a small tree of clauses with given validity values.
+ *
+ * @author Samuel Kolb
+ */
+public class TopSupportPluginTest {
+
+	@Test
+	public void testRedundantSolutionReplaced() {
+		StubLogicBase logicBase = new StubLogicBase(5);
+		ValidatedClause root = logicBase.clause();
+		ValidatedClause a = logicBase.clause(0, 1);
+		ValidatedClause b = logicBase.clause(0);
+		ValidatedClause ab = logicBase.clause(0, 1, 2, 3);
+		ValidatedClause ae = logicBase.clause(0, 1, 2, 4);
+		ValidatedClause c = logicBase.clause(0, 1, 3, 4);
+		ValidatedClause d = logicBase.clause(0, 1, 3, 4);
+		Map<ValidatedClause, List<ValidatedClause>> children = new IdentityHashMap<>();
+		children.put(root, Arrays.asList(a, b));
+		children.put(a, Arrays.asList(ab, ae));
+		children.put(ab, Collections.singletonList(d));
+		children.put(b, Collections.singletonList(c));
+		Set<ValidatedClause> solutions = new HashSet<>(Arrays.asList(ab, ae, c, d));
+
+		// The superset d is reached before its subset c, which makes d redundant
+		TopSupportPlugin top = new TopSupportPlugin(3, 3);
+		top.setRedundancy((solution, other) -> solution == c && other == d);
+		BestFirstSearch<ValidatedClause> search = new BestFirstSearch<>(
+				node -> children.getOrDefault(node.getValue(), Collections.emptyList()),
+				(result, node) -> {
+					if(solutions.contains(node.getValue()) && top.accepts(node.getValue()))
+						result.addNode(node);
+					return true;
+				},
+				3, Function.identity(), ValidatedClause::getSupportCount, 1);
+		search.addPlugin(top);
+		Result<ValidatedClause> result = search.search(Collections.singletonList(root));
+		assertEquals(Arrays.asList(ab, ae, d, c), result.getSolutions());
+		assertEquals(Arrays.asList(ab, ae, c), top.getSolutions());
+		assertEquals(4, top.getThreshold());
+	}
+
+	@Test
+	public void testThreshold() {
+		StubLogicBase logicBase = new StubLogicBase(3);
+		TopSupportPlugin top = new TopSupportPlugin(2, 1);
+		assertEquals(1, top.getThreshold());
+		assertFalse(top.accepts(logicBase.clause()));
+		assertTrue(top.accepts(logicBase.clause(0)));
+	}
+}
@@ -0,0 +1,214 @@
+package clausal_discovery.core;
+
+import cern.colt.bitvector.BitMatrix;
+import cern.colt.bitvector.BitVector;
+import clausal_discovery.instance.InstanceList;
+import clausal_discovery.validity.ValidatedClause;
+import logic.bias.Type;
+import logic.expression.formula.Predicate;
+import logic.prover.SkolemProver;
+import logic.theory.FileTheory;
+import logic.theory.InlineTheory;
+import logic.theory.KnowledgeBase;
+import logic.theory.LogicExecutor;
+import logic.theory.Theory;
+import logic.theory.Vocabulary;
+import org.junit.Test;
+import vector.Vector;
+import version3.algorithm.Result;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the asynchronous verification of accepted candidates against sequential entailment tests and the subset
+ * filtering of candidates that are not found in breadth first order.
+ * A file background forces all entailment tests onto the executor, which (optionally) answers after random delays.
+ *
+ * @author Samuel Kolb
+ */
+public class VariableRefinementTest {
+
+	private static class DelayedExecutor implements LogicExecutor {
+
+		private final SkolemProver prover = new SkolemProver(null);
+
+		private final int maximalDelay;
+
+		private final AtomicInteger callCount = new AtomicInteger();
+
+		private final AtomicInteger batchSize = new AtomicInteger();
+
+		private DelayedExecutor(int maximalDelay) {
+			this.maximalDelay = maximalDelay;
+		}
+
+		@Override
+		public BitMatrix testValidityTheories(KnowledgeBase knowledgeBase) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean entails(KnowledgeBase program, InlineTheory theory) {
+			callCount.incrementAndGet();
+			if(maximalDelay > 0)
+				try {
+					Thread.sleep(ThreadLocalRandom.current().nextInt(maximalDelay));
+				} catch(InterruptedException e) {
+					throw new IllegalStateException(e);
+				}
+			Vector<Theory> background = program.getBackgroundTheories().filter(t -> t instanceof InlineTheory);
+			return prover.entails(new KnowledgeBase(program.getVocabulary(), program.getTheories(), background,
+					program.getStructures()), theory);
+		}
+
+		@Override
+		public boolean[] entailsSequentially(KnowledgeBase program, List<InlineTheory> theories) {
+			batchSize.accumulateAndGet(theories.size(), Math::max);
+			return LogicExecutor.super.entailsSequentially(program, theories);
+		}
+	}
+
+	private static final int EXAMPLES = 4;
+
+	private final Type type = new Type("t");
+
+	private final PredicateDefinition p = new PredicateDefinition(new Predicate("p", type));
+
+	private final PredicateDefinition q = new PredicateDefinition(new Predicate("q", type));
+
+	private final PredicateDefinition e = new PredicateDefinition(new Predicate("e", type, type));
+
+	private final Vocabulary vocabulary = new Vocabulary(new Vector<>(type), new Vector<>(p, q, e));
+
+	@Test
+	public void testVerificationOrder() throws IOException {
+		File file = File.createTempFile("background", ".idp");
+		file.deleteOnExit();
+		Vector<Theory> background = new Vector<>(new FileTheory(file));
+		StubLogicBase logicBase = new StubLogicBase(EXAMPLES, vocabulary);
+		InstanceList list = new InstanceList(new Vector<>(p, q, e), 2);
+		boolean entailed = false;
+		for(int seed = 0; seed < 5; seed++) {
+			List<ValidatedClause> candidates = getCandidates(logicBase, list, new Random(seed));
+
+			DelayedExecutor delayed = new DelayedExecutor(10);
+			VariableRefinement refinement = new VariableRefinement(logicBase, list, background, c -> true,
+					EntailmentStrategy.BATCHED, delayed);
+			refinement.setPruningTimeLimit(0);
+			Result<ValidatedClause> result = new SearchResult<>();
+			for(ValidatedClause candidate : candidates)
+				refinement.processSolution(result, new SearchNode<>(candidate, candidate.getClause().size()));
+			refinement.searchComplete(result);
+
+			VariableRefinement reference = new VariableRefinement(logicBase, list, background, c -> true,
+					EntailmentStrategy.BATCHED, new DelayedExecutor(0));
+			List<ValidatedClause> accepted = new ArrayList<>();
+			List<ValidatedClause> expected = new ArrayList<>();
+			for(ValidatedClause candidate : candidates) {
+				if(accepted.stream().anyMatch(c -> c.getValidity().equals(candidate.getValidity())
+						&& c.getClause().isSubsetOf(candidate.getClause())))
+					continue;
+				accepted.add(candidate);
+				if(!reference.entails(expected, candidate))
+					expected.add(candidate);
+			}
+			reference.searchComplete(new SearchResult<>());
+
+			assertEquals(expected, result.getSolutions());
+			assertTrue(delayed.callCount.get() > 0);
+			assertTrue(delayed.batchSize.get() > 1);
+			entailed |= expected.size() < accepted.size();
+		}
+		assertTrue(entailed);
+	}
+
+	@Test
+	public void testSupersetsFirst() throws IOException {
+		File file = File.createTempFile("background", ".idp");
+		file.deleteOnExit();
+		Vector<Theory> background = new Vector<>(new FileTheory(file));
+		StubLogicBase logicBase = new StubLogicBase(EXAMPLES, vocabulary);
+		InstanceList list = new InstanceList(new Vector<>(p, q, e), 2);
+		for(int seed = 0; seed < 5; seed++) {
+			List<ValidatedClause> candidates = getCandidates(logicBase, list, new Random(seed));
+			List<ValidatedClause> breadthFirst = search(logicBase, list, background, candidates);
+			List<ValidatedClause> reversed = new ArrayList<>(candidates);
+			Collections.reverse(reversed);
+			List<ValidatedClause> depthFirst = search(logicBase, list, background, reversed);
+
+			VariableRefinement reference = new VariableRefinement(logicBase, list, background, c -> true,
+					EntailmentStrategy.BATCHED, new DelayedExecutor(0));
+			for(ValidatedClause solution : depthFirst)
+				for(ValidatedClause clause : depthFirst)
+					assertFalse(clause + " subsumes " + solution, clause != solution
+							&& reference.subsumes(clause, solution));
+			for(ValidatedClause solution : breadthFirst)
+				assertTrue(solution.toString(),
+						depthFirst.contains(solution) || reference.entails(depthFirst, solution));
+			reference.searchComplete(new SearchResult<>());
+		}
+	}
+
+	/**
+	 * Selects and processes the given candidates in order and returns the result, the result is not pruned by
+	 * entailment tests
+	 * @param logicBase		The logic base
+	 * @param list			The instance list
+	 * @param background	The background theories
+	 * @param candidates	The candidates in order of discovery
+	 * @return	The solutions
+	 */
+	private static List<ValidatedClause> search(StubLogicBase logicBase, InstanceList list,
+												Vector<Theory> background, List<ValidatedClause> candidates) {
+		VariableRefinement refinement = new VariableRefinement(logicBase, list, background, c -> true,
+				EntailmentStrategy.BATCHED, new DelayedExecutor(0));
+		refinement.setPruningTimeLimit(0);
+		Result<ValidatedClause> result = new SearchResult<>();
+		for(ValidatedClause candidate : candidates) {
+			SearchNode<ValidatedClause> node = new SearchNode<>(candidate, candidate.getClause().size());
+			if(refinement.nodeSelected(node))
+				refinement.processSolution(result, node);
+		}
+		refinement.searchComplete(result);
+		return result.getSolutions();
+	}
+
+	/**
+	 * Returns the representative clauses of up to two literals in breadth first order, with random validities
+	 * @param logicBase	The logic base
+	 * @param list		The instance list
+	 * @param random	The random generator used for validities
+	 * @return	A list of validated clauses
+	 */
+	private static List<ValidatedClause> getCandidates(StubLogicBase logicBase, InstanceList list, Random random) {
+		BitVector[] validities = new BitVector[EXAMPLES];
+		for(int i = 0; i < validities.length; i++) {
+			validities[i] = new BitVector(EXAMPLES);
+			for(int j = 0; j <= i; j++)
+				validities[i].set(j);
+		}
+		List<ValidatedClause> candidates = new ArrayList<>();
+		List<StatusClause> level = new ArrayList<>();
+		level.add(new StatusClause(list));
+		for(int length = 1; length <= 2; length++) {
+			List<StatusClause> next = new ArrayList<>();
+			for(StatusClause clause : level)
+				next.addAll(clause.getRepresentativeChildren());
+			for(StatusClause clause : next) {
+				BitVector validity = validities[random.nextInt(4) == 0 ? random.nextInt(EXAMPLES) : 2];
+				candidates.add(new ValidatedClause(logicBase, clause, validity.copy()));
+			}
+			level = next;
+		}
+		return candidates;
+	}
+}
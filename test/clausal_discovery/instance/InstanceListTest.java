@@ -152,6 +152,23 @@ public class InstanceListTest {
 		}
 	}
 
+	@Test
+	public void testIndex() {
+		InstanceList list = new InstanceList(new Vector<>(unary1, binary1, tertiary, symmetric), 3);
+		for(int i = 0; i < list.size(); i++) {
+			Instance instance = list.get(i);
+			assertEquals(i, list.getIndex(instance));
+			assertEquals(i, list.getIndex(instance.getDefinition(), instance.getVariables()));
+		}
+		int index = list.getIndex(symmetric, new int[]{0, 1, 2});
+		assertTrue(index >= 0);
+		assertEquals(index, list.getIndex(symmetric, new int[]{2, 0, 1}));
+		assertEquals(index, list.getIndex(symmetric, new int[]{1, 2, 0}));
+		assertEquals(list.getIndex(symmetric, new int[]{0, 1, 1}), list.getIndex(symmetric, new int[]{1, 0, 1}));
+		assertEquals(-1, list.getIndex(binary1, new int[]{0, 3}));
+		assertEquals(-1, list.getIndex(binary2, new int[]{0, 1}));
+	}
+
 	private List<Instance> create(PredicateDefinition definition, int... variables) {
 		if(variables.length % definition.getArity() != 0) {
 			throw new IllegalArgumentException("Amount of variables incorrect (" + variables.length + ")");
@@ -0,0 +1,54 @@
+package clausal_discovery.instance;
+
+import clausal_discovery.core.PredicateDefinition;
+import logic.expression.formula.Predicate;
+import org.junit.Test;
+import vector.Vector;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that instances own their variable arrays and compare by value.
+ *
+ * @author Samuel Kolb
+ */
+public class InstanceTest {
+
+	private static final PredicateDefinition BINARY = new PredicateDefinition(new Predicate("b", 2));
+
+	private static final PredicateDefinition SYMMETRIC = new PredicateDefinition(new Predicate("s", 3), true, false);
+
+	@Test
+	public void testCopy() {
+		int[] variables = {2, 0};
+		Instance instance = new Instance(BINARY, variables);
+		variables[0] = 1;
+		assertArrayEquals(new int[]{2, 0}, instance.getVariables());
+		assertEquals(Vector.create(new int[]{2, 0}), instance.getVariableIndices());
+		assertEquals(2, instance.getMax());
+	}
+
+	@Test
+	public void testValueEquality() {
+		Instance instance = new Instance(BINARY, 2, 0);
+		Instance copy = new Instance(BINARY, Vector.create(new int[]{2, 0}));
+		assertEquals(instance, copy);
+		assertEquals(instance.hashCode(), copy.hashCode());
+		assertNotEquals(instance, new Instance(BINARY, 0, 2));
+		assertNotEquals(instance, new Instance(new PredicateDefinition(new Predicate("c", 2)), 2, 0));
+		assertEquals(instance, new Instance(new PredicateDefinition(new Predicate("b", 2)), 2, 0));
+	}
+
+	@Test
+	public void testSymmetric() {
+		Instance instance = new Instance(SYMMETRIC, 2, 0, 1);
+		assertArrayEquals(new int[]{0, 1, 2}, instance.getVariables());
+		assertEquals(Vector.create(new int[]{0, 1, 2}), instance.getVariableIndices());
+		for(int[] variables : new int[][]{{0, 1, 2}, {1, 0, 2}, {2, 1, 0}, {1, 2, 0}}) {
+			Instance permuted = new Instance(SYMMETRIC, variables);
+			assertEquals(instance, permuted);
+			assertEquals(instance.hashCode(), permuted.hashCode());
+		}
+		assertNotEquals(instance, new Instance(SYMMETRIC, 0, 0, 1));
+	}
+}
@@ -0,0 +1,177 @@
+package idp;
+
+import clausal_discovery.core.PredicateDefinition;
+import logic.bias.Type;
+import logic.expression.formula.Clause;
+import logic.expression.formula.Formula;
+import logic.expression.formula.Predicate;
+import logic.expression.term.Variable;
+import logic.theory.InlineTheory;
+import logic.theory.Theory;
+import logic.theory.Vocabulary;
+import org.junit.Test;
+import vector.Vector;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the commands sent by IDP sessions and the parsing of their output, on a process with prepared output.
+ *
+ * @author Samuel Kolb
+ */
+public class IdpSessionTest {
+
+	private static class StubProcess extends Process {
+
+		private final ByteArrayOutputStream input = new ByteArrayOutputStream();
+
+		private final InputStream output;
+
+		private boolean destroyed = false;
+
+		private StubProcess(String output) {
+			this.output = new ByteArrayInputStream(output.getBytes(StandardCharsets.UTF_8));
+		}
+
+		private String getCommands() {
+			return new String(input.toByteArray(), StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public OutputStream getOutputStream() {
+			return input;
+		}
+
+		@Override
+		public InputStream getInputStream() {
+			return output;
+		}
+
+		@Override
+		public InputStream getErrorStream() {
+			return new ByteArrayInputStream(new byte[0]);
+		}
+
+		@Override
+		public int waitFor() {
+			return 0;
+		}
+
+		@Override
+		public int exitValue() {
+			return 0;
+		}
+
+		@Override
+		public void destroy() {
+			destroyed = true;
+		}
+	}
+
+	private static class CountingStatistics implements IdpSession.Statistics {
+
+		private int callCount = 0;
+
+		private int entailmentCount = 0;
+
+		@Override
+		public void countCall() {
+			callCount++;
+		}
+
+		@Override
+		public void countEntailment(long start, boolean entailed) {
+			entailmentCount++;
+		}
+	}
+
+	private final Type type = new Type("t");
+
+	private final Predicate p = new Predicate("p", type);
+
+	private final Predicate q = new Predicate("q", type);
+
+	private final Variable x = new Variable("X", type);
+
+	private final Formula premise1 = Clause.horn(q.getInstance(x), p.getInstance(x));
+
+	private final Formula premise2 = Clause.horn(p.getInstance(x), q.getInstance(x));
+
+	private final InlineTheory candidate = new InlineTheory(Clause.horn(q.getInstance(x), p.getInstance(x)));
+
+	@Test
+	public void testCommands() {
+		StubProcess process = new StubProcess("%RESULT%YES\n%END%\n> %RESULT%NO\n> %END%\n");
+		CountingStatistics statistics = new CountingStatistics();
+		IdpSession session = createSession(process, statistics);
+		session.addPremise(premise1);
+		assertTrue(session.entails(candidate));
+		String commands = process.getCommands();
+		assertTrue(commands.startsWith("vocabulary V {\n\ttype t\n"));
+		assertTrue(commands.contains("theory T0:V {\n"));
+		assertTrue(commands.contains("base = T0\nt = base\n"));
+		assertTrue(commands.contains("theory P0:V {\n"));
+		assertTrue(commands.contains("t = merge(t, P0)\n"));
+		assertTrue(commands.contains("theory C1:V {\n"));
+		assertTrue(commands.endsWith("if entails(t, C1) then print(\"%RESULT%\" .. \"YES\") "
+				+ "else print(\"%RESULT%\" .. \"NO\") end\nC1 = nil\nprint(\"%END%\" .. \"\")\n"));
+
+		session.addPremise(premise2);
+		session.removePremise(premise1);
+		assertEquals(1, session.getPremises().size());
+		assertFalse(session.entails(candidate));
+		String update = process.getCommands().substring(commands.length());
+		assertTrue(update.contains("theory P2:V {\n"));
+		assertTrue(update.contains("t = merge(t, P2)\n"));
+		assertTrue(update.contains("t = base\nt = merge(t, P2)\nP0 = nil\n"));
+		assertTrue(update.contains("C3 = nil\n"));
+		assertEquals(2, statistics.callCount);
+		assertEquals(2, statistics.entailmentCount);
+
+		session.close();
+		assertTrue(process.destroyed);
+	}
+
+	@Test
+	public void testEchoedOutput() {
+		String echo = "> if entails(t, C0) then print(\"%RESULT%\" .. \"YES\") else print(\"%RESULT%\" .. \"NO\") end\n"
+				+ "> C0 = nil\n> print(\"%END%\" .. \"\")\n";
+		StubProcess process = new StubProcess(echo + "Warning: NO\n> %RESULT%NO\n%END%\n");
+		IdpSession session = createSession(process, new CountingStatistics());
+		assertFalse(session.entails(candidate));
+	}
+
+	@Test
+	public void testIncorrectOutput() {
+		IdpSession session = createSession(new StubProcess("Error: unknown theory\n%END%\n"), new CountingStatistics());
+		try {
+			session.entails(candidate);
+			fail();
+		} catch(IllegalStateException e) {
+			assertTrue(e.getMessage().contains("unknown theory"));
+		}
+	}
+
+	@Test
+	public void testTerminated() {
+		IdpSession session = createSession(new StubProcess("%RESULT%YES\n"), new CountingStatistics());
+		try {
+			session.entails(candidate);
+			fail();
+		} catch(IllegalStateException e) {
+			assertTrue(e.getMessage().startsWith("IDP session terminated"));
+		}
+	}
+
+	private IdpSession createSession(StubProcess process, CountingStatistics statistics) {
+		Vocabulary vocabulary = new Vocabulary(new Vector<>(type),
+				new Vector<>(new PredicateDefinition(p), new PredicateDefinition(q)));
+		return new IdpSession(new IdpProgramPrinter.Cached(), statistics, process, vocabulary, new Vector<Theory>());
+	}
+}
@@ -0,0 +1,58 @@
+package logic.bias;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that the type registry assigns dense identifiers and agrees with the type hierarchy.
+ *
+ * @author Samuel Kolb
+ */
+public class TypeRegistryTest {
+
+	private static final Type ANIMAL = new Type("animal");
+
+	private static final Type DOG = ANIMAL.getSubtype("dog");
+
+	private static final Type PUPPY = DOG.getSubtype("puppy");
+
+	private static final Type CAT = ANIMAL.getSubtype("cat");
+
+	private static final Type PLANT = new Type("plant");
+
+	@Test
+	public void testIds() {
+		TypeRegistry registry = new TypeRegistry(Arrays.asList(PUPPY, CAT));
+		assertEquals(4, registry.size());
+		for(int i = 0; i < registry.size(); i++)
+			assertEquals(i, registry.getId(registry.getType(i)));
+		assertTrue(registry.getId(ANIMAL) < registry.getId(DOG));
+		assertTrue(registry.getId(DOG) < registry.getId(PUPPY));
+		assertFalse(registry.contains(PLANT));
+		try {
+			registry.getId(PLANT);
+			fail();
+		} catch(IllegalArgumentException e) {
+			// Expected
+		}
+	}
+
+	@Test
+	public void testHierarchy() {
+		Type[] types = {PUPPY, CAT, PLANT, Type.GENERIC};
+		TypeRegistry registry = new TypeRegistry(Arrays.asList(types));
+		for(int i = 0; i < registry.size(); i++)
+			for(int j = 0; j < registry.size(); j++) {
+				Type type1 = registry.getType(i);
+				Type type2 = registry.getType(j);
+				String message = type1 + " " + type2;
+				assertEquals(message, type1.isSuperTypeOf(type2), registry.isSuperTypeOf(i, j));
+				assertEquals(message, type1.isCompatibleWith(type2), registry.isCompatible(i, j));
+			}
+		assertTrue(registry.isSuperTypeOf(registry.getId(Type.GENERIC), registry.getId(PLANT)));
+		assertFalse(registry.isCompatible(registry.getId(DOG), registry.getId(CAT)));
+	}
+}
@@ -0,0 +1,100 @@
+package logic.prover;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SatSolverTest {
+
+	@Test
+	public void testSatisfiable() {
+		SatSolver solver = createSolver(3);
+		solver.addClause(1, 2);
+		solver.addClause(-1, 3);
+		solver.addClause(-2, -3);
+		solver.addClause(-3);
+		assertTrue(solver.solve());
+		assertFalse(solver.getValue(1));
+		assertTrue(solver.getValue(2));
+		assertFalse(solver.getValue(3));
+	}
+
+	@Test
+	public void testUnsatisfiable() {
+		SatSolver solver = createSolver(2);
+		solver.addClause(1, 2);
+		solver.addClause(-1, 2);
+		solver.addClause(1, -2);
+		solver.addClause(-1, -2);
+		assertFalse(solver.solve());
+	}
+
+	@Test
+	public void testPigeonhole() {
+		int holes = 4;
+		SatSolver solver = createSolver((holes + 1) * holes);
+		for(int pigeon = 0; pigeon <= holes; pigeon++) {
+			int[] clause = new int[holes];
+			for(int hole = 0; hole < holes; hole++)
+				clause[hole] = pigeon * holes + hole + 1;
+			solver.addClause(clause);
+		}
+		for(int hole = 0; hole < holes; hole++)
+			for(int first = 0; first <= holes; first++)
+				for(int second = first + 1; second <= holes; second++)
+					solver.addClause(-(first * holes + hole + 1), -(second * holes + hole + 1));
+		assertFalse(solver.solve());
+	}
+
+	@Test
+	public void testRandom() {
+		Random random = new Random(0);
+		int variables = 10;
+		for(int test = 0; test < 200; test++) {
+			int[][] clauses = new int[20 + random.nextInt(30)][3];
+			SatSolver solver = createSolver(variables);
+			for(int[] clause : clauses) {
+				for(int i = 0; i < clause.length; i++)
+					clause[i] = (random.nextInt(variables) + 1) * (random.nextBoolean() ? 1 : -1);
+				solver.addClause(clause);
+			}
+			boolean satisfiable = solver.solve();
+			assertEquals(isSatisfiable(clauses, variables), satisfiable);
+			if(satisfiable)
+				for(int[] clause : clauses)
+					assertTrue(isSatisfied(clause, solver));
+		}
+	}
+
+	private static SatSolver createSolver(int variables) {
+		SatSolver solver = new SatSolver();
+		for(int i = 0; i < variables; i++)
+			solver.newVariable();
+		return solver;
+	}
+
+	private static boolean isSatisfied(int[] clause, SatSolver solver) {
+		for(int literal : clause)
+			if(solver.getValue(Math.abs(literal)) == literal > 0)
+				return true;
+		return false;
+	}
+
+	private static boolean isSatisfiable(int[][] clauses, int variables) {
+		for(int assignment = 0; assignment < 1 << variables; assignment++) {
+			boolean satisfied = true;
+			for(int[] clause : clauses) {
+				boolean clauseSatisfied = false;
+				for(int literal : clause)
+					if(((assignment >> (Math.abs(literal) - 1) & 1) == 1) == literal > 0)
+						clauseSatisfied = true;
+				satisfied &= clauseSatisfied;
+			}
+			if(satisfied)
+				return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,156 @@
+package logic.prover;
+
+import cern.colt.bitvector.BitMatrix;
+import clausal_discovery.core.PredicateDefinition;
+import logic.bias.Type;
+import logic.expression.formula.Clause;
+import logic.expression.formula.InfixPredicate;
+import logic.expression.formula.Predicate;
+import logic.expression.term.Variable;
+import logic.theory.FileTheory;
+import logic.theory.InlineTheory;
+import logic.theory.KnowledgeBase;
+import logic.theory.LogicExecutor;
+import logic.theory.Model;
+import logic.theory.Theory;
+import logic.theory.Vocabulary;
+import org.junit.Before;
+import org.junit.Test;
+import vector.Vector;
+
+import java.io.File;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+public class SkolemProverTest {
+
+	private static class CountingExecutor implements LogicExecutor {
+
+		private int entailmentCount = 0;
+
+		@Override
+		public BitMatrix testValidityTheories(KnowledgeBase knowledgeBase) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean entails(KnowledgeBase program, InlineTheory theory) {
+			entailmentCount++;
+			return false;
+		}
+	}
+
+	private static final InfixPredicate INEQUALITY = new InfixPredicate("~=");
+
+	private final Type type = new Type("t");
+
+	private final Predicate p = new Predicate("p", type);
+
+	private final Predicate q = new Predicate("q", type);
+
+	private final Predicate r = new Predicate("r", type);
+
+	private final Predicate e = new Predicate("e", type, type);
+
+	private final Variable x = new Variable("X", type);
+
+	private final Variable y = new Variable("Y", type);
+
+	private Vocabulary vocabulary;
+
+	private CountingExecutor delegate;
+
+	private SkolemProver prover;
+
+	@Before
+	public void before() {
+		vocabulary = new Vocabulary(new Vector<>(type), new Vector<>(new PredicateDefinition(p),
+				new PredicateDefinition(q), new PredicateDefinition(r), new PredicateDefinition(e)));
+		delegate = new CountingExecutor();
+		prover = new SkolemProver(delegate);
+	}
+
+	@Test
+	public void testEntailed() {
+		KnowledgeBase program = getProgram(Clause.horn(q.getInstance(x), p.getInstance(x)),
+				Clause.horn(r.getInstance(x), q.getInstance(x)));
+		InlineTheory theory = new InlineTheory(Clause.horn(r.getInstance(x), p.getInstance(x)));
+		assertTrue(prover.canDecide(program, theory));
+		assertTrue(prover.entails(program, theory));
+		assertEquals(0, delegate.entailmentCount);
+	}
+
+	@Test
+	public void testNotEntailed() {
+		KnowledgeBase program = getProgram(Clause.horn(q.getInstance(x), p.getInstance(x)));
+		Clause clause = Clause.horn(p.getInstance(x), q.getInstance(x));
+		InlineTheory theory = new InlineTheory(clause);
+		assertTrue(prover.canDecide(program, theory));
+		assertFalse(prover.entails(program, theory));
+		Optional<Model> countermodel = prover.findCountermodel(program, clause);
+		assertTrue(countermodel.isPresent());
+		assertFalse(countermodel.get().satisfies(clause));
+		assertTrue(countermodel.get().satisfies(Clause.horn(q.getInstance(x), p.getInstance(x))));
+		assertEquals(0, delegate.entailmentCount);
+	}
+
+	@Test
+	public void testObjectIdentity() {
+		// No edges between distinct objects
+		KnowledgeBase program = getProgram(Clause.condition(e.getInstance(x, y), INEQUALITY.getInstance(x, y)));
+		InlineTheory identity = new InlineTheory(
+				Clause.horn(r.getInstance(x), e.getInstance(x, y), INEQUALITY.getInstance(x, y)));
+		assertTrue(prover.canDecide(program, identity));
+		assertTrue(prover.entails(program, identity));
+		assertEquals(0, delegate.entailmentCount);
+
+		// Without object identity, X and Y may be equal, so the clause is passed on to the delegate
+		InlineTheory noIdentity = new InlineTheory(Clause.horn(r.getInstance(x), e.getInstance(x, y)));
+		assertFalse(prover.canDecide(program, noIdentity));
+		assertFalse(prover.entails(program, noIdentity));
+		assertEquals(1, delegate.entailmentCount);
+	}
+
+	@Test
+	public void testTypeWithoutSkolemConstant() {
+		// Every object of type S is related to some object of type T, none of the related objects is p
+		Type other = new Type("s");
+		Predicate s = new Predicate("s", type, other);
+		Predicate o = new Predicate("o", other);
+		Variable z = new Variable("Z", other);
+		Vocabulary vocabulary = new Vocabulary(new Vector<>(type, other), new Vector<>(new PredicateDefinition(p),
+				new PredicateDefinition(s), new PredicateDefinition(o)));
+		Vector<Theory> theories = new Vector<>(new InlineTheory(Clause.fact(s.getInstance(x, z)),
+				Clause.condition(s.getInstance(x, z), o.getInstance(z))));
+		KnowledgeBase program = new KnowledgeBase(vocabulary, theories, new Vector<>());
+
+		// The clause only contains a Skolem constant of type S, the premises require an object of type T
+		Clause clause = Clause.condition(o.getInstance(z));
+		InlineTheory theory = new InlineTheory(clause);
+		assertTrue(prover.canDecide(program, theory));
+		assertFalse(prover.findCountermodel(program, clause).isPresent());
+		assertTrue(prover.entails(program, theory));
+
+		Clause notEntailed = Clause.condition(p.getInstance(x));
+		Optional<Model> countermodel = prover.findCountermodel(program, notEntailed);
+		assertTrue(countermodel.isPresent());
+		assertFalse(countermodel.get().satisfies(notEntailed));
+		assertEquals(0, delegate.entailmentCount);
+	}
+
+	@Test
+	public void testFileTheory() {
+		Vector<Theory> theories = new Vector<>(new InlineTheory(Clause.horn(q.getInstance(x), p.getInstance(x))));
+		Vector<Theory> background = new Vector<>(new FileTheory(new File("background.idp")));
+		KnowledgeBase program = new KnowledgeBase(vocabulary, theories, background, new Vector<>());
+		InlineTheory theory = new InlineTheory(Clause.horn(q.getInstance(x), p.getInstance(x)));
+		assertFalse(prover.canDecide(program, theory));
+		assertFalse(prover.entails(program, theory));
+		assertEquals(1, delegate.entailmentCount);
+	}
+
+	private KnowledgeBase getProgram(Clause... premises) {
+		return new KnowledgeBase(vocabulary, new Vector<>(new InlineTheory(premises)), new Vector<>());
+	}
+}
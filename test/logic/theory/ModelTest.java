@@ -0,0 +1,72 @@
+package logic.theory;
+
+import logic.bias.Type;
+import logic.expression.formula.Clause;
+import logic.expression.formula.InfixPredicate;
+import logic.expression.formula.Predicate;
+import logic.expression.term.Constant;
+import logic.expression.term.Variable;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+public class ModelTest {
+
+	private static final InfixPredicate INEQUALITY = new InfixPredicate("~=");
+
+	private final Type type = new Type("t");
+
+	private final Predicate p = new Predicate("p", type);
+
+	private final Predicate e = new Predicate("e", type, type);
+
+	private final Predicate q = new Predicate("q", type);
+
+	private final Constant a = new Constant("a", type);
+
+	private final Constant b = new Constant("b", type);
+
+	private final Variable x = new Variable("X", type);
+
+	private final Variable y = new Variable("Y", type);
+
+	private final Model model = new Model(Arrays.asList(a, b), Arrays.asList(p, e),
+			Arrays.asList(p.getInstance(a), e.getInstance(a, b)));
+
+	@Test
+	public void testAtoms() {
+		assertTrue(model.isTrue(p.getInstance(a)));
+		assertFalse(model.isTrue(p.getInstance(b)));
+		assertTrue(model.isTrue(e.getInstance(a, b)));
+		assertFalse(model.isTrue(e.getInstance(b, a)));
+	}
+
+	@Test
+	public void testSatisfies() {
+		assertTrue(model.satisfies(Clause.horn(p.getInstance(x), e.getInstance(x, y))));
+		assertFalse(model.satisfies(Clause.horn(p.getInstance(y), e.getInstance(x, y))));
+		assertTrue(model.satisfies(Clause.condition(e.getInstance(x, x))));
+		assertFalse(model.satisfies(Clause.condition(e.getInstance(x, y), INEQUALITY.getInstance(x, y))));
+		assertFalse(model.satisfies(Clause.fact(p.getInstance(x), e.getInstance(x, y))));
+	}
+
+	@Test
+	public void testViolation() {
+		Optional<Map<Variable, Constant>> violation = model.findViolation(
+				Clause.horn(p.getInstance(y), e.getInstance(x, y)));
+		assertTrue(violation.isPresent());
+		assertEquals(a, violation.get().get(x));
+		assertEquals(b, violation.get().get(y));
+		assertFalse(model.findViolation(Clause.horn(p.getInstance(x), e.getInstance(x, y))).isPresent());
+	}
+
+	@Test
+	public void testCanEvaluate() {
+		assertTrue(model.canEvaluate(Clause.condition(e.getInstance(x, y), INEQUALITY.getInstance(x, y))));
+		assertFalse(model.canEvaluate(Clause.horn(q.getInstance(x), p.getInstance(x))));
+	}
+}
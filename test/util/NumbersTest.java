@@ -2,7 +2,10 @@ package util;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static org.junit.Assert.*;
@@ -68,4 +71,67 @@ public class NumbersTest {
 		assertTrue(choices.contains(new Numbers.Permutation(new int[]{0, 2, 3})));
 		assertTrue(choices.contains(new Numbers.Permutation(new int[]{1, 2, 3})));
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testPermutationsMultiset() {
+		List<Numbers.Permutation> permutations = Numbers.getPermutations(new int[]{2, 1, 2, 1});
+		assertEquals(6, permutations.size());
+		assertEquals(new Numbers.Permutation(new int[]{1, 1, 2, 2}), permutations.get(0));
+		assertEquals(new Numbers.Permutation(new int[]{1, 2, 1, 2}), permutations.get(1));
+		assertEquals(new Numbers.Permutation(new int[]{2, 2, 1, 1}), permutations.get(5));
+	}
+
+	@Test
+	public void testHeapPermutations() {
+		Set<String> permutations = new HashSet<>();
+		int[] previous = null;
+		for(int[] permutation : Numbers.heapPermutations(5)) {
+			assertTrue(permutations.add(Arrays.toString(permutation)));
+			if(previous != null)
+				assertEquals(2, countDifferences(previous, permutation));
+			previous = permutation.clone();
+		}
+		assertEquals(120, permutations.size());
+	}
+
+	@Test
+	public void testRevolvingDoorChoices() {
+		for(int pool = 1; pool <= 7; pool++)
+			for(int length = 0; length <= pool; length++) {
+				List<String> choices = new ArrayList<>();
+				Set<Integer> previous = null;
+				for(int[] choice : Numbers.revolvingDoorChoices(pool, length)) {
+					choices.add(Arrays.toString(choice));
+					Set<Integer> elements = new HashSet<>();
+					for(int element : choice)
+						elements.add(element);
+					if(previous != null) {
+						elements.removeAll(previous);
+						assertEquals(1, elements.size());
+					}
+					previous = new HashSet<>();
+					for(int element : choice)
+						previous.add(element);
+				}
+				List<String> expected = new ArrayList<>();
+				for(Numbers.Permutation choice : Numbers.getChoices(pool, length))
+					expected.add(Arrays.toString(choice.getArray()));
+				assertEquals(new HashSet<>(expected), new HashSet<>(choices));
+				assertEquals(expected.size(), choices.size());
+			}
+	}
+
+	@Test
+	public void testMemoizedPermutations() {
+		assertSame(Numbers.getPermutations(4), Numbers.getPermutations(4));
+		assertEquals(24, Numbers.getPermutations(4).size());
+	}
+
+	private static int countDifferences(int[] array1, int[] array2) {
+		int count = 0;
+		for(int i = 0; i < array1.length; i++)
+			if(array1[i] != array2[i])
+				count++;
+		return count;
+	}
+}